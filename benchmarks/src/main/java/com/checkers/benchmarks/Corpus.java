@@ -0,0 +1,83 @@
+package com.checkers.benchmarks;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+/**
+ * Conjunto fixo de posições usado pelos benchmarks, separado por fase do jogo.
+ *
+ * Cada diagrama lista as 32 casas escuras linha a linha (linha 0 = lado das pretas),
+ * 4 casas por linha separadas por '/': 'w'/'b' peças simples, 'W'/'B' damas, '.' vazia.
+ */
+public final class Corpus {
+
+    public static final String ABERTURA = "ABERTURA";
+    public static final String MEIO_JOGO = "MEIO_JOGO";
+    public static final String FINAL = "FINAL";
+
+    private static final String[] ABERTURAS = {
+        "bbbb/bbbb/bbbb/..../..../wwww/wwww/wwww",
+        "bbbb/bbbb/bbb./...b/..w./ww.w/wwww/wwww",
+        "bbbb/bbbb/.bbb/b.../...w/w.ww/wwww/wwww",
+        "bbbb/b.bb/bbbb/.b../.w../ww.w/wwww/wwww",
+    };
+
+    private static final String[] MEIOS_DE_JOGO = {
+        "bbbb/bb.b/b.bb/.bb./.ww./w.ww/ww.w/wwww",
+        "b.bb/bbb./.bbb/bwb./w.bw/.ww./w.ww/w.ww",
+        ".bbb/b.b./bbwb/.b.w/bw../..ww/w.w./.www",
+        "bb.b/.bbb/b..b/.bwb/wbw./w..w/.ww./ww.w",
+    };
+
+    private static final String[] FINAIS = {
+        "..B./..../.W../..../..b./W.../..../...W",
+        "B.../..../..w./.B../..../..W./.b../...W",
+        "...B/.W../..../..B./w.../..../.W.B/....",
+        "..../.B../..W./..../B..W/..../..b./W...",
+    };
+
+    private Corpus() {
+    }
+
+    public static Posicao[] posicoes(String fase) {
+        String[] diagramas;
+        switch (fase) {
+            case ABERTURA:
+                diagramas = ABERTURAS;
+                break;
+            case MEIO_JOGO:
+                diagramas = MEIOS_DE_JOGO;
+                break;
+            case FINAL:
+                diagramas = FINAIS;
+                break;
+            default:
+                throw new IllegalArgumentException("Fase desconhecida: " + fase);
+        }
+
+        Posicao[] posicoes = new Posicao[diagramas.length];
+        for (int i = 0; i < diagramas.length; i++) {
+            posicoes[i] = lerDiagrama(diagramas[i]);
+        }
+        return posicoes;
+    }
+
+    static Posicao lerDiagrama(String diagrama) {
+        String casas = diagrama.replace("/", "");
+        if (casas.length() != Bitboard.CASAS) {
+            throw new IllegalArgumentException("Diagrama inválido: " + diagrama);
+        }
+
+        long brancas = 0L;
+        long pretas = 0L;
+        long damas = 0L;
+        for (int casa = 0; casa < Bitboard.CASAS; casa++) {
+            char ch = casas.charAt(casa);
+            long b = Bitboard.bit(casa);
+            if (ch == 'w' || ch == 'W') brancas |= b;
+            if (ch == 'b' || ch == 'B') pretas |= b;
+            if (ch == 'W' || ch == 'B') damas |= b;
+        }
+        return new Posicao(brancas, pretas, damas);
+    }
+}
@@ -0,0 +1,141 @@
+package com.checkers.benchmarks;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara as regras antigas ({@code String[][]}) com o motor em bitboards nos
+ * caminhos usados pelo cliente: busca de capturas obrigatórias, capturas de uma
+ * peça e aplicação de movimento. Cada operação percorre todas as posições da fase.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RegrasBenchmark {
+
+    @Param({Corpus.ABERTURA, Corpus.MEIO_JOGO, Corpus.FINAL})
+    public String fase;
+
+    private Posicao[] posicoes;
+    private TabuleiroLegado[] legados;
+
+    // Um movimento pré-calculado por posição (captura se houver, senão simples)
+    private int[] origens;
+    private int[] destinos;
+
+    private Posicao rascunho;
+    private TabuleiroLegado rascunhoLegado;
+    private ListaMovimentos lista;
+
+    @Setup
+    public void preparar() {
+        posicoes = Corpus.posicoes(fase);
+        legados = new TabuleiroLegado[posicoes.length];
+        origens = new int[posicoes.length];
+        destinos = new int[posicoes.length];
+
+        for (int i = 0; i < posicoes.length; i++) {
+            Posicao p = posicoes[i];
+            legados[i] = new TabuleiroLegado(p);
+            escolherMovimento(p, i);
+        }
+
+        rascunho = new Posicao();
+        rascunhoLegado = new TabuleiroLegado(posicoes[0]);
+        lista = new ListaMovimentos();
+    }
+
+    private void escolherMovimento(Posicao p, int i) {
+        long comCaptura = p.pecasComCaptura(true) | p.pecasComCaptura(false);
+        long candidatas = comCaptura != 0
+                ? comCaptura
+                : p.pecasComMovimentoSimples(true) | p.pecasComMovimentoSimples(false);
+        if (candidatas == 0) {
+            throw new IllegalStateException("Posição sem movimentos:\n" + p);
+        }
+
+        int origem = Long.numberOfTrailingZeros(candidatas);
+        long alvos = comCaptura != 0 ? p.capturasDe(origem) : p.movimentosSimplesDe(origem);
+        origens[i] = origem;
+        destinos[i] = Long.numberOfTrailingZeros(alvos);
+    }
+
+    // ==================== encontrarTodasCapturas ====================
+
+    @Benchmark
+    public void encontrarTodasCapturasLegado(Blackhole bh) {
+        for (TabuleiroLegado t : legados) {
+            bh.consume(t.encontrarTodasCapturas(true));
+            bh.consume(t.encontrarTodasCapturas(false));
+        }
+    }
+
+    @Benchmark
+    public void encontrarTodasCapturasBitboard(Blackhole bh) {
+        for (Posicao p : posicoes) {
+            bh.consume(p.pecasComCaptura(true));
+            bh.consume(p.pecasComCaptura(false));
+        }
+    }
+
+    // ==================== movimentosDeCaptura ====================
+
+    @Benchmark
+    public void movimentosDeCapturaLegado(Blackhole bh) {
+        for (TabuleiroLegado t : legados) {
+            for (int r = 0; r < 8; r++) {
+                for (int c = 0; c < 8; c++) {
+                    bh.consume(t.movimentosDeCaptura(t.peca(r, c), r, c));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void movimentosDeCapturaBitboard(Blackhole bh) {
+        for (Posicao p : posicoes) {
+            for (int casa = 0; casa < Bitboard.CASAS; casa++) {
+                bh.consume(p.capturasDe(casa));
+            }
+        }
+    }
+
+    // ==================== aplicarMovimento ====================
+
+    @Benchmark
+    public void aplicarMovimentoLegado(Blackhole bh) {
+        for (int i = 0; i < legados.length; i++) {
+            rascunhoLegado.copiarDe(legados[i]);
+            rascunhoLegado.aplicarMovimento(
+                    Bitboard.linha(origens[i]), Bitboard.coluna(origens[i]),
+                    Bitboard.linha(destinos[i]), Bitboard.coluna(destinos[i]));
+            bh.consume(rascunhoLegado);
+        }
+    }
+
+    @Benchmark
+    public void aplicarMovimentoBitboard(Blackhole bh) {
+        for (int i = 0; i < posicoes.length; i++) {
+            rascunho.copiarDe(posicoes[i]);
+            bh.consume(rascunho.aplicarMovimento(origens[i], destinos[i]));
+        }
+    }
+
+    // ==================== geração completa (capturas múltiplas) ====================
+
+    @Benchmark
+    public void gerarLancesCompletos(Blackhole bh) {
+        for (Posicao p : posicoes) {
+            bh.consume(GeradorMovimentos.gerar(p, lista));
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.checkers.benchmarks;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cópia fiel das regras antigas do CheckersClient sobre {@code String[][] pecas},
+ * mantida apenas como referência de comparação para os benchmarks.
+ */
+public class TabuleiroLegado {
+
+    private final String[][] pecas = new String[8][8];
+
+    public TabuleiroLegado(Posicao posicao) {
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                int casa = Bitboard.indice(r, c);
+                pecas[r][c] = "";
+                if (posicao.ehBranca(casa)) pecas[r][c] = posicao.ehDama(casa) ? "⚪D" : "⚪";
+                if (posicao.ehPreta(casa)) pecas[r][c] = posicao.ehDama(casa) ? "⚫D" : "⚫";
+            }
+        }
+    }
+
+    public void copiarDe(TabuleiroLegado outro) {
+        for (int r = 0; r < 8; r++) {
+            System.arraycopy(outro.pecas[r], 0, pecas[r], 0, 8);
+        }
+    }
+
+    public String peca(int r, int c) {
+        return pecas[r][c];
+    }
+
+    public List<int[]> encontrarTodasCapturas(boolean ehBranca) {
+        List<int[]> todasCapturas = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                String peca = pecas[r][c];
+                if (!peca.isEmpty() && peca.contains("⚪") == ehBranca) {
+                    todasCapturas.addAll(movimentosDeCaptura(peca, r, c));
+                }
+            }
+        }
+        return todasCapturas;
+    }
+
+    public List<int[]> movimentosDeCaptura(String peca, int r, int c) {
+        List<int[]> moves = new ArrayList<>();
+        if (peca.isEmpty()) return moves;
+
+        boolean ehDama = peca.contains("D");
+        boolean ehBranca = peca.contains("⚪");
+        int[] dirs = {-1, 1};
+
+        for (int dr : dirs) {
+            for (int dc : dirs) {
+                if (ehDama) {
+                    int rr = r + dr;
+                    int cc = c + dc;
+                    boolean inimigoEncontrado = false;
+
+                    while (rr >= 0 && rr < 8 && cc >= 0 && cc < 8) {
+                        if (!pecas[rr][cc].isEmpty()) {
+                            boolean mesmaColor = pecas[rr][cc].contains("⚪") == ehBranca;
+                            if (mesmaColor || inimigoEncontrado) break;
+                            inimigoEncontrado = true;
+                        } else if (inimigoEncontrado) {
+                            moves.add(new int[]{rr, cc});
+                        }
+                        rr += dr;
+                        cc += dc;
+                    }
+                } else {
+                    int rm = r + dr;
+                    int cm = c + dc;
+                    int r2 = r + 2 * dr;
+                    int c2 = c + 2 * dc;
+
+                    if (r2 >= 0 && r2 < 8 && c2 >= 0 && c2 < 8) {
+                        boolean temInimigo = !pecas[rm][cm].isEmpty() &&
+                                pecas[rm][cm].contains("⚪") != ehBranca;
+                        boolean casaVazia = pecas[r2][c2].isEmpty();
+
+                        if (temInimigo && casaVazia) {
+                            moves.add(new int[]{r2, c2});
+                        }
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+
+    public void aplicarMovimento(int r1, int c1, int r2, int c2) {
+        int dr = r2 - r1;
+        int dc = c2 - c1;
+
+        // Captura peça(s) no caminho
+        if (Math.abs(dr) >= 2) {
+            int stepR = Integer.signum(dr);
+            int stepC = Integer.signum(dc);
+
+            for (int i = 1; i < Math.abs(dr); i++) {
+                int rr = r1 + i * stepR;
+                int cc = c1 + i * stepC;
+                if (!pecas[rr][cc].isEmpty()) {
+                    pecas[rr][cc] = "";
+                }
+            }
+        }
+
+        // Move a peça
+        pecas[r2][c2] = pecas[r1][c1];
+        pecas[r1][c1] = "";
+
+        // Promove a dama
+        if (pecas[r2][c2].equals("⚪") && r2 == 0) pecas[r2][c2] = "⚪D";
+        if (pecas[r2][c2].equals("⚫") && r2 == 7) pecas[r2][c2] = "⚫D";
+    }
+}
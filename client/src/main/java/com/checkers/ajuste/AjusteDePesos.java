@@ -0,0 +1,259 @@
+package com.checkers.ajuste;
+
+import com.checkers.arquivo.LeitorDePartidas;
+import com.checkers.arquivo.Partida;
+import com.checkers.engine.Avaliacao;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.stream.IntStream;
+
+/**
+ * Ajuste dos pesos de {@link Avaliacao} pelo método de Texel: a avaliação estática de
+ * posições tranquilas de partidas gravadas deve prever o resultado da partida.
+ *
+ * A previsão de uma posição é {@code 1 / (1 + 10^(-k * avaliacao / 400))}, do ponto de
+ * vista das brancas, e o erro é a média de {@code (resultado - previsao)^2}, com
+ * vitória 1, derrota 0 e empate 0,5. Primeiro a escala {@code k} é ajustada aos pesos
+ * iniciais; depois, com {@code k} fixo, cada peso sobe ou desce um passo enquanto o
+ * erro cair, com passos de 16 até 1.
+ *
+ * Só entram partidas completas com vencedor conhecido, a partir do lance
+ * {@code damas.ajuste.pular} (padrão 6, para não repetir as aberturas), e só posições
+ * tranquilas: nenhum dos lados tem captura. Empates só com
+ * {@code -Ddamas.ajuste.empates=true}: os do torneio local são por limite de lances,
+ * muitas vezes com vantagem que a busca curta não converteu, e ensinam que material
+ * vale pouco. As características de cada posição
+ * ({@link Avaliacao#caracteristicas(Posicao, int[])}) são guardadas num único
+ * {@code byte[]}, posição após posição, e o resultado noutro; o erro é calculado em
+ * blocos contíguos desses vetores, em paralelo, e somado na ordem dos blocos para dar
+ * o mesmo resultado em toda execução. No máximo {@code damas.ajuste.limite} posições
+ * (padrão 50 milhões).
+ */
+public final class AjusteDePesos {
+
+    private static final int N = Avaliacao.NUM_CARACTERISTICAS;
+    private static final int PULAR_PADRAO = 6;
+    private static final int LIMITE_PADRAO = 50_000_000;
+    /** Posições por bloco do cálculo paralelo do erro. */
+    private static final int BLOCO = 1 << 15;
+    private static final int PASSO_INICIAL = 16;
+    private static final double LN10_400 = Math.log(10) / 400;
+
+    private final int pular;
+    private final int limite;
+    private final boolean empates;
+    // Características da posição i em [i * N, i * N + N); resultado em meios pontos das brancas
+    private byte[] caracteristicas = new byte[N * 1024];
+    private byte[] resultados = new byte[1024];
+    private int numPosicoes;
+    private long partidas;
+    private long partidasUsadas;
+    private final Posicao trabalho = new Posicao();
+    private final int[] valores = new int[N];
+
+    public AjusteDePesos(int pular, int limite, boolean empates) {
+        this.pular = pular;
+        this.limite = limite;
+        this.empates = empates;
+    }
+
+    public int getNumPosicoes() {
+        return numPosicoes;
+    }
+
+    /** Junta as posições tranquilas das partidas de um arquivo, até o limite. */
+    public void adicionar(Path arquivo) throws IOException {
+        try (LeitorDePartidas leitor = LeitorDePartidas.abrir(arquivo)) {
+            while (numPosicoes < limite && leitor.proxima()) {
+                partidas++;
+                Partida p = leitor.getPartida();
+                if (p.isCompleta()) adicionar(p);
+            }
+        }
+    }
+
+    private void adicionar(Partida partida) {
+        int meiosPontos;
+        switch (partida.getResultado()) {
+            case BRANCAS:
+                meiosPontos = 2;
+                break;
+            case PRETAS:
+                meiosPontos = 0;
+                break;
+            case EMPATE:
+                if (!empates) return;
+                meiosPontos = 1;
+                break;
+            default:
+                return;
+        }
+        partidasUsadas++;
+        trabalho.copiarDe(Posicao.inicial());
+        int n = partida.getNumSaltos();
+        int i = 0;
+        for (int lances = 0; i < n && numPosicoes < limite; lances++) {
+            int origem = Bitboard.origemDoSalto(partida.getSalto(i));
+            boolean brancas = trabalho.ehBranca(origem);
+            trabalho.setVezDasBrancas(brancas);
+            if (lances >= pular && !trabalho.temCaptura(true) && !trabalho.temCaptura(false)) {
+                guardar((byte) meiosPontos);
+            }
+            do {
+                int salto = partida.getSalto(i++);
+                trabalho.aplicarSalto(Bitboard.origemDoSalto(salto), Bitboard.destinoDoSalto(salto));
+            } while (i < n && trabalho.isVezDasBrancas() == brancas);
+        }
+    }
+
+    private void guardar(byte meiosPontos) {
+        if (numPosicoes == resultados.length) {
+            int capacidade = (int) Math.min((long) numPosicoes * 2, Integer.MAX_VALUE / N);
+            caracteristicas = Arrays.copyOf(caracteristicas, capacidade * N);
+            resultados = Arrays.copyOf(resultados, capacidade);
+        }
+        Avaliacao.caracteristicas(trabalho, valores);
+        int base = numPosicoes * N;
+        for (int j = 0; j < N; j++) {
+            caracteristicas[base + j] = (byte) valores[j];
+        }
+        resultados[numPosicoes++] = meiosPontos;
+    }
+
+    /** Erro quadrático médio das previsões com os pesos e a escala. */
+    public double erro(int[] pesos, double k) {
+        int blocos = (numPosicoes + BLOCO - 1) / BLOCO;
+        double[] parciais = new double[blocos];
+        IntStream.range(0, blocos).parallel().forEach(b -> parciais[b] = erroDoBloco(
+                pesos, k, b * BLOCO, Math.min(numPosicoes, (b + 1) * BLOCO)));
+        double soma = 0;
+        for (double parcial : parciais) {
+            soma += parcial;
+        }
+        return numPosicoes > 0 ? soma / numPosicoes : 0;
+    }
+
+    private double erroDoBloco(int[] pesos, double k, int inicio, int fim) {
+        byte[] c = caracteristicas;
+        byte[] r = resultados;
+        double escala = -k * LN10_400;
+        double soma = 0;
+        for (int i = inicio, base = inicio * N; i < fim; i++, base += N) {
+            int avaliacao = 0;
+            for (int j = 0; j < N; j++) {
+                avaliacao += pesos[j] * c[base + j];
+            }
+            double diferenca = r[i] * 0.5 - 1 / (1 + Math.exp(escala * avaliacao));
+            soma += diferenca * diferenca;
+        }
+        return soma;
+    }
+
+    /** Escala {@code k} de menor erro para os pesos, por busca da seção áurea em [0, 4]. */
+    public double ajustarEscala(int[] pesos) {
+        double razao = (Math.sqrt(5) - 1) / 2;
+        double a = 0;
+        double b = 4;
+        double x1 = b - razao * (b - a);
+        double x2 = a + razao * (b - a);
+        double e1 = erro(pesos, x1);
+        double e2 = erro(pesos, x2);
+        while (b - a > 1e-4) {
+            if (e1 < e2) {
+                b = x2;
+                x2 = x1;
+                e2 = e1;
+                x1 = b - razao * (b - a);
+                e1 = erro(pesos, x1);
+            } else {
+                a = x1;
+                x1 = x2;
+                e1 = e2;
+                x2 = a + razao * (b - a);
+                e2 = erro(pesos, x2);
+            }
+        }
+        return (a + b) / 2;
+    }
+
+    /**
+     * Busca local a partir dos pesos iniciais, com {@code k} fixo.
+     *
+     * @return os pesos de menor erro encontrados
+     */
+    public int[] ajustar(int[] iniciais, double k) {
+        int[] pesos = iniciais.clone();
+        double melhor = erro(pesos, k);
+        for (int passo = PASSO_INICIAL; passo >= 1; passo /= 2) {
+            int rodadas = 0;
+            boolean melhorou = true;
+            while (melhorou) {
+                melhorou = false;
+                rodadas++;
+                for (int j = 0; j < N; j++) {
+                    for (int sinal = 1; sinal >= -1; sinal -= 2) {
+                        pesos[j] += sinal * passo;
+                        double e = erro(pesos, k);
+                        if (e < melhor) {
+                            melhor = e;
+                            melhorou = true;
+                            break;
+                        }
+                        pesos[j] -= sinal * passo;
+                    }
+                }
+            }
+            System.out.printf(Locale.ROOT, "passo %2d: %d rodada(s), erro %.6f, pesos %s%n",
+                    passo, rodadas, melhor, Arrays.toString(pesos));
+        }
+        return pesos;
+    }
+
+    /**
+     * Uso: {@code AjusteDePesos <pesos> <partidas>...}. Parte dos pesos de
+     * {@link Avaliacao#padrao()} (ou seja, de {@code damas.avaliacao.pesos}, se houver) e
+     * grava os ajustados em {@code <pesos>}.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: AjusteDePesos <pesos> <partidas>...");
+            System.exit(2);
+        }
+        AjusteDePesos ajuste = new AjusteDePesos(
+                Integer.getInteger("damas.ajuste.pular", PULAR_PADRAO),
+                Integer.getInteger("damas.ajuste.limite", LIMITE_PADRAO),
+                Boolean.getBoolean("damas.ajuste.empates"));
+        long inicio = System.nanoTime();
+        for (int i = 1; i < args.length; i++) {
+            ajuste.adicionar(Path.of(args[i]));
+        }
+        System.out.printf(Locale.ROOT, "%d posições de %d partidas (%d lidas) em %d ms%n", ajuste.numPosicoes,
+                ajuste.partidasUsadas, ajuste.partidas, (System.nanoTime() - inicio) / 1_000_000);
+        if (ajuste.numPosicoes == 0) {
+            System.err.println("Nenhuma posição para ajustar");
+            System.exit(1);
+        }
+
+        int[] iniciais = Avaliacao.padrao().getPesos();
+        long ajusteInicio = System.nanoTime();
+        double k = ajuste.ajustarEscala(iniciais);
+        double erroInicial = ajuste.erro(iniciais, k);
+        System.out.printf(Locale.ROOT, "k = %.4f, erro inicial %.6f, pesos %s%n", k, erroInicial, Arrays.toString(iniciais));
+        int[] pesos = ajuste.ajustar(iniciais, k);
+        double erroFinal = ajuste.erro(pesos, k);
+        long ms = (System.nanoTime() - ajusteInicio) / 1_000_000;
+
+        Path destino = Path.of(args[0]);
+        new Avaliacao(pesos).gravar(destino, String.format(Locale.ROOT,
+                "Ajustados por AjusteDePesos: %d posições de %d partidas, k = %.4f%n"
+                        + "Erro %.6f -> %.6f; pesos iniciais %s",
+                ajuste.numPosicoes, ajuste.partidasUsadas, k, erroInicial, erroFinal, Arrays.toString(iniciais)));
+        System.out.printf(Locale.ROOT, "Erro %.6f -> %.6f em %d ms; pesos %s gravados em %s%n",
+                erroInicial, erroFinal, ms, Arrays.toString(pesos), destino);
+    }
+}
@@ -0,0 +1,184 @@
+package com.checkers.analise;
+
+import com.checkers.arquivo.LeitorDePartidas;
+import com.checkers.arquivo.Partida;
+import com.checkers.client.SincronizadorTabuleiro;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.AnalyzeRequest;
+import com.checkers.grpc.AnalyzeResponse;
+import com.checkers.grpc.MoveSequence;
+import com.checkers.grpc.PositionAnalysisGrpc;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
+import io.grpc.ManagedChannel;
+import io.grpc.ManagedChannelBuilder;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cliente do serviço local de análise ({@link ServicoDeAnalise}).
+ *
+ * {@link #global()} usa o endereço de {@code damas.analise.endereco} ({@code host:porta});
+ * sem ele não há análise e as dicas da mesa ficam desligadas.
+ *
+ * Uso: {@code ClienteDeAnalise <host:porta> <partidas> [partida] [msPorPosicao]}: análise
+ * pós-jogo de uma partida do arquivo. Todas as posições são pedidas de uma vez; a
+ * perda de cada lance é a pontuação antes dele menos a pontuação depois, do ponto de
+ * vista de quem jogou.
+ */
+public final class ClienteDeAnalise {
+
+    private static volatile ClienteDeAnalise global;
+
+    private final ManagedChannel channel;
+    private final PositionAnalysisGrpc.PositionAnalysisFutureStub stub;
+
+    public ClienteDeAnalise(String host, int port) {
+        this.channel = ManagedChannelBuilder.forAddress(host, port).usePlaintext().build();
+        this.stub = PositionAnalysisGrpc.newFutureStub(channel);
+    }
+
+    /** Cliente do endereço em {@code damas.analise.endereco}, ou {@code null} se não houver. */
+    public static ClienteDeAnalise global() {
+        ClienteDeAnalise cliente = global;
+        if (cliente != null) return cliente;
+        String endereco = System.getProperty("damas.analise.endereco");
+        if (endereco == null) return null;
+        synchronized (ClienteDeAnalise.class) {
+            if (global == null) {
+                int separador = endereco.lastIndexOf(':');
+                global = new ClienteDeAnalise(endereco.substring(0, separador),
+                        Integer.parseInt(endereco.substring(separador + 1)));
+            }
+            return global;
+        }
+    }
+
+    /** Pede a análise da posição; o futuro completa na thread do gRPC. */
+    public CompletableFuture<AnalyzeResponse> analisar(Posicao posicao, int profundidade, long tempoMs) {
+        AnalyzeRequest pedido = AnalyzeRequest.newBuilder()
+                .setPosition(SincronizadorTabuleiro.snapshot(posicao, 0))
+                .setDepth(profundidade)
+                .setTimeMs((int) tempoMs)
+                .build();
+        CompletableFuture<AnalyzeResponse> futuro = new CompletableFuture<>();
+        Futures.addCallback(stub.analyze(pedido), new FutureCallback<AnalyzeResponse>() {
+            @Override
+            public void onSuccess(AnalyzeResponse resposta) {
+                futuro.complete(resposta);
+            }
+
+            @Override
+            public void onFailure(Throwable erro) {
+                futuro.completeExceptionally(erro);
+            }
+        }, MoreExecutors.directExecutor());
+        return futuro;
+    }
+
+    /**
+     * Lance da análise em texto, como {@link ListaMovimentos#descrever(int)}; o
+     * caminho cru se ele não for legal na posição.
+     */
+    public static String descrever(Posicao posicao, MoveSequence lance) {
+        if (lance.getPathCount() < 2) return "-";
+        ListaMovimentos lista = new ListaMovimentos();
+        GeradorMovimentos.gerar(posicao, lista);
+        int[] caminho = new int[lance.getPathCount() - 1];
+        for (int j = 0; j < caminho.length; j++) {
+            caminho[j] = lance.getPath(j + 1);
+        }
+        int i = lista.procurar(lance.getPath(0), caminho, caminho.length);
+        return i >= 0 ? lista.descrever(i) : lance.getPathList().toString();
+    }
+
+    /** Variante principal em texto, lance a lance a partir da posição. */
+    public static String descreverVariante(Posicao posicao, AnalyzeResponse resposta) {
+        Posicao trabalho = new Posicao(posicao);
+        StringBuilder sb = new StringBuilder();
+        for (MoveSequence lance : resposta.getPrincipalVariationList()) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(descrever(trabalho, lance));
+            for (int j = 0; j + 1 < lance.getPathCount(); j++) {
+                trabalho.aplicarSalto(lance.getPath(j), lance.getPath(j + 1));
+            }
+        }
+        return sb.toString();
+    }
+
+    public void encerrar() {
+        channel.shutdown();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Uso: ClienteDeAnalise <host:porta> <partidas> [partida] [msPorPosicao]");
+            System.exit(2);
+        }
+        int separador = args[0].lastIndexOf(':');
+        ClienteDeAnalise cliente = new ClienteDeAnalise(args[0].substring(0, separador),
+                Integer.parseInt(args[0].substring(separador + 1)));
+        int indice = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+        long tempoMs = args.length > 3 ? Long.parseLong(args[3]) : 500;
+
+        // Posição antes de cada lance e o caminho jogado nele
+        List<Posicao> posicoes = new ArrayList<>();
+        List<MoveSequence> jogados = new ArrayList<>();
+        String titulo;
+        try (LeitorDePartidas leitor = LeitorDePartidas.abrir(Paths.get(args[1]))) {
+            for (int i = 0; i <= indice; i++) {
+                if (!leitor.proxima()) throw new IOException("O arquivo tem só " + i + " partida(s)");
+            }
+            Partida partida = leitor.getPartida();
+            titulo = partida.getBrancas() + " x " + partida.getPretas() + ": " + partida.getResultado()
+                    + " (" + partida.getMotivo() + ")";
+            Posicao posicao = Posicao.inicial();
+            MoveSequence.Builder caminho = null;
+            for (int i = 0; i < partida.getNumSaltos(); i++) {
+                int origem = Bitboard.origemDoSalto(partida.getSalto(i));
+                int destino = Bitboard.destinoDoSalto(partida.getSalto(i));
+                if (caminho == null) {
+                    posicoes.add(new Posicao(posicao));
+                    caminho = MoveSequence.newBuilder().addPath(origem);
+                }
+                boolean vez = posicao.ehBranca(origem);
+                posicao.aplicarSalto(origem, destino);
+                caminho.addPath(destino);
+                if (posicao.isVezDasBrancas() != vez) {
+                    jogados.add(caminho.build());
+                    caminho = null;
+                }
+            }
+            if (caminho != null) jogados.add(caminho.build());
+            posicoes.add(posicao);
+        }
+
+        List<CompletableFuture<AnalyzeResponse>> analises = new ArrayList<>();
+        for (Posicao posicao : posicoes) {
+            analises.add(cliente.analisar(posicao, 0, tempoMs));
+        }
+
+        System.out.println(titulo);
+        for (int i = 0; i < jogados.size(); i++) {
+            Posicao posicao = posicoes.get(i);
+            AnalyzeResponse antes = analises.get(i).get();
+            AnalyzeResponse depois = analises.get(i + 1).get();
+            int perda = antes.getScore() + depois.getScore();
+            System.out.printf("%3d. %s %-22s melhor %-22s %6d  perda %5d  %s%n", i / 2 + 1,
+                    posicao.isVezDasBrancas() ? "B" : "P",
+                    descrever(posicao, jogados.get(i)), descrever(posicao, antes.getBestMove()),
+                    antes.getScore(), perda, descreverVariante(posicao, antes));
+        }
+        cliente.encerrar();
+        cliente.channel.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
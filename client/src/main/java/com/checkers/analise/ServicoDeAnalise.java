@@ -0,0 +1,283 @@
+package com.checkers.analise;
+
+import com.checkers.client.Mensagens;
+import com.checkers.client.SincronizadorTabuleiro;
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Avaliacao;
+import com.checkers.engine.Busca;
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.Lance;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.engine.TabelaTransposicao;
+import com.checkers.finais.TabelaDeFinais;
+import com.checkers.grpc.AnalyzeRequest;
+import com.checkers.grpc.AnalyzeResponse;
+import com.checkers.grpc.PositionAnalysisGrpc;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serviço local de análise ({@code PositionAnalysis.Analyze}): o motor do cliente
+ * exposto por gRPC, para dicas e análise pós-jogo sem cada cliente ter a sua busca.
+ *
+ * As buscas rodam num pool limitado ({@code damas.analise.threads}, um por núcleo) com
+ * fila limitada ({@code damas.analise.fila}); fila cheia responde
+ * {@code RESOURCE_EXHAUSTED}. Cada thread do pool tem a sua {@link Busca} de uma
+ * thread, e todas dividem uma única {@link TabelaTransposicao}
+ * ({@code damas.analise.tabela} bits), então uma posição já analisada, ou vizinha de
+ * uma, sai mais barata para todos.
+ *
+ * Pedidos simultâneos da mesma posição viram uma só busca: enquanto ela espera na
+ * fila, os pedidos novos entram no mesmo lote e o orçamento passa a ser o maior
+ * deles; depois que ela começou, só se juntam pedidos que o orçamento dela já cobre.
+ * Cada lote responde a todos os seus pedidos com o mesmo resultado.
+ *
+ * Uso: {@code ServicoDeAnalise [porta] [threads]}
+ */
+public final class ServicoDeAnalise extends PositionAnalysisGrpc.PositionAnalysisImplBase {
+
+    private static final Registro REGISTRO = Registro.de("ANALISE");
+
+    /** Tempo quando o pedido não limita nem tempo nem profundidade. */
+    static final long TEMPO_PADRAO_MS = 1000;
+    private static final int MAX_VARIANTE = 24;
+
+    /** Uma busca e os pedidos que ela vai responder. */
+    private static final class Lote {
+        final Posicao posicao;
+        int profundidade;
+        long tempoMs;
+        final List<StreamObserver<AnalyzeResponse>> pedidos = new ArrayList<>();
+
+        Lote(Posicao posicao, int profundidade, long tempoMs) {
+            this.posicao = posicao;
+            this.profundidade = profundidade;
+            this.tempoMs = tempoMs;
+        }
+
+        boolean cobre(int outraProfundidade, long outroTempoMs) {
+            return profundidade >= outraProfundidade && tempoMs >= outroTempoMs;
+        }
+    }
+
+    private final TabelaTransposicao tabela;
+    private final ThreadPoolExecutor pool;
+    private final long tempoMaximoMs = Long.getLong("damas.analise.tempoMaximo", 30_000);
+    private final ThreadLocal<Busca> buscas;
+
+    // Lotes por hash da posição; protegidos por "this"
+    private final Map<Long, Lote> naFila = new HashMap<>();
+    private final Map<Long, Lote> emCurso = new HashMap<>();
+
+    private final LongAdder pedidos = new LongAdder();
+    private final LongAdder buscasFeitas = new LongAdder();
+    private final LongAdder recusados = new LongAdder();
+
+    public ServicoDeAnalise(int numThreads, Avaliacao avaliacao, TabelaDeFinais finais) {
+        this.tabela = new TabelaTransposicao(Integer.getInteger("damas.analise.tabela", 22));
+        AtomicInteger contador = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(numThreads, numThreads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Integer.getInteger("damas.analise.fila", 64)), r -> {
+                    Thread t = new Thread(r, "analise-" + contador.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        this.buscas = ThreadLocal.withInitial(() -> {
+            Busca busca = new Busca(tabela, avaliacao, 1);
+            busca.setFinais(finais);
+            return busca;
+        });
+    }
+
+    @Override
+    public void analyze(AnalyzeRequest pedido, StreamObserver<AnalyzeResponse> resposta) {
+        pedidos.increment();
+        Posicao posicao = SincronizadorTabuleiro.posicaoDe(pedido.getPosition());
+        int profundidade = pedido.getDepth() > 0
+                ? Math.min(pedido.getDepth(), Busca.PROFUNDIDADE_MAXIMA) : Busca.PROFUNDIDADE_MAXIMA;
+        long tempoMs = pedido.getTimeMs() > 0 ? Math.min(pedido.getTimeMs(), tempoMaximoMs)
+                : pedido.getDepth() > 0 ? tempoMaximoMs : TEMPO_PADRAO_MS;
+        long hash = posicao.getHash();
+
+        Lote novo;
+        synchronized (this) {
+            Lote lote = emCurso.get(hash);
+            if (lote != null && lote.posicao.equals(posicao) && lote.cobre(profundidade, tempoMs)) {
+                lote.pedidos.add(resposta);
+                return;
+            }
+            lote = naFila.get(hash);
+            if (lote != null && lote.posicao.equals(posicao)) {
+                lote.profundidade = Math.max(lote.profundidade, profundidade);
+                lote.tempoMs = Math.max(lote.tempoMs, tempoMs);
+                lote.pedidos.add(resposta);
+                return;
+            }
+            novo = new Lote(posicao, profundidade, tempoMs);
+            novo.pedidos.add(resposta);
+            // Outra posição com o mesmo hash: segue sem lote compartilhado
+            if (lote == null) naFila.put(hash, novo);
+        }
+
+        try {
+            pool.execute(() -> analisar(hash, novo));
+        } catch (RejectedExecutionException e) {
+            List<StreamObserver<AnalyzeResponse>> pedidosDoLote;
+            synchronized (this) {
+                naFila.remove(hash, novo);
+                pedidosDoLote = new ArrayList<>(novo.pedidos);
+            }
+            recusados.add(pedidosDoLote.size());
+            for (StreamObserver<AnalyzeResponse> pedidoDoLote : pedidosDoLote) {
+                responderErro(pedidoDoLote, Status.RESOURCE_EXHAUSTED.withDescription("Fila de análise cheia"));
+            }
+        }
+    }
+
+    private void analisar(long hash, Lote lote) {
+        synchronized (this) {
+            naFila.remove(hash, lote);
+            if (todosCancelados(lote)) return;
+            emCurso.put(hash, lote);
+        }
+
+        // A busca devolve um lance único sem avaliá-lo: os lances forçados são jogados
+        // aqui e a busca começa na primeira posição com escolha
+        Posicao raiz = new Posicao(lote.posicao);
+        List<Lance> forcados = new ArrayList<>();
+        ListaMovimentos lista = new ListaMovimentos();
+        while (forcados.size() < MAX_VARIANTE && GeradorMovimentos.gerar(raiz, lista) == 1) {
+            Lance forcado = lista.lance(0);
+            forcados.add(forcado);
+            raiz.jogar(forcado);
+        }
+
+        Busca busca = buscas.get();
+        Busca.Resultado resultado;
+        try {
+            resultado = busca.buscar(raiz, lote.tempoMs, lote.profundidade);
+        } catch (RuntimeException e) {
+            REGISTRO.erro("Falha na análise", e);
+            List<StreamObserver<AnalyzeResponse>> pedidosDoLote;
+            synchronized (this) {
+                emCurso.remove(hash, lote);
+                pedidosDoLote = new ArrayList<>(lote.pedidos);
+            }
+            for (StreamObserver<AnalyzeResponse> pedido : pedidosDoLote) {
+                responderErro(pedido, Status.INTERNAL.withDescription(e.getMessage()));
+            }
+            return;
+        }
+        buscasFeitas.increment();
+
+        List<StreamObserver<AnalyzeResponse>> pedidosDoLote;
+        synchronized (this) {
+            emCurso.remove(hash, lote);
+            // Fora dos mapas o lote não recebe mais pedidos
+            pedidosDoLote = new ArrayList<>(lote.pedidos);
+        }
+
+        int pontuacao = forcados.size() % 2 == 0 ? resultado.getPontuacao() : -resultado.getPontuacao();
+        AnalyzeResponse.Builder resposta = AnalyzeResponse.newBuilder()
+                .setScore(pontuacao)
+                .setDepth(resultado.getProfundidade() + forcados.size())
+                .setNodes(resultado.getNos())
+                .setTimeMs((int) TimeUnit.NANOSECONDS.toMillis(resultado.getTempoNs()))
+                .setSharedWith(pedidosDoLote.size() - 1);
+        List<Lance> variante = forcados;
+        if (resultado.getLance() != null && forcados.size() < MAX_VARIANTE) {
+            variante.addAll(busca.variantePrincipal(raiz, resultado.getLance(), MAX_VARIANTE - forcados.size()));
+        }
+        if (!variante.isEmpty()) {
+            resposta.setBestMove(Mensagens.sequencia(variante.get(0)));
+            for (Lance lance : variante) {
+                resposta.addPrincipalVariation(Mensagens.sequencia(lance));
+            }
+        }
+        AnalyzeResponse pronta = resposta.build();
+        for (StreamObserver<AnalyzeResponse> pedido : pedidosDoLote) {
+            responder(pedido, pronta);
+        }
+    }
+
+    private static boolean todosCancelados(Lote lote) {
+        for (StreamObserver<AnalyzeResponse> pedido : lote.pedidos) {
+            if (!((ServerCallStreamObserver<AnalyzeResponse>) pedido).isCancelled()) return false;
+        }
+        return true;
+    }
+
+    private static void responder(StreamObserver<AnalyzeResponse> pedido, AnalyzeResponse resposta) {
+        if (((ServerCallStreamObserver<AnalyzeResponse>) pedido).isCancelled()) return;
+        try {
+            pedido.onNext(resposta);
+            pedido.onCompleted();
+        } catch (RuntimeException e) {
+            // Cancelado entre a verificação e a resposta
+            REGISTRO.depuracao("Pedido de análise cancelado: " + e.getMessage());
+        }
+    }
+
+    private static void responderErro(StreamObserver<AnalyzeResponse> pedido, Status status) {
+        try {
+            pedido.onError(status.asRuntimeException());
+        } catch (RuntimeException e) {
+            REGISTRO.depuracao("Pedido de análise cancelado: " + e.getMessage());
+        }
+    }
+
+    /** Resumo dos contadores, para o registro periódico. */
+    String resumo() {
+        long totalPedidos = pedidos.sum();
+        long totalBuscas = buscasFeitas.sum();
+        return totalPedidos + " pedidos, " + totalBuscas + " buscas ("
+                + (totalPedidos - totalBuscas - recusados.sum()) + " compartilhados), "
+                + recusados.sum() + " recusados, " + pool.getQueue().size() + " na fila";
+    }
+
+    void encerrar() {
+        pool.shutdownNow();
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 50071;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Integer.getInteger("damas.analise.threads", Runtime.getRuntime().availableProcessors());
+
+        TabelaDeFinais finais = null;
+        String pastaFinais = System.getProperty("damas.finais.pasta");
+        if (pastaFinais != null) {
+            finais = TabelaDeFinais.abrir(Paths.get(pastaFinais));
+            REGISTRO.info("Tabelas de finais até " + finais.getMaxPecas() + " peças");
+        }
+
+        ServicoDeAnalise servico = new ServicoDeAnalise(threads, Avaliacao.padrao(), finais);
+        Server servidor = ServerBuilder.forPort(porta).addService(servico).build().start();
+        REGISTRO.info("Análise na porta " + porta + " com " + threads + " thread(s)");
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            servidor.shutdown();
+            servico.encerrar();
+        }));
+
+        while (!servidor.awaitTermination(30, TimeUnit.SECONDS)) {
+            REGISTRO.info(servico.resumo());
+        }
+    }
+}
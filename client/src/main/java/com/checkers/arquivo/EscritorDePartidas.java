@@ -0,0 +1,192 @@
+package com.checkers.arquivo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Acrescenta partidas ao arquivo binário descrito em {@link FormatoArquivo}.
+ *
+ * Cada partida é montada num buffer e gravada com uma única escrita no fim do
+ * arquivo. Ao abrir um arquivo existente, um registro cortado no fim (processo
+ * interrompido no meio de uma gravação) é descartado antes de continuar; mas só
+ * depois de conferir o cabeçalho, para um caminho errado (o índice de posições,
+ * por exemplo) falhar com {@link IOException} em vez de ser truncado.
+ *
+ * Vários processos podem gravar no mesmo arquivo (dois clientes na mesma pasta):
+ * abertura e gravação seguram um {@link FileLock} num byte muito além dos dados,
+ * que serve de trava entre escritores sem bloquear quem só lê.
+ */
+public final class EscritorDePartidas implements Closeable {
+
+    private static final long POSICAO_TRAVA = Long.MAX_VALUE - 1;
+
+    private final FileChannel canal;
+    private ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+    private EscritorDePartidas(FileChannel canal) {
+        this.canal = canal;
+    }
+
+    public static EscritorDePartidas abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock trava = travar(canal);
+            try {
+                conferirCabecalho(canal, arquivo);
+                // Menor que o cabeçalho: criação interrompida, recomeça do zero
+                if (canal.size() < FormatoArquivo.CABECALHO_PARTIDAS) {
+                    canal.truncate(0);
+                    escreverTudo(canal, cabecalho(), 0);
+                } else {
+                    long fimValido = fimValido(canal);
+                    if (canal.size() > fimValido) {
+                        canal.truncate(fimValido);
+                    }
+                }
+            } finally {
+                trava.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+        return new EscritorDePartidas(canal);
+    }
+
+    /**
+     * Grava uma partida.
+     *
+     * @param saltos   saltos no formato de {@code Bitboard.salto}, na ordem jogada
+     * @param completa falso se a lista de saltos tem lacunas (ressincronização)
+     * @return offset do registro no arquivo
+     */
+    public synchronized long gravar(long instante, String brancas, String pretas, ResultadoPartida resultado,
+                                    String motivo, int[] saltos, int numSaltos, boolean completa) throws IOException {
+        if (numSaltos > 0xFFFF) {
+            throw new IllegalArgumentException("Partida longa demais: " + numSaltos + " saltos");
+        }
+        byte[] b = utf8(brancas);
+        byte[] p = utf8(pretas);
+        byte[] m = utf8(motivo);
+        int tamanho = FormatoArquivo.OFF_TEXTOS + 6 + b.length + p.length + m.length + 2 * numSaltos;
+        if (buffer.capacity() < tamanho) {
+            buffer = ByteBuffer.allocate(Integer.highestOneBit(tamanho) << 1);
+        }
+
+        buffer.clear();
+        buffer.putInt(tamanho - 4)
+                .putLong(instante)
+                .put((byte) resultado.ordinal())
+                .put((byte) (completa ? FormatoArquivo.FLAG_COMPLETA : 0))
+                .putShort((short) numSaltos);
+        buffer.putShort((short) b.length).put(b);
+        buffer.putShort((short) p.length).put(p);
+        buffer.putShort((short) m.length).put(m);
+        for (int i = 0; i < numSaltos; i++) {
+            buffer.putShort((short) saltos[i]);
+        }
+        buffer.flip();
+
+        FileLock trava = travar(canal);
+        try {
+            long offset = canal.size();
+            escreverTudo(canal, buffer, offset);
+            return offset;
+        } finally {
+            trava.release();
+        }
+    }
+
+    /** Força os dados gravados para o disco. */
+    public synchronized void sincronizar() throws IOException {
+        canal.force(false);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        canal.close();
+    }
+
+    private static ByteBuffer cabecalho() {
+        ByteBuffer cabecalho = ByteBuffer.allocate(FormatoArquivo.CABECALHO_PARTIDAS);
+        cabecalho.putLong(FormatoArquivo.MAGICO_PARTIDAS).putInt(FormatoArquivo.VERSAO).putInt(0).flip();
+        return cabecalho;
+    }
+
+    /**
+     * O que já existe no arquivo deve ser o cabeçalho de partidas, ou o começo dele
+     * (criação interrompida); arquivo vazio também serve.
+     */
+    private static void conferirCabecalho(FileChannel canal, Path arquivo) throws IOException {
+        ByteBuffer esperado = cabecalho();
+        ByteBuffer lido = ByteBuffer.allocate((int) Math.min(canal.size(), esperado.remaining()));
+        while (lido.hasRemaining()) {
+            if (canal.read(lido, lido.position()) < 0) break;
+        }
+        lido.flip();
+        if (lido.limit() < FormatoArquivo.CABECALHO_PARTIDAS) {
+            esperado.limit(lido.limit());
+            if (!lido.equals(esperado)) {
+                throw new IOException("Não é um arquivo de partidas: " + arquivo);
+            }
+            return;
+        }
+        if (lido.getLong(0) != FormatoArquivo.MAGICO_PARTIDAS) {
+            throw new IOException("Não é um arquivo de partidas: " + arquivo);
+        }
+        if (lido.getInt(8) != FormatoArquivo.VERSAO) {
+            throw new IOException("Versão não suportada: " + lido.getInt(8));
+        }
+    }
+
+    /**
+     * Fim do último registro inteiro, seguindo só os prefixos de tamanho com leituras
+     * do canal. Não usa o {@link LeitorDePartidas}: o mapeamento dele continua ativo
+     * até a coleta de lixo, e no Windows um arquivo mapeado não pode ser truncado.
+     */
+    private static long fimValido(FileChannel canal) throws IOException {
+        long tamanhoArquivo = canal.size();
+        ByteBuffer prefixo = ByteBuffer.allocate(4);
+        long offset = FormatoArquivo.CABECALHO_PARTIDAS;
+        while (offset + 4 <= tamanhoArquivo) {
+            prefixo.clear();
+            long posicao = offset;
+            while (prefixo.hasRemaining()) {
+                int lidos = canal.read(prefixo, posicao);
+                if (lidos < 0) return offset;
+                posicao += lidos;
+            }
+            int tamanho = prefixo.getInt(0);
+            if (tamanho < FormatoArquivo.OFF_TEXTOS - 4 || offset + 4 + tamanho > tamanhoArquivo) {
+                break;
+            }
+            offset += 4 + tamanho;
+        }
+        return offset;
+    }
+
+    private static FileLock travar(FileChannel canal) throws IOException {
+        return canal.lock(POSICAO_TRAVA, 1, false);
+    }
+
+    private static void escreverTudo(FileChannel canal, ByteBuffer dados, long posicao) throws IOException {
+        while (dados.hasRemaining()) {
+            posicao += canal.write(dados, posicao);
+        }
+    }
+
+    private static byte[] utf8(String texto) {
+        if (texto == null) return new byte[0];
+        if (texto.length() > FormatoArquivo.MAX_TEXTO) {
+            texto = texto.substring(0, FormatoArquivo.MAX_TEXTO);
+        }
+        return texto.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,45 @@
+package com.checkers.arquivo;
+
+/**
+ * Layout dos arquivos de partidas e de índice (big-endian).
+ *
+ * Partidas: cabeçalho de 16 bytes (mágico, versão, reservado) seguido de registros
+ * <pre>
+ *   int   tamanho        bytes do registro depois deste campo
+ *   long  instante       fim da partida, em ms desde a época
+ *   byte  resultado      {@link ResultadoPartida#ordinal()}
+ *   byte  flags          bit 0: lista de saltos completa
+ *   short numSaltos
+ *   3 x (short n, n bytes UTF-8)   brancas, pretas, motivo do GameOver
+ *   numSaltos x short    saltos ({@code origem << 5 | destino})
+ * </pre>
+ *
+ * Índice: cabeçalho de 32 bytes (mágico, versão, reservado, bytes de partidas
+ * cobertos, número de entradas) seguido de entradas {@code (long hash, long offset)}
+ * ordenadas pelo hash sem sinal e, no mesmo hash, pelo offset.
+ */
+final class FormatoArquivo {
+
+    /** "DAMASPT1" */
+    static final long MAGICO_PARTIDAS = 0x44414D4153505431L;
+    /** "DAMASIX1" */
+    static final long MAGICO_INDICE = 0x44414D4153495831L;
+    static final int VERSAO = 1;
+
+    static final int CABECALHO_PARTIDAS = 16;
+    static final int CABECALHO_INDICE = 32;
+    static final int ENTRADA_INDICE = 16;
+
+    static final int OFF_INSTANTE = 4;
+    static final int OFF_RESULTADO = 12;
+    static final int OFF_FLAGS = 13;
+    static final int OFF_NUM_SALTOS = 14;
+    static final int OFF_TEXTOS = 16;
+
+    static final int FLAG_COMPLETA = 1;
+    /** Nomes e motivo são cortados neste número de caracteres. */
+    static final int MAX_TEXTO = 255;
+
+    private FormatoArquivo() {
+    }
+}
@@ -0,0 +1,381 @@
+package com.checkers.arquivo;
+
+import com.checkers.engine.Posicao;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Índice secundário do arquivo de partidas: para cada hash Zobrist de posição, os
+ * offsets das partidas que passaram por ela.
+ *
+ * {@link #construir} reproduz as partidas completas e grava pares {@code (hash, offset)}
+ * ordenados (formato em {@link FormatoArquivo}). Os pares são juntados em lotes que
+ * cabem na memória, cada lote é ordenado e vai para um arquivo temporário, e no fim os
+ * lotes são intercalados; assim o índice de milhões de partidas não precisa caber no
+ * heap. A busca é binária sobre as entradas mapeadas em memória.
+ *
+ * O índice cobre o arquivo de partidas até {@link #getCobertura()}; partidas gravadas
+ * depois só aparecem depois de reconstruí-lo.
+ */
+public final class IndicePosicoes implements Closeable {
+
+    /** Pares por lote de ordenação (16 bytes cada); {@code damas.indice.lote}. */
+    private static final int LOTE_PADRAO = 2 * 1024 * 1024;
+    /** Entradas por segmento mapeado: 1 GiB, sempre múltiplo do tamanho da entrada. */
+    private static final int ENTRADAS_POR_SEGMENTO = (1 << 30) / FormatoArquivo.ENTRADA_INDICE;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer[] segmentos;
+    private final long cobertura;
+    private final long numEntradas;
+
+    private IndicePosicoes(FileChannel canal, MappedByteBuffer[] segmentos, long cobertura, long numEntradas) {
+        this.canal = canal;
+        this.segmentos = segmentos;
+        this.cobertura = cobertura;
+        this.numEntradas = numEntradas;
+    }
+
+    public static IndicePosicoes abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        try {
+            if (canal.size() < FormatoArquivo.CABECALHO_INDICE) {
+                throw new IOException("Índice vazio ou truncado: " + arquivo);
+            }
+            MappedByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, FormatoArquivo.CABECALHO_INDICE);
+            if (cabecalho.getLong(0) != FormatoArquivo.MAGICO_INDICE) {
+                throw new IOException("Não é um índice de posições: " + arquivo);
+            }
+            if (cabecalho.getInt(8) != FormatoArquivo.VERSAO) {
+                throw new IOException("Versão não suportada: " + cabecalho.getInt(8));
+            }
+            long cobertura = cabecalho.getLong(16);
+            long numEntradas = cabecalho.getLong(24);
+            if (FormatoArquivo.CABECALHO_INDICE + numEntradas * FormatoArquivo.ENTRADA_INDICE > canal.size()) {
+                throw new IOException("Índice truncado: " + arquivo);
+            }
+
+            int numSegmentos = (int) ((numEntradas + ENTRADAS_POR_SEGMENTO - 1) / ENTRADAS_POR_SEGMENTO);
+            MappedByteBuffer[] segmentos = new MappedByteBuffer[numSegmentos];
+            for (int s = 0; s < numSegmentos; s++) {
+                long primeira = (long) s * ENTRADAS_POR_SEGMENTO;
+                long entradas = Math.min(ENTRADAS_POR_SEGMENTO, numEntradas - primeira);
+                segmentos[s] = canal.map(FileChannel.MapMode.READ_ONLY,
+                        FormatoArquivo.CABECALHO_INDICE + primeira * FormatoArquivo.ENTRADA_INDICE,
+                        entradas * FormatoArquivo.ENTRADA_INDICE);
+            }
+            return new IndicePosicoes(canal, segmentos, cobertura, numEntradas);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /** Bytes do arquivo de partidas indexados. */
+    public long getCobertura() {
+        return cobertura;
+    }
+
+    public long getNumEntradas() {
+        return numEntradas;
+    }
+
+    /** Offsets (crescentes) das partidas que passaram pela posição com este hash. */
+    public long[] buscar(long hash) {
+        long baixo = 0;
+        long alto = numEntradas;
+        while (baixo < alto) {
+            long meio = (baixo + alto) >>> 1;
+            if (Long.compareUnsigned(hashDa(meio), hash) < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        long fim = baixo;
+        while (fim < numEntradas && hashDa(fim) == hash) {
+            fim++;
+        }
+        long[] offsets = new long[(int) (fim - baixo)];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = offsetDa(baixo + i);
+        }
+        return offsets;
+    }
+
+    public long[] buscar(Posicao posicao) {
+        return buscar(posicao.getHash());
+    }
+
+    private long hashDa(long entrada) {
+        return segmentos[(int) (entrada / ENTRADAS_POR_SEGMENTO)]
+                .getLong((int) (entrada % ENTRADAS_POR_SEGMENTO) * FormatoArquivo.ENTRADA_INDICE);
+    }
+
+    private long offsetDa(long entrada) {
+        return segmentos[(int) (entrada / ENTRADAS_POR_SEGMENTO)]
+                .getLong((int) (entrada % ENTRADAS_POR_SEGMENTO) * FormatoArquivo.ENTRADA_INDICE + 8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        Arrays.fill(segmentos, null);
+        canal.close();
+    }
+
+    /**
+     * Indexa as partidas completas de {@code partidas} e grava o índice em {@code indice},
+     * substituindo o anterior só no fim (o arquivo é montado ao lado e movido).
+     * Uma posição repetida dentro da mesma partida entra uma vez só.
+     */
+    public static void construir(Path partidas, Path indice) throws IOException {
+        int tamanhoLote = Math.max(1024, Integer.getInteger("damas.indice.lote", LOTE_PADRAO));
+        Path pasta = indice.toAbsolutePath().getParent();
+        List<Path> lotes = new ArrayList<>();
+        Path temporario = Files.createTempFile(pasta, "indice", ".tmp");
+        try {
+            long cobertura;
+            Lote lote = new Lote(tamanhoLote);
+            try (LeitorDePartidas leitor = LeitorDePartidas.abrir(partidas)) {
+                Posicao trabalho = new Posicao();
+                long[] hashes = new long[0x10000 + 1];
+                while (leitor.proxima()) {
+                    Partida p = leitor.getPartida();
+                    if (!p.isCompleta()) continue;
+                    int n = p.calcularHashes(trabalho, hashes);
+                    Arrays.sort(hashes, 0, n);
+                    for (int i = 0; i < n; i++) {
+                        if (i > 0 && hashes[i] == hashes[i - 1]) continue;
+                        if (lote.cheio()) {
+                            lotes.add(lote.despejar(pasta));
+                        }
+                        lote.adicionar(hashes[i], p.getOffset());
+                    }
+                }
+                cobertura = leitor.getFimValido();
+            }
+
+            long numEntradas;
+            try (DataOutputStream saida = abrirSaida(temporario)) {
+                saida.writeLong(FormatoArquivo.MAGICO_INDICE);
+                saida.writeInt(FormatoArquivo.VERSAO);
+                saida.writeInt(0);
+                saida.writeLong(cobertura);
+                saida.writeLong(0);
+                if (lotes.isEmpty()) {
+                    numEntradas = lote.escrever(saida);
+                } else {
+                    if (lote.tamanho > 0) {
+                        lotes.add(lote.despejar(pasta));
+                    }
+                    numEntradas = intercalar(lotes, saida);
+                }
+            }
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.WRITE)) {
+                canal.write(ByteBuffer.allocate(8).putLong(0, numEntradas), 24);
+                canal.force(true);
+            }
+            Files.move(temporario, indice, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+            for (Path p : lotes) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static long intercalar(List<Path> lotes, DataOutputStream saida) throws IOException {
+        PriorityQueue<Cursor> fila = new PriorityQueue<>((a, b) -> {
+            int c = Long.compareUnsigned(a.hash, b.hash);
+            return c != 0 ? c : Long.compare(a.offset, b.offset);
+        });
+        List<Cursor> abertos = new ArrayList<>();
+        long escritas = 0;
+        try {
+            for (Path p : lotes) {
+                Cursor c = new Cursor(p);
+                abertos.add(c);
+                if (c.avancar()) fila.add(c);
+            }
+            while (!fila.isEmpty()) {
+                Cursor c = fila.poll();
+                saida.writeLong(c.hash);
+                saida.writeLong(c.offset);
+                escritas++;
+                if (c.avancar()) fila.add(c);
+            }
+        } finally {
+            for (Cursor c : abertos) {
+                c.close();
+            }
+        }
+        return escritas;
+    }
+
+    private static DataOutputStream abrirSaida(Path arquivo) throws IOException {
+        OutputStream saida = Files.newOutputStream(arquivo);
+        return new DataOutputStream(new BufferedOutputStream(saida, 1 << 16));
+    }
+
+    /** Pares acumulados em memória, ordenados por radix sort antes de sair. */
+    private static final class Lote {
+        private long[] hashes;
+        private long[] offsets;
+        private long[] auxHashes;
+        private long[] auxOffsets;
+        private int tamanho;
+
+        Lote(int capacidade) {
+            hashes = new long[capacidade];
+            offsets = new long[capacidade];
+        }
+
+        boolean cheio() {
+            return tamanho == hashes.length;
+        }
+
+        void adicionar(long hash, long offset) {
+            hashes[tamanho] = hash;
+            offsets[tamanho] = offset;
+            tamanho++;
+        }
+
+        Path despejar(Path pasta) throws IOException {
+            Path arquivo = Files.createTempFile(pasta, "indice-lote", ".tmp");
+            try (DataOutputStream saida = abrirSaida(arquivo)) {
+                escrever(saida);
+            } catch (IOException e) {
+                Files.deleteIfExists(arquivo);
+                throw e;
+            }
+            tamanho = 0;
+            return arquivo;
+        }
+
+        long escrever(DataOutputStream saida) throws IOException {
+            ordenar();
+            for (int i = 0; i < tamanho; i++) {
+                saida.writeLong(hashes[i]);
+                saida.writeLong(offsets[i]);
+            }
+            return tamanho;
+        }
+
+        /**
+         * Radix sort LSD por byte do hash, estável: os offsets chegam crescentes (ordem
+         * de leitura do arquivo), então continuam crescentes dentro de cada hash.
+         */
+        private void ordenar() {
+            if (auxHashes == null) {
+                auxHashes = new long[hashes.length];
+                auxOffsets = new long[hashes.length];
+            }
+            int[] contagem = new int[257];
+            for (int passo = 0; passo < 64; passo += 8) {
+                Arrays.fill(contagem, 0);
+                for (int i = 0; i < tamanho; i++) {
+                    contagem[(int) (hashes[i] >>> passo) & 0xFF]++;
+                }
+                if (contagem[(int) (hashes[0] >>> passo) & 0xFF] == tamanho) {
+                    continue; // todos com o mesmo byte: o passo não muda nada
+                }
+                int soma = 0;
+                for (int b = 0; b < 256; b++) {
+                    int n = contagem[b];
+                    contagem[b] = soma;
+                    soma += n;
+                }
+                for (int i = 0; i < tamanho; i++) {
+                    int destino = contagem[(int) (hashes[i] >>> passo) & 0xFF]++;
+                    auxHashes[destino] = hashes[i];
+                    auxOffsets[destino] = offsets[i];
+                }
+                long[] t = hashes;
+                hashes = auxHashes;
+                auxHashes = t;
+                t = offsets;
+                offsets = auxOffsets;
+                auxOffsets = t;
+            }
+        }
+    }
+
+    /** Leitura sequencial de um lote já ordenado. */
+    private static final class Cursor implements Closeable {
+        private final DataInputStream entrada;
+        long hash;
+        long offset;
+
+        Cursor(Path arquivo) throws IOException {
+            InputStream in = Files.newInputStream(arquivo);
+            entrada = new DataInputStream(new BufferedInputStream(in, 1 << 16));
+        }
+
+        boolean avancar() throws IOException {
+            try {
+                hash = entrada.readLong();
+            } catch (EOFException fim) {
+                return false;
+            }
+            offset = entrada.readLong();
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            entrada.close();
+        }
+    }
+
+    /**
+     * Uso:
+     * <pre>
+     *   IndicePosicoes construir &lt;partidas&gt; &lt;indice&gt;
+     *   IndicePosicoes buscar &lt;partidas&gt; &lt;indice&gt; &lt;brancasHex&gt; &lt;pretasHex&gt; &lt;damasHex&gt; &lt;b|p&gt;
+     * </pre>
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 3 && args[0].equals("construir")) {
+            long inicio = System.nanoTime();
+            construir(Path.of(args[1]), Path.of(args[2]));
+            try (IndicePosicoes indice = abrir(Path.of(args[2]))) {
+                System.out.printf("%d entradas cobrindo %d bytes em %d ms%n", indice.getNumEntradas(),
+                        indice.getCobertura(), (System.nanoTime() - inicio) / 1_000_000);
+            }
+        } else if (args.length == 7 && args[0].equals("buscar")) {
+            Posicao posicao = new Posicao(Long.parseUnsignedLong(args[3], 16), Long.parseUnsignedLong(args[4], 16),
+                    Long.parseUnsignedLong(args[5], 16), args[6].equals("b"));
+            try (IndicePosicoes indice = abrir(Path.of(args[2]));
+                 LeitorDePartidas leitor = LeitorDePartidas.abrir(Path.of(args[1]))) {
+                long[] offsets = indice.buscar(posicao);
+                System.out.println(offsets.length + " partida(s) passaram por " + posicao);
+                for (long offset : offsets) {
+                    System.out.println("  " + leitor.ler(offset));
+                }
+            }
+        } else {
+            System.err.println("Uso: IndicePosicoes construir <partidas> <indice>");
+            System.err.println("     IndicePosicoes buscar <partidas> <indice> <brancasHex> <pretasHex> <damasHex> <b|p>");
+            System.exit(2);
+        }
+    }
+}
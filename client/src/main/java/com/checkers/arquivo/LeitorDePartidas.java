@@ -0,0 +1,153 @@
+package com.checkers.arquivo;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Leitura do arquivo de partidas por mapeamento em memória.
+ *
+ * O arquivo é mapeado em janelas de até 1 GiB; quando um registro não cabe na janela
+ * atual, uma nova é mapeada a partir dele, então arquivos de qualquer tamanho são
+ * percorridos sem ler para o heap. {@link #proxima()} avança e {@link #getPartida()}
+ * devolve sempre o mesmo {@link Partida}, reapontado para o registro atual.
+ *
+ * Um registro cortado no fim (gravação interrompida) encerra a leitura.
+ * Não é thread-safe; cada thread deve abrir o seu leitor.
+ */
+public final class LeitorDePartidas implements Closeable {
+
+    static final long JANELA_PADRAO = 1L << 30;
+
+    private final FileChannel canal;
+    private final long tamanhoArquivo;
+    private final long tamanhoJanela;
+    private final Partida partida = new Partida();
+
+    private MappedByteBuffer janela;
+    private long inicioJanela;
+    private long proximoOffset = FormatoArquivo.CABECALHO_PARTIDAS;
+
+    LeitorDePartidas(Path arquivo, long tamanhoJanela) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        this.tamanhoArquivo = canal.size();
+        this.tamanhoJanela = tamanhoJanela;
+        try {
+            if (tamanhoArquivo < FormatoArquivo.CABECALHO_PARTIDAS) {
+                throw new IOException("Arquivo de partidas vazio ou truncado: " + arquivo);
+            }
+            mapear(0, FormatoArquivo.CABECALHO_PARTIDAS);
+            if (janela.getLong(0) != FormatoArquivo.MAGICO_PARTIDAS) {
+                throw new IOException("Não é um arquivo de partidas: " + arquivo);
+            }
+            if (janela.getInt(8) != FormatoArquivo.VERSAO) {
+                throw new IOException("Versão não suportada: " + janela.getInt(8));
+            }
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    public static LeitorDePartidas abrir(Path arquivo) throws IOException {
+        return new LeitorDePartidas(arquivo, JANELA_PADRAO);
+    }
+
+    /** Avança para o próximo registro; falso no fim do arquivo. */
+    public boolean proxima() throws IOException {
+        long offset = proximoOffset;
+        if (!posicionar(offset)) return false;
+        proximoOffset = offset + 4 + janela.getInt((int) (offset - inicioJanela));
+        return true;
+    }
+
+    /** O registro atual. */
+    public Partida getPartida() {
+        return partida;
+    }
+
+    /**
+     * Aponta para o registro em {@code offset} (por exemplo, vindo do índice); a
+     * iteração continua a partir dele.
+     */
+    public Partida ler(long offset) throws IOException {
+        if (offset < FormatoArquivo.CABECALHO_PARTIDAS || !posicionar(offset)) {
+            throw new IOException("Sem partida no offset " + offset);
+        }
+        proximoOffset = offset + 4 + janela.getInt((int) (offset - inicioJanela));
+        return partida;
+    }
+
+    /** Volta para a primeira partida. */
+    public void reiniciar() {
+        proximoOffset = FormatoArquivo.CABECALHO_PARTIDAS;
+    }
+
+    /** Fim do último registro inteiro lido até agora (onde uma gravação deve continuar). */
+    long getFimValido() {
+        return proximoOffset;
+    }
+
+    private boolean posicionar(long offset) throws IOException {
+        if (offset + 4 > tamanhoArquivo) return false;
+        if (!naJanela(offset, 4)) mapear(offset, 4);
+        int tamanho = janela.getInt((int) (offset - inicioJanela));
+        if (tamanho < FormatoArquivo.OFF_TEXTOS - 4 || offset + 4 + tamanho > tamanhoArquivo) {
+            return false;
+        }
+        if (!naJanela(offset, 4 + tamanho)) mapear(offset, 4 + tamanho);
+        partida.apontar(janela, (int) (offset - inicioJanela), offset);
+        return true;
+    }
+
+    private boolean naJanela(long offset, int bytes) {
+        return janela != null && offset >= inicioJanela && offset + bytes <= inicioJanela + janela.capacity();
+    }
+
+    private void mapear(long offset, int minimo) throws IOException {
+        long tamanho = Math.min(Math.max(tamanhoJanela, minimo), tamanhoArquivo - offset);
+        janela = canal.map(FileChannel.MapMode.READ_ONLY, offset, tamanho);
+        inicioJanela = offset;
+    }
+
+    @Override
+    public void close() throws IOException {
+        janela = null;
+        canal.close();
+    }
+
+    /**
+     * Uso: {@code LeitorDePartidas <partidas>}: percorre o arquivo e imprime contagens
+     * por resultado, média de saltos e a vazão da leitura.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: LeitorDePartidas <partidas>");
+            System.exit(2);
+        }
+        Map<ResultadoPartida, Long> porResultado = new EnumMap<>(ResultadoPartida.class);
+        long partidas = 0;
+        long saltos = 0;
+        long incompletas = 0;
+        long inicio = System.nanoTime();
+        try (LeitorDePartidas leitor = abrir(Path.of(args[0]))) {
+            while (leitor.proxima()) {
+                Partida p = leitor.getPartida();
+                partidas++;
+                saltos += p.getNumSaltos();
+                if (!p.isCompleta()) incompletas++;
+                porResultado.merge(p.getResultado(), 1L, Long::sum);
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf(Locale.ROOT, "%d partidas (%d incompletas), %.1f saltos em média, %.0f partidas/s%n",
+                partidas, incompletas, partidas == 0 ? 0.0 : (double) saltos / partidas, partidas / segundos);
+        porResultado.forEach((r, n) -> System.out.println("  " + r + ": " + n));
+    }
+}
@@ -0,0 +1,115 @@
+package com.checkers.arquivo;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Visão de um registro do arquivo de partidas, lida direto do buffer mapeado.
+ *
+ * O mesmo objeto é reaproveitado pelo {@link LeitorDePartidas} a cada partida, então
+ * percorrer o arquivo não copia nem aloca; só os textos viram {@code String} quando
+ * pedidos. Vale até o leitor avançar.
+ */
+public final class Partida {
+
+    private ByteBuffer buffer;
+    private int inicio;
+    private long offset;
+
+    void apontar(ByteBuffer buffer, int inicio, long offset) {
+        this.buffer = buffer;
+        this.inicio = inicio;
+        this.offset = offset;
+    }
+
+    /** Posição do registro no arquivo, usada pelo índice. */
+    public long getOffset() {
+        return offset;
+    }
+
+    public long getInstante() {
+        return buffer.getLong(inicio + FormatoArquivo.OFF_INSTANTE);
+    }
+
+    public ResultadoPartida getResultado() {
+        return ResultadoPartida.doCodigo(buffer.get(inicio + FormatoArquivo.OFF_RESULTADO));
+    }
+
+    /** Falso se lances se perderam numa ressincronização: a partida não pode ser reproduzida. */
+    public boolean isCompleta() {
+        return (buffer.get(inicio + FormatoArquivo.OFF_FLAGS) & FormatoArquivo.FLAG_COMPLETA) != 0;
+    }
+
+    public int getNumSaltos() {
+        return buffer.getShort(inicio + FormatoArquivo.OFF_NUM_SALTOS) & 0xFFFF;
+    }
+
+    /** Salto {@code i} no formato de {@link Bitboard#salto(int, int)}. */
+    public int getSalto(int i) {
+        return buffer.getShort(inicioSaltos() + 2 * i) & 0xFFFF;
+    }
+
+    public String getBrancas() {
+        return texto(0);
+    }
+
+    public String getPretas() {
+        return texto(1);
+    }
+
+    /** Motivo do {@code GameOver}. */
+    public String getMotivo() {
+        return texto(2);
+    }
+
+    /**
+     * Reproduz a partida a partir da posição inicial e guarda em {@code hashes} o hash
+     * Zobrist de cada posição alcançada, começando pela inicial.
+     *
+     * @param trabalho posição reaproveitada para a reprodução
+     * @param hashes   com pelo menos {@code getNumSaltos() + 1} posições
+     * @return quantos hashes foram escritos
+     */
+    public int calcularHashes(Posicao trabalho, long[] hashes) {
+        trabalho.copiarDe(Posicao.inicial());
+        hashes[0] = trabalho.getHash();
+        int n = getNumSaltos();
+        int base = inicioSaltos();
+        for (int i = 0; i < n; i++) {
+            int salto = buffer.getShort(base + 2 * i) & 0xFFFF;
+            trabalho.aplicarSalto(Bitboard.origemDoSalto(salto), Bitboard.destinoDoSalto(salto));
+            hashes[i + 1] = trabalho.getHash();
+        }
+        return n + 1;
+    }
+
+    private int inicioSaltos() {
+        int p = inicio + FormatoArquivo.OFF_TEXTOS;
+        for (int i = 0; i < 3; i++) {
+            p += 2 + (buffer.getShort(p) & 0xFFFF);
+        }
+        return p;
+    }
+
+    private String texto(int qual) {
+        int p = inicio + FormatoArquivo.OFF_TEXTOS;
+        for (int i = 0; i < qual; i++) {
+            p += 2 + (buffer.getShort(p) & 0xFFFF);
+        }
+        byte[] bytes = new byte[buffer.getShort(p) & 0xFFFF];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(p + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "Partida@" + offset + " " + getBrancas() + " x " + getPretas() + " "
+                + getResultado() + " (" + getMotivo() + ") " + getNumSaltos() + " saltos"
+                + (isCompleta() ? "" : " incompleta");
+    }
+}
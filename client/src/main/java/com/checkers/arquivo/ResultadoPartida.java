@@ -0,0 +1,32 @@
+package com.checkers.arquivo;
+
+/** Resultado gravado no arquivo de partidas (um byte, pelo {@link #ordinal()}). */
+public enum ResultadoPartida {
+    DESCONHECIDO,
+    BRANCAS,
+    PRETAS,
+    /** Um dos jogadores saiu antes do fim. */
+    DESCONEXAO,
+    /** Só nos torneios locais ({@code Torneio}): o servidor não tem empate. */
+    EMPATE;
+
+    private static final ResultadoPartida[] VALORES = values();
+
+    /** A partir do {@code GameOver.winner} do servidor ({@code WHITE}, {@code BLACK}, {@code DISCONNECT}). */
+    public static ResultadoPartida doVencedor(String winner) {
+        switch (winner) {
+            case "WHITE":
+                return BRANCAS;
+            case "BLACK":
+                return PRETAS;
+            case "DISCONNECT":
+                return DESCONEXAO;
+            default:
+                return DESCONHECIDO;
+        }
+    }
+
+    static ResultadoPartida doCodigo(int codigo) {
+        return codigo >= 0 && codigo < VALORES.length ? VALORES[codigo] : DESCONHECIDO;
+    }
+}
@@ -0,0 +1,205 @@
+package com.checkers.carga;
+
+import com.checkers.client.Mensagens;
+import com.checkers.client.SincronizadorTabuleiro;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.*;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Jogador sem interface usado pelo teste de carga. Entra na fila, joga lances
+ * legais aleatórios a cada YOUR_TURN e, ao fim da partida, volta para a fila
+ * enquanto o teste estiver rodando.
+ *
+ * Não bloqueia nunca: tudo acontece nos callbacks do stream, que o gRPC entrega
+ * em sequência para cada chamada, então o estado do jogo não precisa de sincronização.
+ * Como na {@code SessaoDeJogo}, as mensagens só são escritas no stream quando ele
+ * estiver pronto ({@code isReady}); as demais esperam numa fila e saem no
+ * {@code onReadyHandler}. A fila é a única parte tocada fora dos callbacks (o
+ * {@code WAITING} de {@link #entrarNaFila()}) e por isso é sincronizada.
+ */
+final class JogadorSimulado implements ClientResponseObserver<GameMessage, GameMessage> {
+
+    private final int id;
+    private final CheckersGameGrpc.CheckersGameStub stub;
+    private final TesteDeCarga teste;
+
+    private final Posicao posicao = new Posicao();
+    private final SincronizadorTabuleiro sincronizador = new SincronizadorTabuleiro(posicao);
+    private final ListaMovimentos lances = new ListaMovimentos();
+    private final int[] caminho = new int[ListaMovimentos.MAX_SALTOS + 1];
+
+    private ClientCallStreamObserver<GameMessage> requestObserver;
+    private final ArrayDeque<GameMessage> filaSaida = new ArrayDeque<>();
+    private boolean saidaEncerrada;
+    private boolean ehBranco;
+    private boolean vezPendente;
+    private long inicioEspera;
+
+    // Origem e destino do último lance enviado, para reconhecer o eco
+    private int enviadoDe = -1;
+    private int enviadoPara = -1;
+    private long enviadoEm;
+
+    JogadorSimulado(int id, CheckersGameGrpc.CheckersGameStub stub, TesteDeCarga teste) {
+        this.id = id;
+        this.stub = stub;
+        this.teste = teste;
+    }
+
+    void entrarNaFila() {
+        enviadoDe = -1;
+        vezPendente = false;
+        synchronized (this) {
+            saidaEncerrada = false;
+            filaSaida.clear();
+            requestObserver = (ClientCallStreamObserver<GameMessage>) stub.playGame(this);
+        }
+        inicioEspera = System.nanoTime();
+        enviar(GameMessage.newBuilder()
+                .setWaiting(WaitingForPlayer.newBuilder()
+                        .setMessage("Conectando...")
+                        .setPlayerName("Carga_" + id)
+                        .build())
+                .build());
+    }
+
+    @Override
+    public void beforeStart(ClientCallStreamObserver<GameMessage> requisicao) {
+        requisicao.setOnReadyHandler(this::drenar);
+    }
+
+    private synchronized void enviar(GameMessage message) {
+        if (saidaEncerrada) return;
+        filaSaida.add(message);
+        drenar();
+    }
+
+    private synchronized void drenar() {
+        while (!saidaEncerrada && !filaSaida.isEmpty() && requestObserver.isReady()) {
+            requestObserver.onNext(filaSaida.poll());
+        }
+    }
+
+    @Override
+    public void onNext(GameMessage message) {
+        teste.mensagensRecebidas.increment();
+        switch (message.getMessageCase()) {
+            case START:
+                teste.esperaPareamento.registrar(System.nanoTime() - inicioEspera);
+                ehBranco = message.getStart().getYourColor() == GameStart.Color.WHITE;
+                sincronizador.reiniciar();
+                break;
+
+            case YOUR_TURN:
+                if (sincronizador.isAguardandoSnapshot()) {
+                    vezPendente = true;
+                } else {
+                    jogar();
+                }
+                break;
+
+            case OPPONENT_MOVE:
+                OpponentMove op = message.getOpponentMove();
+                registrarEco(Bitboard.indice(op.getFromRow(), op.getFromCol()),
+                        Bitboard.indice(op.getToRow(), op.getToCol()));
+                verificarSincronia(sincronizador.aplicar(op));
+                break;
+
+            case MOVE_SEQUENCE:
+                MoveSequence sequencia = message.getMoveSequence();
+                registrarEco(sequencia.getPath(0), sequencia.getPath(sequencia.getPathCount() - 1));
+                verificarSincronia(sincronizador.aplicar(sequencia));
+                break;
+
+            case SNAPSHOT:
+                sincronizador.aplicar(message.getSnapshot());
+                if (vezPendente) {
+                    vezPendente = false;
+                    jogar();
+                }
+                break;
+
+            case MOVE_RESULT:
+                if (!message.getMoveResult().getValid()) {
+                    teste.lancesRecusados.increment();
+                    encerrarSaida();
+                }
+                break;
+
+            case GAME_OVER:
+                // Como o CheckersClient: fim de jogo encerra a conexão deste lado
+                teste.partidasTerminadas.increment();
+                encerrarSaida();
+                break;
+
+            case ERROR:
+                teste.erros.increment();
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    private void registrarEco(int origem, int destino) {
+        if (origem == enviadoDe && destino == enviadoPara) {
+            teste.idaEVolta.registrar(System.nanoTime() - enviadoEm);
+            enviadoDe = -1;
+        }
+    }
+
+    private void verificarSincronia(SincronizadorTabuleiro.Resultado resultado) {
+        if (resultado == SincronizadorTabuleiro.Resultado.FORA_DE_SINCRONIA) {
+            teste.ressincronizacoes.increment();
+            enviar(sincronizador.pedidoDeResync());
+        }
+    }
+
+    /** Lance legal aleatório; captura múltipla sai inteira num único MoveSequence. */
+    private void jogar() {
+        posicao.setVezDasBrancas(ehBranco);
+        int n = GeradorMovimentos.gerar(posicao, lances);
+        if (n == 0) return;
+
+        int i = ThreadLocalRandom.current().nextInt(n);
+        int numSaltos = lances.saltos(i);
+        caminho[0] = lances.origem(i);
+        for (int j = 0; j < numSaltos; j++) {
+            caminho[j + 1] = lances.casaDoCaminho(i, j);
+        }
+
+        enviadoDe = caminho[0];
+        enviadoPara = caminho[numSaltos];
+        enviadoEm = System.nanoTime();
+        enviar(Mensagens.caminho(caminho, numSaltos + 1));
+        teste.lancesEnviados.increment();
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        teste.erros.increment();
+        teste.sessaoEncerrada(this);
+    }
+
+    @Override
+    public void onCompleted() {
+        encerrarSaida();
+        teste.sessaoEncerrada(this);
+    }
+
+    private synchronized void encerrarSaida() {
+        if (!saidaEncerrada) {
+            saidaEncerrada = true;
+            filaSaida.clear();
+            requestObserver.onCompleted();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.checkers.carga;
+
+import com.checkers.client.ConfiguracaoCanal;
+import com.checkers.grpc.CheckersGameGrpc;
+import com.checkers.metricas.Histograma;
+import io.grpc.ManagedChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gerador de carga sem interface: simula N jogadores contra o servidor.
+ *
+ * Os jogadores dividem poucos {@link ManagedChannel}s e todos os callbacks rodam
+ * num pool pequeno compartilhado (o "event loop" do teste), então milhares de
+ * jogadores cabem em poucas threads. Mede o tempo de pareamento (WaitingForPlayer
+ * até START) e a ida e volta de cada lance (envio até o eco em OPPONENT_MOVE).
+ *
+ * Uso: {@code TesteDeCarga [host] [porta] [jogadores] [canais] [segundos] [threads]}
+ */
+public class TesteDeCarga {
+
+    final Histograma esperaPareamento = new Histograma();
+    final Histograma idaEVolta = new Histograma();
+    final LongAdder lancesEnviados = new LongAdder();
+    final LongAdder mensagensRecebidas = new LongAdder();
+    final LongAdder partidasTerminadas = new LongAdder();
+    final LongAdder lancesRecusados = new LongAdder();
+    final LongAdder erros = new LongAdder();
+    final LongAdder ressincronizacoes = new LongAdder();
+
+    private final String host;
+    private final int port;
+    private final int numJogadores;
+    private final int numCanais;
+    private final long duracaoMs;
+    private final int numThreads;
+
+    private volatile boolean rodando;
+    private final AtomicInteger sessoesAtivas = new AtomicInteger();
+    private final CountDownLatch todasEncerradas = new CountDownLatch(1);
+
+    public TesteDeCarga(String host, int port, int numJogadores, int numCanais, long duracaoMs, int numThreads) {
+        this.host = host;
+        this.port = port;
+        this.numJogadores = numJogadores;
+        this.numCanais = Math.max(1, numCanais);
+        this.duracaoMs = duracaoMs;
+        this.numThreads = Math.max(1, numThreads);
+    }
+
+    public void executar() throws InterruptedException {
+        ExecutorService eventLoop = Executors.newFixedThreadPool(numThreads, r -> {
+            Thread t = new Thread(r, "carga-event-loop");
+            t.setDaemon(true);
+            return t;
+        });
+
+        ConfiguracaoCanal configuracao = ConfiguracaoCanal.padrao().comExecutor(eventLoop);
+        List<ManagedChannel> canais = new ArrayList<>();
+        for (int i = 0; i < numCanais; i++) {
+            canais.add(configuracao.criarCanal(host, port));
+        }
+
+        System.out.println("[CARGA] " + numJogadores + " jogadores, " + numCanais + " canais, "
+                + numThreads + " threads, " + (duracaoMs / 1000) + "s contra " + host + ":" + port);
+        System.out.println("[CARGA] Canal: " + configuracao);
+
+        rodando = true;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < numJogadores; i++) {
+            CheckersGameGrpc.CheckersGameStub stub = CheckersGameGrpc.newStub(canais.get(i % numCanais));
+            JogadorSimulado jogador = new JogadorSimulado(i, stub, this);
+            sessoesAtivas.incrementAndGet();
+            jogador.entrarNaFila();
+        }
+
+        Thread.sleep(duracaoMs);
+        rodando = false;
+        long fim = System.nanoTime();
+
+        // Dá um tempo para as partidas em andamento terminarem, sem contar no relatório
+        todasEncerradas.await(5, TimeUnit.SECONDS);
+
+        imprimirRelatorio(fim - inicio);
+
+        for (ManagedChannel canal : canais) {
+            canal.shutdownNow();
+        }
+        for (ManagedChannel canal : canais) {
+            canal.awaitTermination(5, TimeUnit.SECONDS);
+        }
+        eventLoop.shutdownNow();
+    }
+
+    /** Chamado quando o stream de um jogador termina; volta à fila se o teste continua. */
+    void sessaoEncerrada(JogadorSimulado jogador) {
+        if (rodando) {
+            jogador.entrarNaFila();
+        } else if (sessoesAtivas.decrementAndGet() == 0) {
+            todasEncerradas.countDown();
+        }
+    }
+
+    private void imprimirRelatorio(long duracaoNs) {
+        double segundos = duracaoNs / 1e9;
+        System.out.println("================ RELATÓRIO DE CARGA ================");
+        System.out.println(String.format(Locale.ROOT, "Duração:              %.1f s", segundos));
+        System.out.println(String.format(Locale.ROOT, "Lances enviados:      %d (%.1f/s)",
+                lancesEnviados.sum(), lancesEnviados.sum() / segundos));
+        System.out.println(String.format(Locale.ROOT, "Mensagens recebidas:  %d (%.1f/s)",
+                mensagensRecebidas.sum(), mensagensRecebidas.sum() / segundos));
+        System.out.println(String.format(Locale.ROOT, "Partidas terminadas:  %d (%.2f/s)",
+                partidasTerminadas.sum(), partidasTerminadas.sum() / segundos));
+        System.out.println("Lances recusados:     " + lancesRecusados.sum());
+        System.out.println("Erros:                " + erros.sum());
+        System.out.println("Ressincronizações:    " + ressincronizacoes.sum());
+        imprimirLatencias("Ida e volta do lance", idaEVolta);
+        imprimirLatencias("Espera no pareamento", esperaPareamento);
+        System.out.println("====================================================");
+    }
+
+    private static void imprimirLatencias(String nome, Histograma h) {
+        System.out.println(String.format(Locale.ROOT,
+                "%-21s n=%d p50=%.3f ms p99=%.3f ms p999=%.3f ms max=%.3f ms",
+                nome + ":", h.getContagem(),
+                h.percentil(50) / 1e6, h.percentil(99) / 1e6, h.percentil(99.9) / 1e6, h.getMaximo() / 1e6));
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 50051;
+        int jogadores = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+        int canais = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long segundos = args.length > 4 ? Long.parseLong(args[4]) : 30;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+
+        new TesteDeCarga(host, port, jogadores, canais, segundos * 1000, threads).executar();
+    }
+}
@@ -0,0 +1,47 @@
+package com.checkers.client;
+
+import javax.swing.SwingUtilities;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Junta os pedidos de redesenho em no máximo um {@code invokeLater} por quadro.
+ *
+ * Quem pede ({@link #pedir()}) só publica o estado novo antes; o desenho roda na
+ * thread do Swing e lê sempre o estado mais recente, então uma rajada de mensagens
+ * vira um único redesenho. Um pedido feito menos de um quadro depois do anterior
+ * é adiado no agendador até completar o intervalo.
+ */
+final class AgendadorDeQuadros {
+
+    private final ScheduledExecutorService agendador;
+    private final long intervaloNanos;
+    private final Runnable desenhar;
+    private final AtomicBoolean agendado = new AtomicBoolean();
+    private volatile long ultimoQuadro = System.nanoTime() - TimeUnit.SECONDS.toNanos(1);
+
+    AgendadorDeQuadros(ScheduledExecutorService agendador, int quadrosPorSegundo, Runnable desenhar) {
+        this.agendador = agendador;
+        this.intervaloNanos = TimeUnit.SECONDS.toNanos(1) / quadrosPorSegundo;
+        this.desenhar = desenhar;
+    }
+
+    /** Pode ser chamado de qualquer thread; pedidos já cobertos pelo quadro agendado são ignorados. */
+    void pedir() {
+        if (!agendado.compareAndSet(false, true)) return;
+        long espera = ultimoQuadro + intervaloNanos - System.nanoTime();
+        if (espera <= 0) {
+            SwingUtilities.invokeLater(this::quadro);
+        } else {
+            agendador.schedule(() -> SwingUtilities.invokeLater(this::quadro), espera, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void quadro() {
+        ultimoQuadro = System.nanoTime();
+        // Libera antes de desenhar: um estado publicado durante o desenho pede outro quadro
+        agendado.set(false);
+        desenhar.run();
+    }
+}
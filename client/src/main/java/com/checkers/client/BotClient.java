@@ -0,0 +1,316 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Evento;
+import com.checkers.diagnostico.Nivel;
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Avaliacao;
+import com.checkers.engine.Busca;
+import com.checkers.engine.Lance;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.engine.TabelaTransposicao;
+import com.checkers.finais.TabelaDeFinais;
+import com.checkers.grpc.*;
+import com.checkers.livro.LivroDeAberturas;
+import io.grpc.ManagedChannel;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jogador automático sem interface: usa o mesmo stream {@code PlayGame} do
+ * CheckersClient e responde a cada YOUR_TURN com o lance escolhido pela busca
+ * alfa-beta multi-thread, dentro do tempo configurado por lance. Com
+ * {@code -Ddamas.livro.arquivo} as posições do livro de aberturas são respondidas
+ * direto do livro, sem busca; com {@code -Ddamas.finais.pasta} a busca consulta as
+ * tabelas de finais.
+ *
+ * Uma captura múltipla sai inteira num único {@code MoveSequence}.
+ *
+ * Sozinho ({@link #jogar()}) o bot abre o próprio canal e tem a própria thread de jogo.
+ * Em {@link MesasSemInterface} vários bots dividem o canal, o pool que roda os eventos
+ * (cada bot numa {@link FilaSerial}) e o agendador das reconexões, e jogam uma partida
+ * atrás da outra com {@link #iniciarPartida()}. Com {@code -Ddamas.bot.tabela} (bits,
+ * padrão 22) a tabela de transposição de cada bot fica menor.
+ */
+public class BotClient {
+
+    private static final int MAX_RECUSAS = 3;
+    private static final Registro REGISTRO = Registro.de("BOT");
+    // Compartilhado pelos bots do processo: o livro mapeado só é lido
+    private static final LivroDeAberturas LIVRO = abrirLivro();
+    private static final TabelaDeFinais FINAIS = abrirFinais();
+
+    private final String host;
+    private final int port;
+    private final String nome;
+    private final long tempoPorLanceMs;
+    /** Nulo quando o bot abre o próprio canal, o que {@link #jogar()} faz. */
+    private final ScheduledExecutorService agendador;
+    private final boolean recursosProprios;
+
+    private final Busca busca;
+    private final ListaMovimentos lancesDoLivro = new ListaMovimentos();
+
+    // Todo o estado do jogo é lido e alterado só neste executor (uma tarefa por vez)
+    private final Executor jogo;
+    private CompletableFuture<Void> fimDeJogo;
+    private final ProcessadorDeMensagens processador;
+
+    private int recusasSeguidas;
+    private ManagedChannel channel;
+    private SessaoDeJogo sessao;
+
+    public BotClient(String host, int port, String nome, long tempoPorLanceMs, int threads) {
+        this.host = host;
+        this.port = port;
+        this.nome = nome;
+        this.tempoPorLanceMs = tempoPorLanceMs;
+        this.agendador = null;
+        this.recursosProprios = true;
+        this.jogo = Executors.newSingleThreadExecutor(r -> new Thread(r, "bot-jogo"));
+        this.busca = criarBusca(threads);
+        this.processador = new ProcessadorDeMensagens(nome, REGISTRO, new ReacoesDoBot(),
+                HistoricoDePartidas.global());
+    }
+
+    /**
+     * Bot que usa recursos do processo: o canal já aberto, o executor dos eventos (que
+     * deve rodar uma tarefa por vez, como a {@link FilaSerial}) e o agendador das reconexões.
+     */
+    BotClient(ManagedChannel channel, Executor jogo, ScheduledExecutorService agendador,
+              String nome, long tempoPorLanceMs, int threads) {
+        this.host = null;
+        this.port = 0;
+        this.channel = channel;
+        this.jogo = jogo;
+        this.agendador = agendador;
+        this.recursosProprios = false;
+        this.nome = nome;
+        this.tempoPorLanceMs = tempoPorLanceMs;
+        this.busca = criarBusca(threads);
+        this.processador = new ProcessadorDeMensagens(nome, REGISTRO, new ReacoesDoBot(),
+                HistoricoDePartidas.global());
+    }
+
+    private static Busca criarBusca(int threads) {
+        Busca busca = new Busca(new TabelaTransposicao(Integer.getInteger("damas.bot.tabela", 22)),
+                Avaliacao.padrao(), threads);
+        busca.setFinais(FINAIS);
+        return busca;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    /** Conecta, joga uma partida inteira e retorna quando ela termina. */
+    public void jogar() throws InterruptedException {
+        channel = ConfiguracaoCanal.padrao().criarCanal(host, port);
+        try {
+            iniciarPartida().get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            encerrar();
+        }
+    }
+
+    /**
+     * Entra na fila por uma nova sessão no canal. O futuro completa quando a partida
+     * acaba (fim de jogo, conexão encerrada ou desistência) e falha se o {@code Connect}
+     * falhar; depois disso o bot pode jogar outra.
+     */
+    CompletableFuture<Void> iniciarPartida() {
+        CompletableFuture<Void> fim = new CompletableFuture<>();
+        jogo.execute(() -> {
+            fimDeJogo = fim;
+            sessao = new SessaoDeJogo(channel, nome, agendador, processador.getSincronizador()::getSeq, ouvinte(fim));
+            processador.setConexao(sessao);
+            // O Connect não prende a thread de jogo, que os outros bots podem dividir
+            sessao.iniciar().exceptionally(erro -> {
+                jogo.execute(() -> {
+                    if (fimDeJogo == fim) processador.desconectar();
+                    fim.completeExceptionally(erro);
+                });
+                return null;
+            });
+        });
+        return fim;
+    }
+
+    /** Ouvinte da sessão de uma partida: eventos atrasados de sessões anteriores só afetam o futuro delas. */
+    private SessaoDeJogo.Ouvinte ouvinte(CompletableFuture<Void> fim) {
+        return new SessaoDeJogo.Ouvinte() {
+            @Override
+            public void aoReceber(GameMessage message) {
+                jogo.execute(() -> {
+                    if (fimDeJogo == fim) processador.processar(message);
+                });
+            }
+
+            @Override
+            public void aoReconectar(int tentativa, long esperaMs, Throwable causa) {
+                REGISTRO.aviso("Conexão perdida (" + causa.getMessage()
+                        + "), tentativa " + tentativa + " em " + esperaMs + " ms");
+            }
+
+            @Override
+            public void aoRetomar(int seq) {
+                // O servidor reenvia os lances perdidos e a vez, se for nossa
+                jogo.execute(() -> {
+                    if (fimDeJogo == fim) processador.retomar(seq);
+                });
+            }
+
+            @Override
+            public void aoEncerrar(Throwable erro) {
+                if (erro != null) {
+                    REGISTRO.erro("Erro na conexão", erro);
+                } else {
+                    REGISTRO.info("Conexão encerrada pelo servidor");
+                }
+                // Depois do GAME_OVER o futuro já acabou (e a thread de jogo pode já ter parado)
+                if (!fim.isDone()) jogo.execute(() -> terminar(fim));
+            }
+        };
+    }
+
+    /** Fim da partida deste lado: fecha a sessão e completa o futuro. Na thread do jogo. */
+    private void terminar(CompletableFuture<Void> fim) {
+        if (fim.isDone()) return;
+        if (fimDeJogo == fim) {
+            processador.desconectar();
+            sessao.encerrar();
+        }
+        fim.complete(null);
+    }
+
+    /** O que o bot faz com as mensagens, depois que o {@link ProcessadorDeMensagens} atualizou o jogo. */
+    private final class ReacoesDoBot implements ProcessadorDeMensagens.Ouvinte {
+        @Override
+        public void aoAguardar() {
+            REGISTRO.info(nome + " aguardando oponente...");
+        }
+
+        @Override
+        public void aoIniciar(GameStart start) {
+            REGISTRO.info(nome + " joga com " + (processador.isBranco() ? "BRANCAS" : "PRETAS")
+                    + " contra " + start.getOpponentName());
+        }
+
+        @Override
+        public void aoReceberVez() {
+            recusasSeguidas = 0;
+            responderVez();
+        }
+
+        @Override
+        public void aoRecusar(MoveResult resultado) {
+            // O servidor não reenvia YOUR_TURN após lance inválido: busca de novo
+            REGISTRO.aviso("Lance recusado: " + resultado.getMessage());
+            if (++recusasSeguidas > MAX_RECUSAS) {
+                REGISTRO.erro("Tabuleiro fora de sincronia com o servidor, desistindo", null);
+                terminar(fimDeJogo);
+                return;
+            }
+            responderVez();
+        }
+
+        @Override
+        public void aoFim(GameOver gameOver) {
+            REGISTRO.info("Fim de jogo: " + gameOver.getReason());
+            terminar(fimDeJogo);
+        }
+
+        @Override
+        public void aoErro(String texto) {
+            REGISTRO.aviso("Erro do servidor: " + texto);
+        }
+    }
+
+    private void responderVez() {
+        Posicao posicao = processador.getPosicao();
+        posicao.setVezDasBrancas(processador.isBranco());
+        if (LIVRO != null) {
+            Lance doLivro = LIVRO.escolher(posicao, lancesDoLivro);
+            if (doLivro != null) {
+                REGISTRO.info("Livro: " + doLivro);
+                processador.enviarLance(doLivro);
+                return;
+            }
+        }
+        Busca.Resultado resultado = busca.buscar(posicao, tempoPorLanceMs, Busca.PROFUNDIDADE_MAXIMA);
+        Lance lance = resultado.getLance();
+        if (lance == null) {
+            REGISTRO.info("Sem lances legais");
+            return;
+        }
+        // Resultado é imutável: o texto só é montado na thread de escrita
+        REGISTRO.registrar(Nivel.INFO, Evento.TEXTO, resultado);
+        processador.enviarLance(lance);
+    }
+
+    private static LivroDeAberturas abrirLivro() {
+        String nome = System.getProperty("damas.livro.arquivo");
+        if (nome == null) return null;
+        try {
+            LivroDeAberturas livro = LivroDeAberturas.abrir(Paths.get(nome));
+            REGISTRO.info("Livro de aberturas: " + livro.getNumEntradas() + " entradas de "
+                    + livro.getPartidas() + " partidas");
+            return livro;
+        } catch (IOException e) {
+            REGISTRO.aviso("Livro de aberturas ignorado: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static TabelaDeFinais abrirFinais() {
+        String nome = System.getProperty("damas.finais.pasta");
+        if (nome == null) return null;
+        try {
+            TabelaDeFinais finais = TabelaDeFinais.abrir(Paths.get(nome));
+            REGISTRO.info("Tabelas de finais até " + finais.getMaxPecas() + " peças");
+            return finais;
+        } catch (IOException e) {
+            REGISTRO.aviso("Tabelas de finais ignoradas: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Libera a busca e, se forem do bot, a thread de jogo e o canal. */
+    void encerrar() {
+        busca.close();
+        if (!recursosProprios) return;
+        if (sessao != null) sessao.encerrar();
+        ((ExecutorService) jogo).shutdown();
+        channel.shutdown();
+        try {
+            channel.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Uso: {@code BotClient [host] [porta] [nome] [msPorLance] [threads]}.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 50051;
+        String nome = args.length > 2 ? args[2] : "Bot";
+        long tempoMs = args.length > 3 ? Long.parseLong(args[3]) : 1000;
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        MetricasCliente.global().exportarPeriodicamente();
+        new BotClient(host, port, nome, tempoMs, threads).jogar();
+    }
+}
@@ -0,0 +1,91 @@
+package com.checkers.client;
+
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parâmetros do {@link ManagedChannel} usados pelo cliente, pelo bot e pelo teste de carga.
+ *
+ * Os valores padrão vêm das propriedades de sistema abaixo, então dá para ajustar um
+ * cliente sem interface sem mudar os argumentos de linha de comando:
+ * <ul>
+ *   <li>{@code damas.canal.keepAliveMs}: intervalo do ping HTTP/2 (0 desliga, padrão);</li>
+ *   <li>{@code damas.canal.keepAliveTimeoutMs}: espera pela resposta do ping (padrão 10000);</li>
+ *   <li>{@code damas.canal.janelaKb}: janela de controle de fluxo por stream (0 mantém a do Netty);</li>
+ *   <li>{@code damas.canal.maxMensagemKb}: maior mensagem recebida (0 mantém 4 MiB).</li>
+ * </ul>
+ * O executor dos callbacks só pode ser trocado por código ({@link #comExecutor(Executor)}).
+ */
+public final class ConfiguracaoCanal {
+
+    private Executor executor;
+    private long keepAliveMs;
+    private long keepAliveTimeoutMs;
+    private int janelaBytes;
+    private int maxMensagemBytes;
+
+    private ConfiguracaoCanal() {
+    }
+
+    /** Configuração lida das propriedades {@code damas.canal.*}. */
+    public static ConfiguracaoCanal padrao() {
+        ConfiguracaoCanal config = new ConfiguracaoCanal();
+        config.keepAliveMs = Long.getLong("damas.canal.keepAliveMs", 0);
+        config.keepAliveTimeoutMs = Long.getLong("damas.canal.keepAliveTimeoutMs", 10_000);
+        config.janelaBytes = Integer.getInteger("damas.canal.janelaKb", 0) * 1024;
+        config.maxMensagemBytes = Integer.getInteger("damas.canal.maxMensagemKb", 0) * 1024;
+        return config;
+    }
+
+    /** Executor dos callbacks do gRPC; nulo usa o pool padrão do canal. */
+    public ConfiguracaoCanal comExecutor(Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /** Ping a cada {@code intervaloMs} para detectar conexões mortas; 0 desliga. */
+    public ConfiguracaoCanal comKeepAlive(long intervaloMs, long timeoutMs) {
+        this.keepAliveMs = intervaloMs;
+        this.keepAliveTimeoutMs = timeoutMs;
+        return this;
+    }
+
+    public ConfiguracaoCanal comJanela(int bytes) {
+        this.janelaBytes = bytes;
+        return this;
+    }
+
+    public ConfiguracaoCanal comMaxMensagem(int bytes) {
+        this.maxMensagemBytes = bytes;
+        return this;
+    }
+
+    public ManagedChannel criarCanal(String host, int port) {
+        NettyChannelBuilder builder = NettyChannelBuilder.forAddress(host, port).usePlaintext();
+        if (executor != null) {
+            builder.executor(executor);
+        }
+        if (keepAliveMs > 0) {
+            builder.keepAliveTime(keepAliveMs, TimeUnit.MILLISECONDS)
+                    .keepAliveTimeout(keepAliveTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+        if (janelaBytes > 0) {
+            builder.flowControlWindow(janelaBytes);
+        }
+        if (maxMensagemBytes > 0) {
+            builder.maxInboundMessageSize(maxMensagemBytes);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "keepAlive=" + (keepAliveMs > 0 ? keepAliveMs + "ms" : "desligado")
+                + " janela=" + (janelaBytes > 0 ? janelaBytes / 1024 + "KiB" : "padrão")
+                + " maxMensagem=" + (maxMensagemBytes > 0 ? maxMensagemBytes / 1024 + "KiB" : "padrão")
+                + " executor=" + (executor != null ? "próprio" : "padrão");
+    }
+}
@@ -0,0 +1,353 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.CheckersGameGrpc;
+import com.checkers.grpc.GameOver;
+import com.checkers.grpc.RoomUpdate;
+import com.checkers.grpc.WatchRequest;
+import com.checkers.grpc.WatchUpdate;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Espectador: acompanha dezenas de salas ao vivo num só stream
+ * {@code WatchGames}.
+ *
+ * Os lotes do servidor são aplicados no laço {@code espectador-eventos}, que também é
+ * o executor do canal: cada sala tem a sua {@link Posicao}, avançada salto a salto com
+ * {@link Posicao#aplicarSalto(int, int)} enquanto a numeração for contínua. Depois de
+ * cada lote as salas alteradas publicam uma {@link Vista} e pedem um quadro; o quadro
+ * roda na thread do Swing, no máximo {@value #QUADROS_POR_SEGUNDO} vezes por segundo,
+ * e cada {@link PainelTabuleiro} repinta só as casas que mudaram desde o quadro
+ * anterior. Lacuna ou salto impossível reabrem o stream, que começa por snapshots.
+ *
+ * Uso: {@code Espectador [host] [porta] [sala...]}; sem salas, acompanha todas.
+ */
+public final class Espectador {
+
+    private static final Registro REGISTRO = Registro.de("ESPECTADOR");
+
+    private static final int QUADROS_POR_SEGUNDO = 30;
+    private static final int TAMANHO_TABULEIRO = 200;
+    private static final long RECONEXAO_MS = 2000;
+    /** Uma sala terminada continua na tela por este tempo. */
+    private static final long MANTER_TERMINADA_MS = 10_000;
+
+    private final ManagedChannel channel;
+    private final ScheduledExecutorService eventos;
+    private final WatchRequest pedido;
+    private final AgendadorDeQuadros quadros;
+
+    // Estado das salas: só é lido e alterado no laço espectador-eventos
+    private final Map<Integer, Sala> salas = new HashMap<>();
+    private ClientCallStreamObserver<WatchRequest> stream;
+    private boolean encerrado;
+
+    // Publicado pelo laço e consumido pelo quadro
+    private final Map<Integer, Vista> vistas = new ConcurrentHashMap<>();
+    private final Set<Integer> sujas = ConcurrentHashMap.newKeySet();
+
+    // Componentes; só na thread do Swing
+    private final JPanel painel = new JPanel(new BorderLayout());
+    private final JPanel grade = new JPanel(new GridLayout(0, 1, 4, 4));
+    private final JLabel statusLabel = new JLabel("Conectando...");
+    private final Map<Integer, Quadro> paineis = new LinkedHashMap<>();
+
+    /** Posição e numeração de uma sala, no laço espectador-eventos. */
+    private static final class Sala {
+        final int id;
+        final Posicao posicao = new Posicao();
+        int seq;
+        boolean sincronizada;
+        String brancas = "?";
+        String pretas = "?";
+        String fim;
+        long terminadaEm;
+
+        Sala(int id) {
+            this.id = id;
+        }
+
+        String titulo() {
+            String titulo = "Sala " + id + ": " + brancas + " x " + pretas;
+            if (fim != null) return titulo + " (" + fim + ")";
+            return titulo + " #" + seq;
+        }
+    }
+
+    /** O que o quadro mostra de uma sala. */
+    private static final class Vista {
+        final long brancas;
+        final long pretas;
+        final long damas;
+        final String titulo;
+        final boolean remover;
+
+        Vista(Sala sala, boolean remover) {
+            this.brancas = sala.posicao.getBrancas();
+            this.pretas = sala.posicao.getPretas();
+            this.damas = sala.posicao.getDamas();
+            this.titulo = sala.titulo();
+            this.remover = remover;
+        }
+    }
+
+    /** Tabuleiro e título de uma sala na grade; o título fica fora do tabuleiro para não repintá-lo. */
+    private static final class Quadro {
+        final JPanel painel = new JPanel(new BorderLayout());
+        final PainelTabuleiro tabuleiro = new PainelTabuleiro();
+        final JLabel titulo = new JLabel(" ", SwingConstants.CENTER);
+
+        Quadro() {
+            tabuleiro.setPreferredSize(new Dimension(TAMANHO_TABULEIRO, TAMANHO_TABULEIRO));
+            titulo.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 11));
+            painel.add(titulo, BorderLayout.NORTH);
+            painel.add(tabuleiro, BorderLayout.CENTER);
+        }
+    }
+
+    /** Cria o painel na thread do Swing; {@link #assistir()} abre o stream. */
+    public Espectador(String host, int port, List<Integer> idsSalas) {
+        this.eventos = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "espectador-eventos");
+            t.setDaemon(true);
+            return t;
+        });
+        this.channel = ConfiguracaoCanal.padrao().comExecutor(eventos).criarCanal(host, port);
+        this.pedido = WatchRequest.newBuilder().addAllRoomIds(idsSalas).build();
+        this.quadros = new AgendadorDeQuadros(eventos, QUADROS_POR_SEGUNDO, this::desenhar);
+
+        JPanel topo = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 6));
+        topo.setBackground(new Color(60, 0, 90));
+        statusLabel.setForeground(Color.WHITE);
+        statusLabel.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
+        topo.add(statusLabel);
+
+        painel.add(topo, BorderLayout.NORTH);
+        painel.add(new JScrollPane(grade), BorderLayout.CENTER);
+    }
+
+    public JPanel getPainel() {
+        return painel;
+    }
+
+    public void assistir() {
+        eventos.execute(this::abrirStream);
+    }
+
+    /** Fecha o stream e o canal. */
+    public void encerrar() {
+        eventos.execute(() -> {
+            encerrado = true;
+            if (stream != null) stream.cancel("Espectador encerrado", null);
+        });
+        channel.shutdown();
+    }
+
+    // ==================== STREAM (laço espectador-eventos) ====================
+
+    private void abrirStream() {
+        if (encerrado) return;
+        CheckersGameGrpc.newStub(channel).watchGames(pedido, new ClientResponseObserver<WatchRequest, WatchUpdate>() {
+            private ClientCallStreamObserver<WatchRequest> proprio;
+
+            @Override
+            public void beforeStart(ClientCallStreamObserver<WatchRequest> requestStream) {
+                proprio = requestStream;
+                stream = requestStream;
+            }
+
+            @Override
+            public void onNext(WatchUpdate lote) {
+                if (stream != proprio) return;
+                if (!aplicar(lote)) {
+                    REGISTRO.aviso("Espectador fora de sincronia; reabrindo o stream");
+                    stream = null;
+                    proprio.cancel("Fora de sincronia", null);
+                    abrirStream();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                if (stream != proprio || encerrado) return;
+                REGISTRO.aviso("Stream de espectador caiu: " + t.getMessage());
+                reabrirDepois();
+            }
+
+            @Override
+            public void onCompleted() {
+                if (stream != proprio) return;
+                REGISTRO.info("Servidor encerrou o stream de espectador");
+                reabrirDepois();
+            }
+        });
+        REGISTRO.info("Assistindo " + (pedido.getRoomIdsCount() == 0 ? "todas as salas" : "as salas " + pedido.getRoomIdsList()));
+    }
+
+    private void reabrirDepois() {
+        stream = null;
+        if (!encerrado) eventos.schedule(this::abrirStream, RECONEXAO_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Aplica um lote e publica as salas alteradas.
+     *
+     * @return falso se alguma sala saiu de sincronia
+     */
+    private boolean aplicar(WatchUpdate lote) {
+        boolean ok = true;
+        for (RoomUpdate atualizacao : lote.getRoomsList()) {
+            Sala sala = salas.computeIfAbsent(atualizacao.getRoomId(), Sala::new);
+            if (atualizacao.hasSnapshot()) {
+                sala.posicao.copiarDe(SincronizadorTabuleiro.posicaoDe(atualizacao.getSnapshot()));
+                sala.seq = atualizacao.getSnapshot().getSeq();
+                sala.sincronizada = true;
+                sala.brancas = atualizacao.getWhiteName();
+                sala.pretas = atualizacao.getBlackName();
+                sala.fim = null;
+            }
+            if (atualizacao.getHopsCount() > 0 && !aplicarSaltos(sala, atualizacao)) {
+                sala.sincronizada = false;
+                ok = false;
+            }
+            if (atualizacao.hasGameOver()) {
+                sala.fim = textoDoFim(atualizacao.getGameOver());
+                sala.terminadaEm = System.currentTimeMillis();
+                eventos.schedule(() -> removerSeTerminada(sala.id), MANTER_TERMINADA_MS, TimeUnit.MILLISECONDS);
+            }
+            publicar(sala, false);
+        }
+        quadros.pedir();
+        return ok;
+    }
+
+    /** Saltos numerados a partir de {@code seq}; os já aplicados são ignorados. */
+    private static boolean aplicarSaltos(Sala sala, RoomUpdate atualizacao) {
+        if (!sala.sincronizada) return false;
+        int seq = atualizacao.getSeq();
+        for (int k = 0; k < atualizacao.getHopsCount(); k++, seq++) {
+            if (seq <= sala.seq) continue;
+            if (seq != sala.seq + 1) return false;
+            int salto = atualizacao.getHops(k);
+            int origem = Bitboard.origemDoSalto(salto);
+            int destino = Bitboard.destinoDoSalto(salto);
+            if (!sala.posicao.saltoLegal(origem, destino)) return false;
+            sala.posicao.aplicarSalto(origem, destino);
+            sala.seq = seq;
+        }
+        return true;
+    }
+
+    private static String textoDoFim(GameOver fim) {
+        switch (fim.getWinner()) {
+            case "WHITE":
+                return "brancas venceram";
+            case "BLACK":
+                return "pretas venceram";
+            case "DISCONNECT":
+                return "desconexão";
+            default:
+                return fim.getReason();
+        }
+    }
+
+    private void removerSeTerminada(int id) {
+        Sala sala = salas.get(id);
+        if (sala == null || sala.fim == null
+                || System.currentTimeMillis() - sala.terminadaEm < MANTER_TERMINADA_MS) {
+            return;
+        }
+        salas.remove(id);
+        publicar(sala, true);
+        quadros.pedir();
+    }
+
+    private void publicar(Sala sala, boolean remover) {
+        vistas.put(sala.id, new Vista(sala, remover));
+        sujas.add(sala.id);
+    }
+
+    // ==================== QUADRO (thread do Swing) ====================
+
+    /** Leva para a tela as salas alteradas desde o quadro anterior. */
+    private void desenhar() {
+        boolean mudouGrade = false;
+        for (Iterator<Integer> it = sujas.iterator(); it.hasNext(); ) {
+            Integer id = it.next();
+            it.remove();
+            Vista vista = vistas.get(id);
+            if (vista == null) continue;
+
+            Quadro quadro = paineis.get(id);
+            if (vista.remover) {
+                vistas.remove(id, vista);
+                if (quadro != null) {
+                    paineis.remove(id);
+                    grade.remove(quadro.painel);
+                    mudouGrade = true;
+                }
+                continue;
+            }
+            if (quadro == null) {
+                quadro = new Quadro();
+                paineis.put(id, quadro);
+                grade.add(quadro.painel);
+                mudouGrade = true;
+            }
+            quadro.tabuleiro.atualizar(vista.brancas, vista.pretas, vista.damas);
+            quadro.titulo.setText(vista.titulo);
+        }
+
+        if (mudouGrade) {
+            int colunas = (int) Math.ceil(Math.sqrt(Math.max(1, paineis.size())));
+            ((GridLayout) grade.getLayout()).setColumns(colunas);
+            grade.revalidate();
+            grade.repaint();
+            statusLabel.setText(paineis.size() + (paineis.size() == 1 ? " sala" : " salas") + " ao vivo");
+        }
+    }
+
+    public static void main(String[] args) {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 50051;
+        List<Integer> idsSalas = new ArrayList<>();
+        for (int i = 2; i < args.length; i++) {
+            idsSalas.add(Integer.parseInt(args[i]));
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            Espectador espectador = new Espectador(host, port, idsSalas);
+            JFrame janela = new JFrame("Damas Online - Espectador");
+            janela.setDefaultCloseOperation(WindowConstants.EXIT_ON_CLOSE);
+            janela.setContentPane(espectador.getPainel());
+            janela.setSize(1000, 800);
+            janela.setLocationRelativeTo(null);
+            janela.addWindowListener(new java.awt.event.WindowAdapter() {
+                @Override
+                public void windowClosing(java.awt.event.WindowEvent e) {
+                    espectador.encerrar();
+                }
+            });
+            janela.setVisible(true);
+            espectador.assistir();
+        });
+    }
+}
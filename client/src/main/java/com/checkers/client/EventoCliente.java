@@ -0,0 +1,73 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Evento;
+import com.checkers.engine.Bitboard;
+
+/**
+ * Eventos frequentes do cliente e do bot, gravados sem montar texto na thread do jogo.
+ */
+enum EventoCliente implements Evento {
+
+    /** a = linha, b = coluna, c = bit 0 conectado, bit 1 minha vez. */
+    CLIQUE {
+        @Override
+        public void formatar(StringBuilder sb, long a, long b, long c, Object o) {
+            sb.append("Clique em (").append(a).append(',').append(b).append(") - conectado=")
+                    .append((c & 1) != 0).append(" minhaVez=").append((c & 2) != 0);
+        }
+    },
+
+    /** o = {@code GameMessage.MessageCase}. */
+    MENSAGEM_RECEBIDA {
+        @Override
+        public void formatar(StringBuilder sb, long a, long b, long c, Object o) {
+            sb.append("Mensagem recebida: ").append(o);
+        }
+    },
+
+    /** a = número de casas; b e c = casas do caminho empacotadas ({@link #empacotar}). */
+    LANCE_ENVIADO {
+        @Override
+        public void formatar(StringBuilder sb, long a, long b, long c, Object o) {
+            sb.append("Enviando lance: ");
+            for (int i = 0; i < a; i++) {
+                if (i > 0) sb.append(" -> ");
+                int casa = i < CASAS_POR_LONG ? (int) (b >>> (i * BITS_CASA)) & MASCARA_CASA : (int) c;
+                sb.append('(').append(Bitboard.linha(casa)).append(',').append(Bitboard.coluna(casa)).append(')');
+            }
+        }
+    },
+
+    /** a = lance recebido, b = último lance aplicado. */
+    FORA_DE_SINCRONIA {
+        @Override
+        public void formatar(StringBuilder sb, long a, long b, long c, Object o) {
+            sb.append("Lance ").append(a).append(" fora de sincronia (último: ").append(b).append("), pedindo snapshot");
+        }
+    },
+
+    /** a = lance do snapshot. */
+    SNAPSHOT_RECEBIDO {
+        @Override
+        public void formatar(StringBuilder sb, long a, long b, long c, Object o) {
+            sb.append("Snapshot recebido (lance ").append(a).append(')');
+        }
+    };
+
+    private static final int BITS_CASA = 5;
+    private static final int MASCARA_CASA = (1 << BITS_CASA) - 1;
+    private static final int CASAS_POR_LONG = 12;
+
+    /** As 12 primeiras casas do caminho, 5 bits cada; a 13ª (se houver) vai em {@code c}. */
+    static long empacotar(int[] casas, int numCasas) {
+        long empacotado = 0;
+        for (int i = 0; i < Math.min(numCasas, CASAS_POR_LONG); i++) {
+            empacotado |= (long) casas[i] << (i * BITS_CASA);
+        }
+        return empacotado;
+    }
+
+    static long casaExtra(int[] casas, int numCasas) {
+        return numCasas > CASAS_POR_LONG ? casas[CASAS_POR_LONG] : 0;
+    }
+}
@@ -0,0 +1,65 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Registro;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Roda as tarefas uma de cada vez, na ordem de chegada, sobre um executor
+ * compartilhado: cada mesa tem o seu laço de eventos sem ter uma thread própria.
+ *
+ * A thread pode mudar de uma tarefa para a outra, mas a passagem pela fila
+ * sincronizada garante que cada tarefa vê tudo o que as anteriores escreveram, então
+ * o estado da mesa continua sendo de uma thread só por vez. Depois de um lote de
+ * tarefas a fila devolve a thread e volta para o fim do executor, para que uma mesa
+ * ocupada não segure as outras.
+ */
+final class FilaSerial implements Executor {
+
+    private static final int LOTE = 16;
+    private static final Registro REGISTRO = Registro.de("MESAS");
+
+    private final Executor base;
+    private final ArrayDeque<Runnable> tarefas = new ArrayDeque<>();
+    private boolean agendada;
+
+    FilaSerial(Executor base) {
+        this.base = base;
+    }
+
+    @Override
+    public void execute(Runnable tarefa) {
+        synchronized (this) {
+            tarefas.add(tarefa);
+            if (agendada) return;
+            agendada = true;
+        }
+        base.execute(this::drenar);
+    }
+
+    private void drenar() {
+        boolean vazia = false;
+        try {
+            for (int i = 0; i < LOTE; i++) {
+                Runnable tarefa;
+                synchronized (this) {
+                    tarefa = tarefas.poll();
+                    if (tarefa == null) {
+                        agendada = false;
+                        vazia = true;
+                        return;
+                    }
+                }
+                try {
+                    tarefa.run();
+                } catch (RuntimeException e) {
+                    REGISTRO.erro("Falha ao processar evento", e);
+                }
+            }
+        } finally {
+            // Também se uma tarefa lançou um Error: a fila continua agendada e não pode parar
+            if (!vazia) base.execute(this::drenar);
+        }
+    }
+}
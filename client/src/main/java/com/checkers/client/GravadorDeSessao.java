@@ -0,0 +1,164 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Registro;
+import com.checkers.grpc.GameMessage;
+import com.checkers.grpc.RecordedMessage;
+import com.checkers.grpc.RecordingHeader;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Grava as mensagens de uma {@link SessaoDeJogo} num arquivo, para reproduzir depois
+ * com {@code ReprodutorDeSessao}.
+ *
+ * Ligado por {@code damas.gravacao.pasta}: cada sessão grava num arquivo próprio da
+ * pasta um {@code RecordingHeader} e um {@code RecordedMessage} por mensagem recebida
+ * ou enviada, com o tamanho na frente ({@code writeDelimitedTo}). O instante é tomado
+ * com {@link System#nanoTime()} na thread que recebeu ou enviou; a escrita fica numa
+ * thread única compartilhada, para não segurar as threads do gRPC no disco.
+ *
+ * Enquanto a sessão está aberta o arquivo tem a extensão {@code .parcial}; ao fechar
+ * ele é renomeado, também na saída normal do processo. Um arquivo parcial (processo
+ * morto no meio da sessão) pode ser reproduzido até o último registro inteiro.
+ */
+final class GravadorDeSessao {
+
+    static final int VERSAO = 1;
+
+    private static final Registro REGISTRO = Registro.de("GRAVACAO");
+    private static final DateTimeFormatter NOME_ARQUIVO = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    private static final AtomicInteger CONTADOR = new AtomicInteger();
+    private static final ExecutorService ESCRITA = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "gravacao-sessoes");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final Set<GravadorDeSessao> ABERTOS = ConcurrentHashMap.newKeySet();
+
+    static {
+        // Na saída do processo, fecha as gravações abertas e termina o que foi enfileirado
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (GravadorDeSessao gravador : ABERTOS) {
+                gravador.fechar();
+            }
+            ESCRITA.shutdown();
+            try {
+                ESCRITA.awaitTermination(2, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "gravacao-saida"));
+    }
+
+    private final Path parcial;
+    private final Path destino;
+    private final long inicio = System.nanoTime();
+    private OutputStream saida;
+    private volatile boolean fechado;
+
+    private GravadorDeSessao(Path pasta, String nome) throws IOException {
+        String base = "sessao-" + nome.replaceAll("[^A-Za-z0-9_-]", "_") + "-"
+                + LocalDateTime.now().format(NOME_ARQUIVO) + "-" + CONTADOR.incrementAndGet() + ".bin";
+        Files.createDirectories(pasta);
+        this.destino = pasta.resolve(base);
+        this.parcial = pasta.resolve(base + ".parcial");
+        this.saida = new BufferedOutputStream(Files.newOutputStream(parcial));
+        RecordingHeader.newBuilder()
+                .setVersion(VERSAO)
+                .setPlayerName(nome)
+                .setStartedAtMs(System.currentTimeMillis())
+                .build()
+                .writeDelimitedTo(saida);
+        ABERTOS.add(this);
+    }
+
+    /** Gravador da sessão, ou {@code null} se a gravação estiver desligada ou falhar. */
+    static GravadorDeSessao paraSessao(String nome) {
+        String pasta = System.getProperty("damas.gravacao.pasta");
+        if (pasta == null) return null;
+        try {
+            GravadorDeSessao gravador = new GravadorDeSessao(Paths.get(pasta), nome);
+            REGISTRO.info("Gravando a sessão de " + nome + " em " + gravador.destino);
+            return gravador;
+        } catch (IOException e) {
+            REGISTRO.erro("Não foi possível abrir a gravação em " + pasta, e);
+            return null;
+        }
+    }
+
+    void recebida(GameMessage message) {
+        gravar(RecordedMessage.Direction.INBOUND, message);
+    }
+
+    void enviada(GameMessage message) {
+        gravar(RecordedMessage.Direction.OUTBOUND, message);
+    }
+
+    private void gravar(RecordedMessage.Direction direcao, GameMessage message) {
+        if (fechado) return;
+        RecordedMessage registro = RecordedMessage.newBuilder()
+                .setTimeNs(System.nanoTime() - inicio)
+                .setDirection(direcao)
+                .setMessage(message)
+                .build();
+        executar(() -> {
+            if (saida == null) return;
+            try {
+                registro.writeDelimitedTo(saida);
+            } catch (IOException e) {
+                REGISTRO.erro("Falha gravando " + parcial + ", gravação interrompida", e);
+                descartar();
+            }
+        });
+    }
+
+    /** Grava o que falta e renomeia o arquivo; chamadas repetidas não fazem nada. */
+    void fechar() {
+        if (fechado) return;
+        fechado = true;
+        ABERTOS.remove(this);
+        executar(() -> {
+            if (saida == null) return;
+            try {
+                saida.close();
+                saida = null;
+                Files.move(parcial, destino, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException e) {
+                REGISTRO.erro("Falha fechando " + parcial, e);
+                descartar();
+            }
+        });
+    }
+
+    private static void executar(Runnable tarefa) {
+        try {
+            ESCRITA.execute(tarefa);
+        } catch (RejectedExecutionException e) {
+            // processo saindo
+        }
+    }
+
+    private void descartar() {
+        try {
+            if (saida != null) saida.close();
+        } catch (IOException e) {
+            // já registrado
+        }
+        saida = null;
+    }
+}
@@ -0,0 +1,92 @@
+package com.checkers.client;
+
+import com.checkers.arquivo.EscritorDePartidas;
+import com.checkers.arquivo.ResultadoPartida;
+import com.checkers.diagnostico.Registro;
+import com.checkers.grpc.GameOver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Grava as partidas terminadas no arquivo de {@code -Ddamas.partidas.arquivo=caminho}
+ * (formato de {@link com.checkers.arquivo.FormatoArquivo}); sem a propriedade não faz nada.
+ *
+ * Há uma instância por processo ({@link #global()}), então vários bots no mesmo
+ * processo dividem o arquivo. O arquivo é aberto na primeira partida.
+ *
+ * Quando os dois jogadores de uma partida estão no mesmo processo (bots de
+ * {@link MesasSemInterface} pareados entre si), os dois lados gravariam a mesma
+ * partida. O protocolo não identifica a sala, então a partida é reconhecida pelo
+ * conteúdo: brancas, pretas, resultado e saltos. A primeira gravação guarda essa
+ * chave e a segunda, ao encontrá-la, não grava. Se os dois lados tiverem saltos
+ * diferentes (um deles ressincronizou no meio), as duas versões ficam.
+ */
+final class HistoricoDePartidas {
+
+    private static final Registro REGISTRO = Registro.de("PARTIDAS");
+    private static final HistoricoDePartidas GLOBAL = new HistoricoDePartidas(System.getProperty("damas.partidas.arquivo"));
+    /** Partidas gravadas cujo outro lado ainda não apareceu (pode estar em outro processo). */
+    private static final int MAX_SEM_PAR = 256;
+
+    private final Path arquivo;
+    private EscritorDePartidas escritor;
+    private boolean falhou;
+    private final Map<String, Boolean> semPar = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Boolean> maisAntiga) {
+            return size() > MAX_SEM_PAR;
+        }
+    };
+
+    private HistoricoDePartidas(String nome) {
+        this.arquivo = nome == null ? null : Paths.get(nome);
+    }
+
+    static HistoricoDePartidas global() {
+        return GLOBAL;
+    }
+
+    /**
+     * Grava a partida que acabou de terminar, com os saltos que o sincronizador acompanhou.
+     *
+     * @param euBranco cor do jogador local, para saber quem foi brancas e quem foi pretas
+     */
+    synchronized void gravar(String eu, String oponente, boolean euBranco, GameOver fim,
+                             SincronizadorTabuleiro sincronizador) {
+        if (arquivo == null || falhou) return;
+        int[] saltos = sincronizador.copiarSaltos();
+        String brancas = euBranco ? eu : oponente;
+        String pretas = euBranco ? oponente : eu;
+        String chave = brancas + '\0' + pretas + '\0' + fim.getWinner() + '\0' + Arrays.toString(saltos);
+        // O outro lado da mesma partida, neste processo, já gravou
+        if (semPar.remove(chave) != null) return;
+        try {
+            if (escritor == null) {
+                escritor = EscritorDePartidas.abrir(arquivo);
+                Runtime.getRuntime().addShutdownHook(new Thread(this::fechar, "partidas-saida"));
+                REGISTRO.info("Gravando partidas em " + arquivo.toAbsolutePath());
+            }
+            escritor.gravar(System.currentTimeMillis(), brancas, pretas,
+                    ResultadoPartida.doVencedor(fim.getWinner()), fim.getReason(),
+                    saltos, saltos.length, sincronizador.isHistoricoCompleto());
+            semPar.put(chave, Boolean.TRUE);
+        } catch (IOException e) {
+            // Não insiste a cada partida: um aviso e o jogo segue sem histórico
+            falhou = true;
+            REGISTRO.aviso("Falha ao gravar em " + arquivo + ": " + e.getMessage());
+        }
+    }
+
+    private synchronized void fechar() {
+        try {
+            escritor.close();
+        } catch (IOException e) {
+            REGISTRO.aviso("Falha ao fechar " + arquivo + ": " + e.getMessage());
+        }
+    }
+}
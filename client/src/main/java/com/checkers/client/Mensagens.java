@@ -0,0 +1,59 @@
+package com.checkers.client;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Lance;
+import com.checkers.grpc.GameMessage;
+import com.checkers.grpc.Move;
+import com.checkers.grpc.MoveSequence;
+
+/**
+ * Montagem das mensagens de lance enviadas ao servidor.
+ *
+ * Um salto simples sai como {@code Move} (linha e coluna); um lance com mais de um
+ * salto sai inteiro num único {@code MoveSequence}, com as casas no índice 0-31.
+ */
+public final class Mensagens {
+
+    private Mensagens() {
+    }
+
+    public static GameMessage movimento(int origem, int destino) {
+        return GameMessage.newBuilder()
+                .setMove(Move.newBuilder()
+                        .setFromRow(Bitboard.linha(origem))
+                        .setFromCol(Bitboard.coluna(origem))
+                        .setToRow(Bitboard.linha(destino))
+                        .setToCol(Bitboard.coluna(destino)))
+                .build();
+    }
+
+    /**
+     * Lance pelo caminho de casas: origem seguida do destino de cada salto.
+     */
+    public static GameMessage caminho(int[] casas, int numCasas) {
+        if (numCasas == 2) {
+            return movimento(casas[0], casas[1]);
+        }
+        MoveSequence.Builder sequencia = MoveSequence.newBuilder();
+        for (int i = 0; i < numCasas; i++) {
+            sequencia.addPath(casas[i]);
+        }
+        return GameMessage.newBuilder().setMoveSequence(sequencia).build();
+    }
+
+    public static GameMessage lance(Lance lance) {
+        if (lance.getSaltos() == 1) {
+            return movimento(lance.getOrigem(), lance.getDestino());
+        }
+        return GameMessage.newBuilder().setMoveSequence(sequencia(lance)).build();
+    }
+
+    /** Caminho do lance (origem e casa de cada salto), também usado pela análise. */
+    public static MoveSequence sequencia(Lance lance) {
+        MoveSequence.Builder sequencia = MoveSequence.newBuilder().addPath(lance.getOrigem());
+        for (int j = 0; j < lance.getSaltos(); j++) {
+            sequencia.addPath(lance.casaDoCaminho(j));
+        }
+        return sequencia.build();
+    }
+}
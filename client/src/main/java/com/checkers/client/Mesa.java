@@ -0,0 +1,465 @@
+package com.checkers.client;
+
+import com.checkers.analise.ClienteDeAnalise;
+import com.checkers.diagnostico.Nivel;
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.*;
+import io.grpc.ManagedChannel;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Uma partida do {@link CheckersClient}: sessão, tabuleiro e o painel que a mostra.
+ *
+ * O estado do jogo (posição, vez, seleção, lance em montagem) só é lido e alterado no
+ * laço {@code cliente-jogo}, que todas as mesas da janela dividem com o canal: mensagens
+ * do servidor e cliques entram nele como eventos, em ordem. Depois de cada evento a
+ * mesa publica uma {@link Vista} imutável, e o painel é redesenhado a partir da vista
+ * mais recente no máximo uma vez por quadro.
+ */
+final class Mesa {
+
+    /** Avisos para a janela, sempre na thread do Swing. */
+    interface Ouvinte {
+        /** Título da mesa mudou (oponente conhecido, vez de jogar). */
+        void tituloMudou(Mesa mesa);
+
+        /** O jogador pediu para fechar a mesa. */
+        void fecharMesa(Mesa mesa);
+    }
+
+    private static final String AGUARDANDO_OPONENTE = "Aguardando oponente...";
+    private static final int QUADROS_POR_SEGUNDO = 60;
+    private static final long TEMPO_DICA_MS = 1000;
+    private static final Registro REGISTRO = Registro.de("CLIENTE");
+
+    private final ManagedChannel channel;
+    private final ScheduledExecutorService jogo;
+    private final Ouvinte ouvinte;
+    private final String nomeJogador;
+
+    // Componentes da mesa; só na thread do Swing
+    private final JPanel painel = new JPanel(new BorderLayout());
+    private final PainelTabuleiro tabuleiroPanel = new PainelTabuleiro();
+    private final JLabel turnoLabel = new JLabel("Aguardando conexão...");
+    private final JLabel statusLabel = new JLabel("Desconectado");
+    private String titulo;
+
+    private final AgendadorDeQuadros quadros;
+    private volatile Vista vista;
+
+    // Estado do jogo: só é lido e alterado no laço cliente-jogo
+    private final ProcessadorDeMensagens processador;
+    private final Posicao posicao;
+    private final SincronizadorTabuleiro sincronizador;
+
+    private int selecR = -1;
+    private int selecC = -1;
+
+    // Captura múltipla em montagem: origem e casas já saltadas, enviadas juntas no fim
+    private final int[] caminho = new int[ListaMovimentos.MAX_SALTOS + 1];
+    private int numCaminho;
+
+    private boolean conectado = false;
+    private String textoTurno = "Aguardando conexão...";
+    private Color corTurno = Color.WHITE;
+
+    private SessaoDeJogo sessao;
+
+    /** O que a tela mostra, copiado do estado do jogo ao fim de cada evento. */
+    private static final class Vista {
+        final long brancas;
+        final long pretas;
+        final long damas;
+        final int selecR;
+        final int selecC;
+        final String textoTurno;
+        final Color corTurno;
+        final String titulo;
+
+        Vista(Posicao posicao, int selecR, int selecC, String textoTurno, Color corTurno, String titulo) {
+            this.brancas = posicao.getBrancas();
+            this.pretas = posicao.getPretas();
+            this.damas = posicao.getDamas();
+            this.selecR = selecR;
+            this.selecC = selecC;
+            this.textoTurno = textoTurno;
+            this.corTurno = corTurno;
+            this.titulo = titulo;
+        }
+
+        boolean igual(Vista outra) {
+            return outra != null && brancas == outra.brancas && pretas == outra.pretas
+                    && damas == outra.damas && selecR == outra.selecR && selecC == outra.selecC
+                    && textoTurno.equals(outra.textoTurno) && corTurno.equals(outra.corTurno)
+                    && titulo.equals(outra.titulo);
+        }
+    }
+
+    /** Cria a mesa na thread do Swing; {@link #conectar()} entra na fila do servidor. */
+    Mesa(ManagedChannel channel, ScheduledExecutorService jogo, String nomeJogador, Ouvinte ouvinte) {
+        this.channel = channel;
+        this.jogo = jogo;
+        this.nomeJogador = nomeJogador;
+        this.ouvinte = ouvinte;
+        this.titulo = nomeJogador;
+        this.quadros = new AgendadorDeQuadros(jogo, QUADROS_POR_SEGUNDO, this::desenharVista);
+        this.processador = new ProcessadorDeMensagens(nomeJogador, REGISTRO, new ReacoesDaMesa(),
+                HistoricoDePartidas.global());
+        this.posicao = processador.getPosicao();
+        this.sincronizador = processador.getSincronizador();
+
+        tabuleiroPanel.setOuvinte((r, c) -> noLaco(() -> cliqueCasa(r, c)));
+        painel.add(tabuleiroPanel, BorderLayout.CENTER);
+
+        JPanel painelStatus = new JPanel(new FlowLayout(FlowLayout.CENTER, 12, 4));
+        painelStatus.setBackground(new Color(40, 40, 40));
+        turnoLabel.setForeground(Color.WHITE);
+        turnoLabel.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 16));
+        statusLabel.setForeground(Color.RED);
+        statusLabel.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 12));
+        JButton fecharButton = new JButton("Fechar mesa");
+        fecharButton.addActionListener(e -> ouvinte.fecharMesa(this));
+        painelStatus.add(turnoLabel);
+        painelStatus.add(statusLabel);
+        // Dica do serviço de análise local, se -Ddamas.analise.endereco estiver definido
+        if (ClienteDeAnalise.global() != null) {
+            JButton dicaButton = new JButton("Dica");
+            dicaButton.addActionListener(e -> noLaco(this::pedirDica));
+            painelStatus.add(dicaButton);
+        }
+        painelStatus.add(fecharButton);
+        painel.add(painelStatus, BorderLayout.SOUTH);
+
+        noLaco(this::inicializarTabuleiro);
+    }
+
+    JPanel getPainel() {
+        return painel;
+    }
+
+    /** Título para a aba ou a borda da grade; só na thread do Swing. */
+    String getTitulo() {
+        return titulo;
+    }
+
+    /** Cria a sessão e entra na fila; a resposta do {@code Connect} volta pelo laço. */
+    void conectar() {
+        definirStatus("Conectando...", Color.YELLOW);
+        noLaco(this::conectarNoLaco);
+    }
+
+    /** Encerra a sessão; roda no laço e pode ser esperado pelo futuro devolvido. */
+    Future<?> desconectar() {
+        return jogo.submit(() -> {
+            try {
+                desconectarNoLaco();
+            } catch (RuntimeException e) {
+                REGISTRO.aviso("Erro ao desconectar: " + e.getMessage());
+            }
+            publicarVista();
+        });
+    }
+
+    private void inicializarTabuleiro() {
+        sincronizador.reiniciar();
+        numCaminho = 0;
+    }
+
+    /** Roda o evento no laço do jogo e publica a vista resultante. */
+    private void noLaco(Runnable evento) {
+        jogo.execute(() -> {
+            try {
+                evento.run();
+            } catch (RuntimeException e) {
+                REGISTRO.erro("Falha ao processar evento", e);
+            }
+            publicarVista();
+        });
+    }
+
+    private void publicarVista() {
+        String nomeOponente = processador.getNomeOponente();
+        String novoTitulo = (processador.isMinhaVez() ? "▶ " : "") + nomeJogador
+                + (nomeOponente != null ? " x " + nomeOponente : "");
+        Vista nova = new Vista(posicao, selecR, selecC, textoTurno, corTurno, novoTitulo);
+        if (nova.igual(vista)) return;
+        vista = nova;
+        quadros.pedir();
+    }
+
+    /** Thread do Swing: aplica a vista mais recente; o painel só repinta as casas que mudaram. */
+    private void desenharVista() {
+        Vista v = vista;
+        tabuleiroPanel.atualizar(v.brancas, v.pretas, v.damas);
+        tabuleiroPanel.setSelecao(v.selecR, v.selecC);
+        turnoLabel.setText(v.textoTurno);
+        turnoLabel.setForeground(v.corTurno);
+        if (!v.titulo.equals(titulo)) {
+            titulo = v.titulo;
+            ouvinte.tituloMudou(this);
+        }
+    }
+
+    private void definirTurno(String texto) {
+        textoTurno = texto;
+    }
+
+    private void definirTurno(String texto, Color cor) {
+        textoTurno = texto;
+        corTurno = cor;
+    }
+
+    private void definirStatus(String texto, Color cor) {
+        SwingUtilities.invokeLater(() -> {
+            statusLabel.setText(texto);
+            statusLabel.setForeground(cor);
+        });
+    }
+
+    private void mostrarMensagem(String texto) {
+        SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(painel, texto));
+    }
+
+    private void cliqueCasa(int r, int c) {
+        boolean minhaVez = processador.isMinhaVez();
+        REGISTRO.registrar(Nivel.DEPURACAO, EventoCliente.CLIQUE, r, c,
+                (conectado ? 1 : 0) | (minhaVez ? 2 : 0), null);
+
+        // Tabuleiro sendo ressincronizado com o servidor: espera o snapshot
+        if (sincronizador.isAguardandoSnapshot()) {
+            return;
+        }
+
+        if (!conectado || !minhaVez) {
+            if (conectado) {
+                mostrarMensagem("Não é sua vez!");
+            }
+            return;
+        }
+
+        boolean ehJogadorBranco = processador.isBranco();
+        int casaClicada = Bitboard.indice(r, c);
+        if (selecR == -1 && !posicao.estaVazia(casaClicada)) {
+            boolean ehBranca = posicao.ehBranca(casaClicada);
+            if (ehBranca == ehJogadorBranco) {
+                boolean deveCapturar = posicao.temCaptura(ehJogadorBranco);
+                boolean estaPecaPodeCapturar = posicao.capturasDe(casaClicada) != 0;
+
+                if (!deveCapturar || estaPecaPodeCapturar) {
+                    selecR = r;
+                    selecC = c;
+                } else {
+                    mostrarMensagem("Você deve mover a peça que pode capturar!");
+                }
+            } else {
+                mostrarMensagem("Esta peça não é sua!");
+            }
+            return;
+        }
+
+        if (selecR != -1) {
+            int origem = Bitboard.indice(selecR, selecC);
+            selecR = -1;
+            selecC = -1;
+
+            // Valida como o servidor: lance ilegal nem sai do cliente. Se for legal, mostra
+            // o salto sem esperar o servidor; o eco só confirma, a recusa desfaz
+            if (!processador.jogarSalto(origem, casaClicada)) {
+                if (numCaminho > 0) {
+                    // No meio de uma captura múltipla a mesma peça continua selecionada
+                    selecR = Bitboard.linha(origem);
+                    selecC = Bitboard.coluna(origem);
+                }
+                mostrarMensagem("Movimento inválido!");
+                return;
+            }
+
+            if (numCaminho == 0) {
+                caminho[numCaminho++] = origem;
+            }
+            caminho[numCaminho++] = casaClicada;
+
+            if (posicao.isVezDasBrancas() == ehJogadorBranco) {
+                // A peça ainda pode capturar: continua com ela e envia o lance inteiro no fim
+                selecR = r;
+                selecC = c;
+            } else {
+                enviarLance();
+            }
+        }
+    }
+
+    /** Pede o melhor lance da posição atual ao serviço de análise. */
+    private void pedirDica() {
+        if (!conectado || !processador.isMinhaVez() || numCaminho > 0 || sincronizador.isAguardandoSnapshot()) {
+            return;
+        }
+        Posicao copia = new Posicao(posicao);
+        copia.setVezDasBrancas(processador.isBranco());
+        int seq = sincronizador.getSeq();
+        definirTurno("SUA VEZ! Analisando...");
+        ClienteDeAnalise.global().analisar(copia, 0, TEMPO_DICA_MS)
+                .whenComplete((resposta, erro) -> noLaco(() -> mostrarDica(seq, copia, resposta, erro)));
+    }
+
+    /** Seleciona a peça do lance sugerido, se a posição ainda for a analisada. */
+    private void mostrarDica(int seq, Posicao analisada, AnalyzeResponse resposta, Throwable erro) {
+        if (!processador.isMinhaVez() || numCaminho > 0 || sincronizador.getSeq() != seq) return;
+        if (erro != null) {
+            REGISTRO.aviso("Análise indisponível: " + erro.getMessage());
+            definirTurno("SUA VEZ! (análise indisponível)");
+            return;
+        }
+        if (resposta.getBestMove().getPathCount() < 2) return;
+        int origem = resposta.getBestMove().getPath(0);
+        selecR = Bitboard.linha(origem);
+        selecC = Bitboard.coluna(origem);
+        definirTurno("SUA VEZ! Dica: " + ClienteDeAnalise.descrever(analisada, resposta.getBestMove()));
+    }
+
+    // ==================== MÉTODOS gRPC ====================
+
+    private void conectarNoLaco() {
+        if (conectado) {
+            mostrarMensagem("Esta mesa já está conectada!");
+            return;
+        }
+
+        // Sessão retomável no canal da janela: se o stream cair durante a partida, reconecta sozinha
+        sessao = new SessaoDeJogo(channel, nomeJogador, jogo, sincronizador::getSeq, new SessaoDeJogo.Ouvinte() {
+            @Override
+            public void aoReceber(GameMessage message) {
+                noLaco(() -> processador.processar(message));
+            }
+
+            @Override
+            public void aoReconectar(int tentativa, long esperaMs, Throwable causa) {
+                REGISTRO.aviso("Conexão perdida (" + causa.getMessage()
+                        + "), tentativa " + tentativa + " em " + esperaMs + " ms");
+                definirStatus("Reconectando...", Color.YELLOW);
+            }
+
+            @Override
+            public void aoRetomar(int seq) {
+                noLaco(() -> processador.retomar(seq));
+                definirStatus("Conectado!", Color.GREEN);
+            }
+
+            @Override
+            public void aoEncerrar(Throwable erro) {
+                if (erro == null) {
+                    REGISTRO.info("Conexão encerrada pelo servidor");
+                    noLaco(Mesa.this::desconectarNoLaco);
+                    return;
+                }
+                REGISTRO.erro("Erro na conexão", erro);
+                definirStatus("Erro na conexão!", Color.RED);
+                mostrarMensagem("Erro na conexão: " + erro.getMessage());
+                noLaco(Mesa.this::desconectarNoLaco);
+            }
+        });
+
+        conectado = true;
+
+        // Cria a sessão e entra na fila com o nome do jogador; o Connect não prende o laço
+        processador.setConexao(sessao);
+        definirTurno(AGUARDANDO_OPONENTE);
+        SessaoDeJogo nova = sessao;
+        nova.iniciar().whenComplete((nada, erro) -> noLaco(() -> conexaoAberta(nova, erro)));
+    }
+
+    /** Resposta do {@code Connect}, de volta no laço; ignorada se a mesa já trocou de sessão. */
+    private void conexaoAberta(SessaoDeJogo aberta, Throwable erro) {
+        if (aberta != sessao || !conectado) return;
+        if (erro == null) {
+            definirStatus("Conectado!", Color.GREEN);
+            return;
+        }
+        REGISTRO.erro("Não foi possível conectar ao servidor", erro);
+        conectado = false;
+        processador.desconectar();
+        definirTurno("Desconectado");
+        definirStatus("Erro na conexão!", Color.RED);
+        mostrarMensagem("Não foi possível conectar ao servidor!\n" + erro.getMessage());
+    }
+
+    /** O que a tela faz com as mensagens, depois que o {@link ProcessadorDeMensagens} atualizou o jogo. */
+    private final class ReacoesDaMesa implements ProcessadorDeMensagens.Ouvinte {
+        @Override
+        public void aoAguardar() {
+            definirTurno(AGUARDANDO_OPONENTE);
+        }
+
+        @Override
+        public void aoIniciar(GameStart start) {
+            numCaminho = 0;
+            boolean ehJogadorBranco = processador.isBranco();
+            String cor = ehJogadorBranco ? "BRANCAS (⚪)" : "PRETAS (⚫)";
+            definirTurno("Você joga com: " + cor + " | Oponente: " + start.getOpponentName());
+            REGISTRO.info(nomeJogador + " é o jogador " + (ehJogadorBranco ? "BRANCO" : "PRETO"));
+        }
+
+        @Override
+        public void aoReceberVez() {
+            definirTurno("SUA VEZ!", Color.GREEN);
+        }
+
+        @Override
+        public void aoRecusar(MoveResult resultado) {
+            numCaminho = 0;
+            mostrarMensagem("Movimento inválido: " + resultado.getMessage());
+        }
+
+        @Override
+        public void aoPerderLance() {
+            numCaminho = 0;
+            selecR = -1;
+            selecC = -1;
+            definirTurno(AGUARDANDO_OPONENTE, Color.WHITE);
+        }
+
+        @Override
+        public void aoEco() {
+            definirTurno(AGUARDANDO_OPONENTE, Color.WHITE);
+        }
+
+        @Override
+        public void aoFim(GameOver gameOver) {
+            definirTurno("Jogo Finalizado!");
+            SwingUtilities.invokeLater(() -> {
+                JOptionPane.showMessageDialog(painel,
+                    "Fim de Jogo!\n" + gameOver.getReason());
+                noLaco(Mesa.this::desconectarNoLaco);
+            });
+        }
+
+        @Override
+        public void aoErro(String texto) {
+            mostrarMensagem("Erro: " + texto);
+        }
+    }
+
+    /** Envia o lance montado: um salto em {@code Move}, captura múltipla em {@code MoveSequence}. */
+    private void enviarLance() {
+        processador.enviarCaminho(caminho, numCaminho);
+        numCaminho = 0;
+    }
+
+    /** Fecha só a sessão desta mesa: o canal é da janela e continua servindo as outras. */
+    private void desconectarNoLaco() {
+        conectado = false;
+        processador.desconectar();
+        if (sessao != null) {
+            sessao.encerrar();
+        }
+        definirTurno("Desconectado");
+        definirStatus("Desconectado", Color.RED);
+    }
+}
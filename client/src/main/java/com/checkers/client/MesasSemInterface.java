@@ -0,0 +1,97 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Registro;
+import io.grpc.ManagedChannel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Várias mesas de bots num só processo, sem interface.
+ *
+ * Todas as sessões usam um único {@link ManagedChannel} (uma conexão TCP, um stream
+ * HTTP/2 por mesa), cujos callbacks rodam num event loop pequeno. Os eventos de cada
+ * bot, inclusive a busca, rodam na {@link FilaSerial} do bot sobre um pool com uma
+ * thread por núcleo, e as reconexões de todas as sessões saem de um só agendador.
+ * Cada bot busca com uma thread: as mesas já ocupam os núcleos.
+ *
+ * Uso: {@code MesasSemInterface [host] [porta] [nome] [mesas] [msPorLance] [partidasPorMesa]};
+ * os bots se chamam {@code nome-1}, {@code nome-2}... Com muitas mesas vale reduzir a
+ * tabela de transposição de cada bot com {@code -Ddamas.bot.tabela}.
+ */
+public final class MesasSemInterface {
+
+    private static final Registro REGISTRO = Registro.de("MESAS");
+
+    private MesasSemInterface() {
+    }
+
+    /** Joga {@code partidasPorMesa} partidas em cada uma das mesas e retorna quando todas acabam. */
+    public static void jogar(String host, int port, String nome, int mesas, long tempoMs, int partidasPorMesa)
+            throws InterruptedException {
+        ExecutorService eventLoop = Executors.newFixedThreadPool(2, daemon("mesas-event-loop"));
+        ExecutorService pool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                daemon("mesas-jogo"));
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(daemon("mesas-reconexao"));
+        ManagedChannel channel = ConfiguracaoCanal.padrao().comExecutor(eventLoop).criarCanal(host, port);
+        REGISTRO.info(mesas + " mesas em " + host + ":" + port + ", " + partidasPorMesa + " partida(s) cada");
+
+        AtomicInteger terminadas = new AtomicInteger();
+        List<BotClient> bots = new ArrayList<>();
+        List<CompletableFuture<Void>> mesasEmJogo = new ArrayList<>();
+        long inicio = System.nanoTime();
+        for (int i = 0; i < mesas; i++) {
+            BotClient bot = new BotClient(channel, new FilaSerial(pool), agendador, nome + "-" + (i + 1), tempoMs, 1);
+            bots.add(bot);
+            CompletableFuture<Void> partidas = CompletableFuture.completedFuture(null);
+            for (int p = 0; p < partidasPorMesa; p++) {
+                partidas = partidas.thenCompose(nada -> bot.iniciarPartida())
+                        .thenRun(terminadas::incrementAndGet);
+            }
+            mesasEmJogo.add(partidas.exceptionally(erro -> {
+                REGISTRO.erro("Mesa de " + bot.getNome() + " interrompida", erro);
+                return null;
+            }));
+        }
+
+        CompletableFuture.allOf(mesasEmJogo.toArray(new CompletableFuture<?>[0])).join();
+        REGISTRO.info(terminadas.get() + " partidas em "
+                + TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - inicio) + " s");
+
+        for (BotClient bot : bots) {
+            bot.encerrar();
+        }
+        channel.shutdown();
+        channel.awaitTermination(5, TimeUnit.SECONDS);
+        agendador.shutdownNow();
+        pool.shutdown();
+        eventLoop.shutdown();
+    }
+
+    private static ThreadFactory daemon(String nome) {
+        return r -> {
+            Thread t = new Thread(r, nome);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 50051;
+        String nome = args.length > 2 ? args[2] : "Bot";
+        int mesas = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        long tempoMs = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+        int partidas = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+
+        MetricasCliente.global().exportarPeriodicamente();
+        jogar(host, port, nome, mesas, tempoMs, partidas);
+    }
+}
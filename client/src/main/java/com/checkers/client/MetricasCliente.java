@@ -0,0 +1,133 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Registro;
+import com.checkers.grpc.GameMessage;
+import com.checkers.metricas.Histograma;
+import com.checkers.metricas.RegistroMetricas;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Métricas do que o jogador percebe: ida e volta dos lances (envio até o eco em
+ * {@code OPPONENT_MOVE}/{@code MOVE_SEQUENCE}), espera no pareamento ({@code WAITING}
+ * até {@code START}), mensagens e bytes por tipo em cada direção e tempo de desenho
+ * do tabuleiro.
+ *
+ * Há uma instância por processo ({@link #global()}). Com
+ * {@code -Ddamas.metricas.arquivo=caminho} o retrato é gravado a cada
+ * {@code damas.metricas.intervaloS} segundos (padrão 15) e na saída; a extensão
+ * {@code .json} escolhe JSON, qualquer outra o texto do Prometheus.
+ */
+public final class MetricasCliente {
+
+    private static final Registro REGISTRO = Registro.de("METRICAS");
+    private static final GameMessage.MessageCase[] TIPOS = GameMessage.MessageCase.values();
+
+    // Depois de TIPOS: o construtor usa a tabela
+    private static final MetricasCliente GLOBAL = new MetricasCliente();
+
+    private final RegistroMetricas registro = new RegistroMetricas();
+    private final Histograma idaEVolta = registro.histograma("damas_lance_ida_e_volta_seconds",
+            "Do envio do lance até o eco do servidor");
+    private final Histograma pareamento = registro.histograma("damas_pareamento_espera_seconds",
+            "Do WAITING até o START");
+    private final Histograma desenho = registro.histograma("damas_tabuleiro_desenho_seconds",
+            "Tempo de paintComponent do tabuleiro");
+    private final LongAdder reconexoes = registro.contador("damas_reconexoes_total",
+            "Tentativas de retomar a sessão após queda do stream");
+    private final LongAdder[] recebidas = new LongAdder[TIPOS.length];
+    private final LongAdder[] bytesRecebidos = new LongAdder[TIPOS.length];
+    private final LongAdder[] enviadas = new LongAdder[TIPOS.length];
+    private final LongAdder[] bytesEnviados = new LongAdder[TIPOS.length];
+
+    private MetricasCliente() {
+        for (GameMessage.MessageCase tipo : TIPOS) {
+            int i = tipo.ordinal();
+            recebidas[i] = registro.contador("damas_mensagens_total",
+                    "Mensagens do stream PlayGame", "direcao", "recebida", "tipo", tipo.name());
+            enviadas[i] = registro.contador("damas_mensagens_total",
+                    "Mensagens do stream PlayGame", "direcao", "enviada", "tipo", tipo.name());
+            bytesRecebidos[i] = registro.contador("damas_mensagens_bytes_total",
+                    "Bytes serializados das mensagens", "direcao", "recebida", "tipo", tipo.name());
+            bytesEnviados[i] = registro.contador("damas_mensagens_bytes_total",
+                    "Bytes serializados das mensagens", "direcao", "enviada", "tipo", tipo.name());
+        }
+    }
+
+    public static MetricasCliente global() {
+        return GLOBAL;
+    }
+
+    public RegistroMetricas getRegistro() {
+        return registro;
+    }
+
+    public void mensagemRecebida(GameMessage message) {
+        int i = message.getMessageCase().ordinal();
+        recebidas[i].increment();
+        bytesRecebidos[i].add(message.getSerializedSize());
+    }
+
+    public void mensagemEnviada(GameMessage message) {
+        int i = message.getMessageCase().ordinal();
+        enviadas[i].increment();
+        bytesEnviados[i].add(message.getSerializedSize());
+    }
+
+    public void registrarIdaEVolta(long nanos) {
+        idaEVolta.registrar(nanos);
+    }
+
+    public void registrarPareamento(long nanos) {
+        pareamento.registrar(nanos);
+    }
+
+    public void registrarDesenho(long nanos) {
+        desenho.registrar(nanos);
+    }
+
+    public void registrarReconexao() {
+        reconexoes.increment();
+    }
+
+    /**
+     * Grava o retrato agora: no arquivo de {@code damas.metricas.arquivo} ou, sem ele,
+     * em {@code padrao}.
+     */
+    public Path exportar(String padrao) throws IOException {
+        Path arquivo = Paths.get(System.getProperty("damas.metricas.arquivo", padrao));
+        registro.exportar(arquivo);
+        return arquivo;
+    }
+
+    /** Liga a exportação periódica e na saída, se {@code damas.metricas.arquivo} estiver definido. */
+    public void exportarPeriodicamente() {
+        String nome = System.getProperty("damas.metricas.arquivo");
+        if (nome == null) return;
+        Path arquivo = Paths.get(nome);
+        long intervalo = Long.getLong("damas.metricas.intervaloS", 15);
+
+        ScheduledExecutorService agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-exportacao");
+            t.setDaemon(true);
+            return t;
+        });
+        agendador.scheduleAtFixedRate(() -> gravar(arquivo), intervalo, intervalo, TimeUnit.SECONDS);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> gravar(arquivo), "metricas-saida"));
+        REGISTRO.info("Exportando para " + arquivo.toAbsolutePath() + " a cada " + intervalo + " s");
+    }
+
+    private void gravar(Path arquivo) {
+        try {
+            registro.exportar(arquivo);
+        } catch (IOException e) {
+            REGISTRO.aviso("Falha ao gravar " + arquivo + ": " + e.getMessage());
+        }
+    }
+}
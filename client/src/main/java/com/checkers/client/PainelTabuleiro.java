@@ -0,0 +1,204 @@
+package com.checkers.client;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Tabuleiro desenhado num único componente, no lugar dos 64 JButtons.
+ *
+ * Guarda uma cópia dos bitboards exibidos; a cada {@link #atualizar(Posicao)} só as
+ * casas que mudaram (origem, destino e capturadas) são repintadas. Os glifos das
+ * peças são renderizados uma vez por tamanho de casa e reaproveitados, então pintar
+ * não aloca fontes, cores nem componentes.
+ */
+public class PainelTabuleiro extends JComponent {
+
+    private static final long serialVersionUID = 1L;
+
+    /** Recebe o clique numa casa (linha, coluna), como os antigos botões. */
+    public interface OuvinteCasa {
+        void cliqueCasa(int linha, int coluna);
+    }
+
+    private static final Color COR_CLARA = Color.WHITE;
+    private static final Color COR_ESCURA = new Color(139, 69, 19);
+    private static final Color COR_SELECAO = Color.YELLOW;
+
+    private static final int BRANCA = 0;
+    private static final int DAMA_BRANCA = 1;
+    private static final int PRETA = 2;
+    private static final int DAMA_PRETA = 3;
+    private static final String[] GLIFOS = {"○", "♕", "●", "♛"};
+
+    // Estado exibido; só é lido e alterado na thread do Swing
+    private long brancas;
+    private long pretas;
+    private long damas;
+    private int selecR = -1;
+    private int selecC = -1;
+
+    private final BufferedImage[] glifos = new BufferedImage[4];
+    private int tamanhoDosGlifos = -1;
+    private final Rectangle recorte = new Rectangle();
+
+    private OuvinteCasa ouvinte;
+
+    public PainelTabuleiro() {
+        setOpaque(true);
+        setPreferredSize(new Dimension(640, 640));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                int tamanho = tamanhoDaCasa();
+                if (ouvinte == null || tamanho == 0) return;
+                int c = (e.getX() - margemX(tamanho)) / tamanho;
+                int r = (e.getY() - margemY(tamanho)) / tamanho;
+                if (e.getX() >= margemX(tamanho) && e.getY() >= margemY(tamanho) && r < 8 && c < 8) {
+                    ouvinte.cliqueCasa(r, c);
+                }
+            }
+        });
+    }
+
+    public void setOuvinte(OuvinteCasa ouvinte) {
+        this.ouvinte = ouvinte;
+    }
+
+    /**
+     * Passa a exibir a posição, repintando só as casas cujo conteúdo mudou.
+     */
+    public void atualizar(Posicao posicao) {
+        atualizar(posicao.getBrancas(), posicao.getPretas(), posicao.getDamas());
+    }
+
+    /** Mesmo que {@link #atualizar(Posicao)}, a partir dos bitboards já copiados. */
+    public void atualizar(long novasBrancas, long novasPretas, long novasDamas) {
+        long mudaram = (brancas ^ novasBrancas)
+                | (pretas ^ novasPretas)
+                | (damas ^ novasDamas);
+        brancas = novasBrancas;
+        pretas = novasPretas;
+        damas = novasDamas;
+
+        while (mudaram != 0) {
+            int casa = Long.numberOfTrailingZeros(mudaram);
+            mudaram &= mudaram - 1;
+            repintarCasa(Bitboard.linha(casa), Bitboard.coluna(casa));
+        }
+    }
+
+    /** Destaca a casa selecionada; (-1, -1) remove o destaque. */
+    public void setSelecao(int r, int c) {
+        if (r == selecR && c == selecC) return;
+        repintarCasa(selecR, selecC);
+        selecR = r;
+        selecC = c;
+        repintarCasa(r, c);
+    }
+
+    public void limparSelecao() {
+        setSelecao(-1, -1);
+    }
+
+    private void repintarCasa(int r, int c) {
+        if (r < 0 || c < 0) return;
+        int tamanho = tamanhoDaCasa();
+        repaint(margemX(tamanho) + c * tamanho, margemY(tamanho) + r * tamanho, tamanho, tamanho);
+    }
+
+    private int tamanhoDaCasa() {
+        return Math.min(getWidth(), getHeight()) / 8;
+    }
+
+    private int margemX(int tamanho) {
+        return (getWidth() - 8 * tamanho) / 2;
+    }
+
+    private int margemY(int tamanho) {
+        return (getHeight() - 8 * tamanho) / 2;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        long inicio = System.nanoTime();
+        pintar(g);
+        MetricasCliente.global().registrarDesenho(System.nanoTime() - inicio);
+    }
+
+    private void pintar(Graphics g) {
+        int tamanho = tamanhoDaCasa();
+        recorte.setBounds(0, 0, getWidth(), getHeight());
+        g.getClipBounds(recorte);
+        g.setColor(getBackground() != null ? getBackground() : COR_CLARA);
+        g.fillRect(recorte.x, recorte.y, recorte.width, recorte.height);
+        if (tamanho == 0) return;
+
+        if (tamanho != tamanhoDosGlifos) {
+            renderizarGlifos(tamanho);
+        }
+
+        int x0 = margemX(tamanho);
+        int y0 = margemY(tamanho);
+        // Só percorre as casas que cruzam a área a repintar
+        int cIni = Math.max(0, (recorte.x - x0) / tamanho);
+        int cFim = Math.min(7, (recorte.x + recorte.width - 1 - x0) / tamanho);
+        int rIni = Math.max(0, (recorte.y - y0) / tamanho);
+        int rFim = Math.min(7, (recorte.y + recorte.height - 1 - y0) / tamanho);
+
+        for (int r = rIni; r <= rFim; r++) {
+            for (int c = cIni; c <= cFim; c++) {
+                int x = x0 + c * tamanho;
+                int y = y0 + r * tamanho;
+                Color corFundo = (r + c) % 2 == 0 ? COR_CLARA : COR_ESCURA;
+                if (r == selecR && c == selecC) {
+                    corFundo = COR_SELECAO;
+                }
+                g.setColor(corFundo);
+                g.fillRect(x, y, tamanho, tamanho);
+
+                int tipo = tipoDaPeca(Bitboard.indice(r, c));
+                if (tipo >= 0) {
+                    g.drawImage(glifos[tipo], x, y, null);
+                }
+            }
+        }
+    }
+
+    private int tipoDaPeca(int casa) {
+        if (casa < 0) return -1;
+        long bit = Bitboard.bit(casa);
+        boolean dama = (damas & bit) != 0;
+        if ((brancas & bit) != 0) return dama ? DAMA_BRANCA : BRANCA;
+        if ((pretas & bit) != 0) return dama ? DAMA_PRETA : PRETA;
+        return -1;
+    }
+
+    /** Renderiza os quatro glifos, centralizados, para casas do tamanho indicado. */
+    private void renderizarGlifos(int tamanho) {
+        for (int tipo = 0; tipo < 4; tipo++) {
+            boolean dama = tipo == DAMA_BRANCA || tipo == DAMA_PRETA;
+            // Mesma proporção das fontes dos antigos botões (24 e 30 numa casa de ~80px)
+            Font fonte = new Font("Segoe UI Emoji", Font.BOLD, Math.max(8, tamanho * (dama ? 30 : 24) / 80));
+
+            BufferedImage imagem = new BufferedImage(tamanho, tamanho, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = imagem.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(fonte);
+            g.setColor(tipo <= DAMA_BRANCA ? Color.WHITE : Color.BLACK);
+            FontMetrics metricas = g.getFontMetrics();
+            int x = (tamanho - metricas.stringWidth(GLIFOS[tipo])) / 2;
+            int y = (tamanho - metricas.getHeight()) / 2 + metricas.getAscent();
+            g.drawString(GLIFOS[tipo], x, y);
+            g.dispose();
+
+            glifos[tipo] = imagem;
+        }
+        tamanhoDosGlifos = tamanho;
+    }
+}
@@ -0,0 +1,282 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Nivel;
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Lance;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.*;
+
+/**
+ * Tratamento das mensagens do stream {@code PlayGame} que a {@link Mesa}, o
+ * {@link BotClient} e a reprodução de sessões gravadas dividem: cor, oponente, vez,
+ * posição sincronizada com o servidor e os lances enviados. O que cada cliente faz com
+ * isso (tela, busca, reprodução) fica no {@link Ouvinte}; o envio, na {@link Conexao}.
+ *
+ * Um YOUR_TURN que chega enquanto o tabuleiro espera um snapshot só é repassado ao
+ * ouvinte depois do snapshot, para ninguém jogar numa posição fora de sincronia.
+ *
+ * Não é thread-safe: deve ser usado numa única thread (o laço de jogo do cliente).
+ */
+public final class ProcessadorDeMensagens {
+
+    /** Para onde vão as mensagens do cliente; {@link SessaoDeJogo} nos clientes de verdade. */
+    public interface Conexao {
+        /** @return falso se a mensagem foi descartada */
+        boolean enviar(GameMessage message);
+
+        /** Liga a retomada automática durante a partida ou a desliga no fim. */
+        void setRetomavel(boolean retomavel);
+    }
+
+    /** Reações do cliente, chamadas depois que o estado já foi atualizado. */
+    public interface Ouvinte {
+        default void aoAguardar() {
+        }
+
+        default void aoIniciar(GameStart start) {
+        }
+
+        /** É a vez deste jogador e o tabuleiro está em sincronia com o servidor. */
+        default void aoReceberVez() {
+        }
+
+        /** O servidor recusou o lance; os saltos otimistas já foram desfeitos. */
+        default void aoRecusar(MoveResult resultado) {
+        }
+
+        /** Os saltos otimistas se perderam na queda do stream e já foram desfeitos. */
+        default void aoPerderLance() {
+        }
+
+        /** Um lance (de qualquer dos jogadores) foi ecoado pelo servidor. */
+        default void aoEco() {
+        }
+
+        default void aoFim(GameOver gameOver) {
+        }
+
+        default void aoErro(String texto) {
+        }
+    }
+
+    private final String nomeJogador;
+    private final Registro registro;
+    private final Ouvinte ouvinte;
+    private final HistoricoDePartidas historico;
+    private final MetricasCliente metricas = MetricasCliente.global();
+
+    private final Posicao posicao = new Posicao();
+    private final SincronizadorTabuleiro sincronizador = new SincronizadorTabuleiro(posicao);
+    private Conexao conexao;
+
+    private boolean ehBranco;
+    private String nomeOponente;
+    private boolean minhaVez;
+    private boolean vezPendente;
+    // Instantes (nanoTime) para as métricas; 0 quando não há medição em curso
+    private long aguardandoDesde;
+    private long lanceEnviadoEm;
+
+    /** Sem histórico de partidas (reprodução de sessões). */
+    public ProcessadorDeMensagens(String nomeJogador, Registro registro, Ouvinte ouvinte) {
+        this(nomeJogador, registro, ouvinte, null);
+    }
+
+    ProcessadorDeMensagens(String nomeJogador, Registro registro, Ouvinte ouvinte, HistoricoDePartidas historico) {
+        this.nomeJogador = nomeJogador;
+        this.registro = registro;
+        this.ouvinte = ouvinte;
+        this.historico = historico;
+    }
+
+    /** Nova sessão: as mensagens seguintes são dela, e o pareamento começa a contar. */
+    public void setConexao(Conexao conexao) {
+        this.conexao = conexao;
+        aguardandoDesde = System.nanoTime();
+    }
+
+    /** Fim da sessão deste lado: nada mais é enviado. */
+    public void desconectar() {
+        conexao = null;
+        minhaVez = false;
+        vezPendente = false;
+    }
+
+    public Posicao getPosicao() {
+        return posicao;
+    }
+
+    public SincronizadorTabuleiro getSincronizador() {
+        return sincronizador;
+    }
+
+    public boolean isBranco() {
+        return ehBranco;
+    }
+
+    public String getNomeOponente() {
+        return nomeOponente;
+    }
+
+    public boolean isMinhaVez() {
+        return minhaVez;
+    }
+
+    public void processar(GameMessage message) {
+        registro.registrar(Nivel.DEPURACAO, EventoCliente.MENSAGEM_RECEBIDA, message.getMessageCase());
+
+        switch (message.getMessageCase()) {
+            case WAITING:
+                ouvinte.aoAguardar();
+                break;
+
+            case START:
+                GameStart start = message.getStart();
+                ehBranco = start.getYourColor() == GameStart.Color.WHITE;
+                nomeOponente = start.getOpponentName();
+                minhaVez = ehBranco; // Brancas começam
+                vezPendente = false;
+                sincronizador.reiniciar();
+                if (conexao != null) conexao.setRetomavel(true);
+                if (aguardandoDesde != 0) {
+                    metricas.registrarPareamento(System.nanoTime() - aguardandoDesde);
+                    aguardandoDesde = 0;
+                }
+                ouvinte.aoIniciar(start);
+                break;
+
+            case YOUR_TURN:
+                minhaVez = true;
+                if (sincronizador.isAguardandoSnapshot()) {
+                    // Só joga depois que o tabuleiro voltar a bater com o do servidor
+                    vezPendente = true;
+                    break;
+                }
+                ouvinte.aoReceberVez();
+                break;
+
+            case MOVE_RESULT:
+                MoveResult resultado = message.getMoveResult();
+                if (!resultado.getValid()) {
+                    lanceEnviadoEm = 0;
+                    minhaVez = true;
+                    sincronizador.desfazerOtimistas();
+                    ouvinte.aoRecusar(resultado);
+                }
+                break;
+
+            case OPPONENT_MOVE:
+                // O servidor ecoa os lances dos dois jogadores
+                OpponentMove lance = message.getOpponentMove();
+                minhaVez = false;
+                registrarEco();
+                verificarSincronia(sincronizador.aplicar(lance), lance.getSeq());
+                ouvinte.aoEco();
+                break;
+
+            case MOVE_SEQUENCE:
+                MoveSequence sequencia = message.getMoveSequence();
+                minhaVez = false;
+                registrarEco();
+                verificarSincronia(sincronizador.aplicar(sequencia), sequencia.getSeq());
+                ouvinte.aoEco();
+                break;
+
+            case SNAPSHOT:
+                BoardSnapshot snapshot = message.getSnapshot();
+                registro.registrar(Nivel.INFO, EventoCliente.SNAPSHOT_RECEBIDO, snapshot.getSeq(), 0);
+                sincronizador.aplicar(snapshot);
+                if (vezPendente && !sincronizador.isAguardandoSnapshot()) {
+                    vezPendente = false;
+                    ouvinte.aoReceberVez();
+                }
+                break;
+
+            case GAME_OVER:
+                GameOver gameOver = message.getGameOver();
+                minhaVez = false;
+                vezPendente = false;
+                if (conexao != null) conexao.setRetomavel(false);
+                if (historico != null) {
+                    historico.gravar(nomeJogador, nomeOponente, ehBranco, gameOver, sincronizador);
+                }
+                ouvinte.aoFim(gameOver);
+                break;
+
+            case ERROR:
+                ouvinte.aoErro(message.getError().getError());
+                break;
+
+            default:
+                registro.aviso("Mensagem não reconhecida: " + message.getMessageCase());
+                break;
+        }
+    }
+
+    /**
+     * Sessão retomada depois de uma queda. Se o servidor não passou do último lance
+     * confirmado aqui, os saltos otimistas não chegaram a ele (ficaram no stream que
+     * caiu, ou nem foram enviados): são desfeitos, e a vez volta com o YOUR_TURN que o
+     * servidor reenvia. Se ele tem lances depois desse, os ecos reenviados confirmam os
+     * saltos ou os desfazem, como sempre.
+     *
+     * @param seqServidor último lance que o servidor tem, de {@code SessionResumed}
+     */
+    public void retomar(int seqServidor) {
+        if (seqServidor > sincronizador.getSeq() || !sincronizador.temPendentes()) return;
+        registro.aviso("Saltos otimistas perdidos na queda (servidor no lance " + seqServidor + "), desfazendo");
+        sincronizador.desfazerOtimistas();
+        lanceEnviadoEm = 0;
+        minhaVez = false;
+        ouvinte.aoPerderLance();
+    }
+
+    /**
+     * Aplica um salto do jogador sem esperar o servidor, se ele for legal na posição
+     * local; o eco só confirma, a recusa desfaz. Depois dele, a vez continua com o
+     * jogador se a peça ainda tiver captura.
+     *
+     * @return falso se o salto não é legal (nada muda)
+     */
+    public boolean jogarSalto(int origem, int destino) {
+        posicao.setVezDasBrancas(ehBranco);
+        if (!posicao.saltoLegal(origem, destino)) return false;
+        sincronizador.aplicarOtimista(origem, destino);
+        return true;
+    }
+
+    /** Envia o lance montado: um salto em {@code Move}, captura múltipla em {@code MoveSequence}. */
+    public void enviarCaminho(int[] caminho, int numCaminho) {
+        registro.registrar(Nivel.DEPURACAO, EventoCliente.LANCE_ENVIADO, numCaminho,
+                EventoCliente.empacotar(caminho, numCaminho), EventoCliente.casaExtra(caminho, numCaminho), null);
+        enviarLance(Mensagens.caminho(caminho, numCaminho));
+    }
+
+    /** Envia o lance escolhido pela busca ou pelo livro. */
+    public void enviarLance(Lance lance) {
+        enviarLance(Mensagens.lance(lance));
+    }
+
+    private void enviarLance(GameMessage message) {
+        minhaVez = false;
+        if (conexao == null) return;
+        lanceEnviadoEm = System.nanoTime();
+        conexao.enviar(message);
+    }
+
+    /** O primeiro lance ecoado depois de um envio é o nosso: fecha a ida e volta. */
+    private void registrarEco() {
+        if (lanceEnviadoEm != 0) {
+            metricas.registrarIdaEVolta(System.nanoTime() - lanceEnviadoEm);
+            lanceEnviadoEm = 0;
+        }
+    }
+
+    /** Se o tabuleiro saiu de sincronia, pede o estado completo. */
+    private void verificarSincronia(SincronizadorTabuleiro.Resultado resultado, int seq) {
+        if (resultado == SincronizadorTabuleiro.Resultado.FORA_DE_SINCRONIA && conexao != null) {
+            registro.registrar(Nivel.AVISO, EventoCliente.FORA_DE_SINCRONIA, seq, sincronizador.getSeq());
+            conexao.enviar(sincronizador.pedidoDeResync());
+        }
+    }
+}
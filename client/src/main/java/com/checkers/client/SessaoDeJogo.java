@@ -0,0 +1,317 @@
+package com.checkers.client;
+
+import com.checkers.diagnostico.Registro;
+import com.checkers.grpc.*;
+import io.grpc.ManagedChannel;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+/**
+ * Sessão do stream {@code PlayGame} que sobrevive a quedas de conexão.
+ *
+ * Obtém o {@code session_id} em {@code Connect} e o envia na primeira mensagem. Se o
+ * stream cair durante uma partida ({@link #setRetomavel(boolean)}), abre um novo
+ * stream no mesmo canal com {@code ResumeSession} e o último lance aplicado; o
+ * servidor responde com {@code SessionResumed} e reenvia só os lances perdidos.
+ * As tentativas seguem backoff exponencial com jitter, começando em 100 ms, até o
+ * prazo em que o servidor mantém a sala.
+ *
+ * As mensagens enviadas passam por uma fila limitada e só vão para o stream enquanto
+ * ele estiver pronto ({@code isReady}); o restante sai no {@code onReadyHandler}.
+ * Assim um servidor lento não faz o gRPC acumular mensagens sem limite, e o que
+ * foi enfileirado durante uma reconexão sai logo depois do {@code ResumeSession}.
+ *
+ * Com {@code damas.gravacao.pasta}, as mensagens enviadas e recebidas são gravadas
+ * ({@link GravadorDeSessao}).
+ *
+ * O último lance é lido de outra thread; um valor atrasado só faz o servidor
+ * reenviar lances que o {@link SincronizadorTabuleiro} já ignora.
+ */
+public final class SessaoDeJogo implements ProcessadorDeMensagens.Conexao {
+
+    /** Eventos da sessão, chamados nas threads do gRPC ou do agendador de reconexão. */
+    public interface Ouvinte {
+        void aoReceber(GameMessage message);
+
+        /** O stream caiu e uma nova tentativa foi agendada. */
+        void aoReconectar(int tentativa, long esperaMs, Throwable causa);
+
+        /**
+         * O servidor aceitou a retomada; os lances perdidos vêm em seguida.
+         *
+         * @param seq último lance que o servidor tem
+         */
+        void aoRetomar(int seq);
+
+        /** Fim definitivo da sessão; {@code erro} é nulo se o servidor encerrou normalmente. */
+        void aoEncerrar(Throwable erro);
+    }
+
+    private static final long ESPERA_INICIAL_MS = 100;
+    private static final long ESPERA_MAXIMA_MS = 2000;
+    /** Mesmo prazo que o servidor mantém a sala aguardando a retomada. */
+    private static final long PRAZO_RETOMADA_MS = 30_000;
+    /** Mensagens aguardando o stream ficar pronto; um jogador manda poucas por vez. */
+    private static final int CAPACIDADE_SAIDA = 64;
+    private static final Registro REGISTRO = Registro.de("SESSAO");
+
+    private final ManagedChannel channel;
+    private final CheckersGameGrpc.CheckersGameStub stub;
+    private final String nome;
+    private final IntSupplier ultimoSeq;
+    private final Ouvinte ouvinte;
+    private final ScheduledExecutorService agendador;
+    private final boolean agendadorProprio;
+    private final MetricasCliente metricas = MetricasCliente.global();
+    private final GravadorDeSessao gravador;
+
+    private volatile String sessionId;
+    private volatile boolean retomavel;
+    private volatile boolean encerrada;
+    private ClientCallStreamObserver<GameMessage> saida;
+    private final ArrayDeque<GameMessage> filaSaida = new ArrayDeque<>();
+    private long descartadas;
+    private Receptor receptorAtual;
+    private int tentativa;
+    private long quedaEm;
+
+    public SessaoDeJogo(ManagedChannel channel, String nome, IntSupplier ultimoSeq, Ouvinte ouvinte) {
+        this(channel, nome, null, ultimoSeq, ouvinte);
+    }
+
+    /**
+     * @param agendador agendador das reconexões, compartilhado entre sessões do mesmo
+     *                  processo (não é desligado aqui); nulo cria um só desta sessão
+     */
+    public SessaoDeJogo(ManagedChannel channel, String nome, ScheduledExecutorService agendador,
+                        IntSupplier ultimoSeq, Ouvinte ouvinte) {
+        this.channel = channel;
+        this.stub = CheckersGameGrpc.newStub(channel);
+        this.nome = nome;
+        this.ultimoSeq = ultimoSeq;
+        this.ouvinte = ouvinte;
+        this.gravador = GravadorDeSessao.paraSessao(nome);
+        this.agendadorProprio = agendador == null;
+        this.agendador = agendador != null ? agendador : Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "sessao-reconexao");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Cria a sessão em {@code Connect} e entra na fila pelo {@code PlayGame}, sem
+     * bloquear quem chama: a resposta chega numa thread do gRPC.
+     *
+     * @return completa quando o stream foi aberto; falha se o {@code Connect} falhar, e
+     *         então a sessão já está encerrada (sem {@link Ouvinte#aoEncerrar})
+     */
+    public CompletableFuture<Void> iniciar() {
+        CompletableFuture<Void> aberta = new CompletableFuture<>();
+        stub.withDeadlineAfter(5, TimeUnit.SECONDS).connect(
+                ConnectRequest.newBuilder().setPlayerName(nome).build(), new StreamObserver<ConnectResponse>() {
+                    @Override
+                    public void onNext(ConnectResponse resposta) {
+                        sessionId = resposta.getSessionId();
+                        REGISTRO.info(resposta.getMessage() + " (sessão " + sessionId + ")");
+                        abrirStream(GameMessage.newBuilder()
+                                .setWaiting(WaitingForPlayer.newBuilder()
+                                        .setMessage("Conectando...")
+                                        .setPlayerName(nome)
+                                        .setSessionId(sessionId))
+                                .build());
+                        aberta.complete(null);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        synchronized (SessaoDeJogo.this) {
+                            if (!encerrada) {
+                                encerrada = true;
+                                liberar();
+                            }
+                        }
+                        aberta.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                    }
+                });
+        return aberta;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /** Liga a retomada automática (durante a partida) ou a desliga (fila, fim de jogo). */
+    @Override
+    public void setRetomavel(boolean retomavel) {
+        this.retomavel = retomavel;
+    }
+
+    /**
+     * Enfileira a mensagem e envia o que o stream aceitar agora.
+     *
+     * @return falso se a sessão acabou ou a fila de saída está cheia (a mensagem é descartada)
+     */
+    @Override
+    public synchronized boolean enviar(GameMessage message) {
+        if (encerrada) return false;
+        if (filaSaida.size() >= CAPACIDADE_SAIDA) {
+            if (descartadas++ == 0) {
+                REGISTRO.aviso("Fila de saída cheia, descartando " + message.getMessageCase());
+            }
+            return false;
+        }
+        filaSaida.add(message);
+        drenar();
+        return true;
+    }
+
+    /** Mensagens descartadas por fila de saída cheia. */
+    public synchronized long getDescartadas() {
+        return descartadas;
+    }
+
+    private synchronized void drenar() {
+        while (saida != null && !encerrada && !filaSaida.isEmpty() && saida.isReady()) {
+            GameMessage message = filaSaida.poll();
+            saida.onNext(message);
+            metricas.mensagemEnviada(message);
+            if (gravador != null) gravador.enviada(message);
+        }
+    }
+
+    /** Encerra a sessão deste lado, sem tentar retomar. */
+    public synchronized void encerrar() {
+        if (encerrada) return;
+        encerrada = true;
+        liberar();
+        filaSaida.clear();
+        try {
+            if (saida != null) saida.onCompleted();
+        } catch (Exception e) {
+            // stream já encerrado
+        }
+    }
+
+    /** Fim da sessão: para o agendador próprio e fecha a gravação. */
+    private void liberar() {
+        if (agendadorProprio) agendador.shutdownNow();
+        if (gravador != null) gravador.fechar();
+    }
+
+    private synchronized void abrirStream(GameMessage primeira) {
+        if (encerrada) return;
+        receptorAtual = new Receptor();
+        saida = (ClientCallStreamObserver<GameMessage>) stub.playGame(receptorAtual);
+        // A primeira mensagem identifica o stream e passa na frente da fila
+        saida.onNext(primeira);
+        metricas.mensagemEnviada(primeira);
+        if (gravador != null) gravador.enviada(primeira);
+        drenar();
+    }
+
+    private synchronized boolean ehAtual(Receptor receptor) {
+        return receptor == receptorAtual && !encerrada;
+    }
+
+    private void streamCaiu(Receptor receptor, Throwable causa) {
+        long espera;
+        int numero;
+        synchronized (this) {
+            if (!ehAtual(receptor)) return;
+            if (!retomavel || sessionId == null) {
+                encerrada = true;
+                liberar();
+            } else {
+                long agora = System.nanoTime();
+                if (tentativa == 0) quedaEm = agora;
+                if (TimeUnit.NANOSECONDS.toMillis(agora - quedaEm) > PRAZO_RETOMADA_MS) {
+                    encerrada = true;
+                    liberar();
+                }
+            }
+            if (encerrada) {
+                espera = -1;
+            } else {
+                long teto = Math.min(ESPERA_MAXIMA_MS, ESPERA_INICIAL_MS << Math.min(tentativa, 5));
+                espera = teto / 2 + ThreadLocalRandom.current().nextLong(teto / 2 + 1);
+                tentativa++;
+                metricas.registrarReconexao();
+                agendador.schedule(this::retomar, espera, TimeUnit.MILLISECONDS);
+            }
+            numero = tentativa;
+        }
+
+        if (espera < 0) {
+            ouvinte.aoEncerrar(causa);
+        } else {
+            ouvinte.aoReconectar(numero, espera, causa);
+            REGISTRO.despejar("queda do stream: " + causa.getMessage());
+        }
+    }
+
+    private void retomar() {
+        // O canal também espera entre tentativas de conexão; aqui queremos tentar já
+        channel.resetConnectBackoff();
+        abrirStream(GameMessage.newBuilder()
+                .setResume(ResumeSession.newBuilder()
+                        .setSessionId(sessionId)
+                        .setLastSeq(ultimoSeq.getAsInt()))
+                .build());
+    }
+
+    /** Observador de um stream; os eventos de streams substituídos são descartados. */
+    private final class Receptor implements ClientResponseObserver<GameMessage, GameMessage> {
+
+        @Override
+        public void beforeStart(ClientCallStreamObserver<GameMessage> requisicao) {
+            requisicao.setOnReadyHandler(() -> {
+                if (ehAtual(this)) drenar();
+            });
+        }
+
+        @Override
+        public void onNext(GameMessage message) {
+            if (!ehAtual(this)) return;
+            metricas.mensagemRecebida(message);
+            if (gravador != null) gravador.recebida(message);
+            if (message.getMessageCase() == GameMessage.MessageCase.RESUMED) {
+                synchronized (SessaoDeJogo.this) {
+                    tentativa = 0;
+                }
+                REGISTRO.info("Sessão retomada no lance " + message.getResumed().getSeq());
+                ouvinte.aoRetomar(message.getResumed().getSeq());
+                return;
+            }
+            ouvinte.aoReceber(message);
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            streamCaiu(this, t);
+        }
+
+        @Override
+        public void onCompleted() {
+            synchronized (SessaoDeJogo.this) {
+                if (!ehAtual(this)) return;
+                encerrada = true;
+                liberar();
+            }
+            ouvinte.aoEncerrar(null);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.checkers.client;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.BoardSnapshot;
+import com.checkers.grpc.GameMessage;
+import com.checkers.grpc.MoveSequence;
+import com.checkers.grpc.OpponentMove;
+import com.checkers.grpc.ResyncRequest;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+
+/**
+ * Mantém a {@link Posicao} local igual à do servidor a partir dos lances numerados
+ * ({@code OpponentMove.seq} e {@code MoveSequence.seq}) e dos {@code BoardSnapshot}s.
+ *
+ * Cada lance só é aplicado se for o próximo da sequência e se for um salto possível
+ * para a peça na casa de origem; lacuna ou lance inconsistente significam que o
+ * tabuleiro saiu de sincronia, e quem usa deve enviar {@link #pedidoDeResync()}.
+ * Até o snapshot chegar, os lances seguintes são ignorados: o servidor responde
+ * na ordem do stream, então o snapshot já inclui todos eles.
+ *
+ * Os saltos do próprio jogador podem ser aplicados antes da resposta do servidor
+ * ({@link #aplicarOtimista(int, int)}): o eco correspondente só os confirma, e uma
+ * recusa ou um eco diferente voltam à última posição confirmada.
+ *
+ * Os saltos confirmados formam o histórico da partida ({@link #copiarSaltos()}); um
+ * snapshot que pula lances deixa o histórico incompleto.
+ *
+ * Não é thread-safe: deve ser usado na mesma thread que lê a posição.
+ */
+public final class SincronizadorTabuleiro {
+
+    public enum Resultado {
+        /** Lance aplicado na posição (ou salto otimista confirmado). */
+        APLICADO,
+        /** Lance repetido ou já coberto pelo snapshot pendente. */
+        IGNORADO,
+        /** Lacuna na sequência ou lance que não cabe na posição local: pedir snapshot. */
+        FORA_DE_SINCRONIA
+    }
+
+    private final Posicao posicao;
+    // Saltos otimistas ainda sem eco, e a posição antes do primeiro deles
+    private final ArrayDeque<int[]> pendentes = new ArrayDeque<>();
+    private final Posicao confirmada = new Posicao();
+    private int seq;
+    private boolean aguardandoSnapshot;
+    private int ressincronizacoes;
+    // Saltos confirmados da partida, na ordem do servidor (Bitboard.salto)
+    private int[] saltos = new int[128];
+    private int numSaltos;
+    private boolean historicoCompleto;
+
+    public SincronizadorTabuleiro(Posicao posicao) {
+        this.posicao = posicao;
+        reiniciar();
+    }
+
+    /** Volta à posição inicial, antes do primeiro lance da partida. */
+    public void reiniciar() {
+        posicao.copiarDe(Posicao.inicial());
+        pendentes.clear();
+        seq = 0;
+        aguardandoSnapshot = false;
+        numSaltos = 0;
+        historicoCompleto = true;
+    }
+
+    public Posicao getPosicao() {
+        return posicao;
+    }
+
+    /** Número do último lance aplicado. */
+    public int getSeq() {
+        return seq;
+    }
+
+    public boolean isAguardandoSnapshot() {
+        return aguardandoSnapshot;
+    }
+
+    /** Quantas vezes a posição foi substituída por um snapshot após lacuna. */
+    public int getRessincronizacoes() {
+        return ressincronizacoes;
+    }
+
+    /** Saltos confirmados desde o início da partida, no formato de {@link Bitboard#salto(int, int)}. */
+    public int[] copiarSaltos() {
+        return Arrays.copyOf(saltos, numSaltos);
+    }
+
+    /** Falso se um snapshot substituiu lances que não chegaram a ser aplicados. */
+    public boolean isHistoricoCompleto() {
+        return historicoCompleto;
+    }
+
+    public Resultado aplicar(OpponentMove lance) {
+        return aplicarNumerado(lance.getSeq(),
+                Bitboard.indice(lance.getFromRow(), lance.getFromCol()),
+                Bitboard.indice(lance.getToRow(), lance.getToCol()));
+    }
+
+    /**
+     * Aplica o eco de um lance inteiro: o salto i tem o número {@code seq + i}.
+     * Saltos já conhecidos são pulados; o primeiro fora de sincronia interrompe.
+     */
+    public Resultado aplicar(MoveSequence sequencia) {
+        Resultado resultado = Resultado.IGNORADO;
+        for (int i = 0; i + 1 < sequencia.getPathCount(); i++) {
+            int seqDoSalto = sequencia.getSeq() == 0 ? 0 : sequencia.getSeq() + i;
+            Resultado r = aplicarNumerado(seqDoSalto, casa(sequencia.getPath(i)), casa(sequencia.getPath(i + 1)));
+            if (r == Resultado.FORA_DE_SINCRONIA) return r;
+            if (r == Resultado.APLICADO) resultado = r;
+        }
+        return resultado;
+    }
+
+    private static int casa(int indice) {
+        return indice >= 0 && indice < Bitboard.CASAS ? indice : -1;
+    }
+
+    private Resultado aplicarNumerado(int seqDoSalto, int origem, int destino) {
+        // Servidor antigo, sem numeração: aplica como antes
+        if (seqDoSalto == 0) {
+            if (confirmarPendente(origem, destino)) {
+                registrarSalto(origem, destino);
+                return Resultado.APLICADO;
+            }
+            if (origem >= 0 && destino >= 0) {
+                aplicarSalto(origem, destino);
+                registrarSalto(origem, destino);
+            }
+            return Resultado.APLICADO;
+        }
+
+        if (aguardandoSnapshot || seqDoSalto <= seq) {
+            return Resultado.IGNORADO;
+        }
+        if (seqDoSalto != seq + 1) {
+            return Resultado.FORA_DE_SINCRONIA;
+        }
+        if (confirmarPendente(origem, destino)) {
+            registrarSalto(origem, destino);
+            seq = seqDoSalto;
+            return Resultado.APLICADO;
+        }
+        if (!saltoPossivel(origem, destino)) {
+            return Resultado.FORA_DE_SINCRONIA;
+        }
+
+        aplicarSalto(origem, destino);
+        registrarSalto(origem, destino);
+        seq = seqDoSalto;
+        return Resultado.APLICADO;
+    }
+
+    private void registrarSalto(int origem, int destino) {
+        if (numSaltos == saltos.length) {
+            saltos = Arrays.copyOf(saltos, numSaltos * 2);
+        }
+        saltos[numSaltos++] = Bitboard.salto(origem, destino);
+    }
+
+    /** Substitui a posição local pelo estado do servidor. */
+    public void aplicar(BoardSnapshot snapshot) {
+        if (snapshot.getSeq() < seq && !aguardandoSnapshot) {
+            return;
+        }
+        posicao.copiarDe(posicaoDe(snapshot));
+        pendentes.clear();
+        if (snapshot.getSeq() != numSaltos) {
+            historicoCompleto = false;
+        }
+        seq = snapshot.getSeq();
+        if (aguardandoSnapshot) {
+            ressincronizacoes++;
+        }
+        aguardandoSnapshot = false;
+    }
+
+    /**
+     * Aplica um salto do próprio jogador sem esperar o servidor. Não valida: use
+     * {@link Posicao#saltoLegal(int, int)} antes.
+     */
+    public void aplicarOtimista(int origem, int destino) {
+        if (pendentes.isEmpty()) {
+            confirmada.copiarDe(posicao);
+        }
+        aplicarSalto(origem, destino);
+        pendentes.add(new int[]{origem, destino});
+    }
+
+    /**
+     * Desfaz os saltos otimistas (lance recusado pelo servidor).
+     *
+     * @return se havia algo a desfazer
+     */
+    public boolean desfazerOtimistas() {
+        if (pendentes.isEmpty()) return false;
+        posicao.copiarDe(confirmada);
+        pendentes.clear();
+        return true;
+    }
+
+    public boolean temPendentes() {
+        return !pendentes.isEmpty();
+    }
+
+    /**
+     * Se há saltos otimistas, o eco deve ser o mais antigo deles: nesse caso só o
+     * confirma. Qualquer outro lance desfaz os pendentes antes de ser aplicado.
+     */
+    private boolean confirmarPendente(int origem, int destino) {
+        int[] primeiro = pendentes.peek();
+        if (primeiro == null) return false;
+        if (primeiro[0] == origem && primeiro[1] == destino) {
+            pendentes.poll();
+            return true;
+        }
+        desfazerOtimistas();
+        return false;
+    }
+
+    /** Mensagem pedindo o estado completo; marca que os lances até ele chegar são descartados. */
+    public GameMessage pedidoDeResync() {
+        aguardandoSnapshot = true;
+        return GameMessage.newBuilder()
+                .setResync(ResyncRequest.newBuilder().setLastSeq(seq))
+                .build();
+    }
+
+    private boolean saltoPossivel(int origem, int destino) {
+        if (origem < 0 || destino < 0 || posicao.estaVazia(origem)) return false;
+        long alcancaveis = posicao.capturasDe(origem) | posicao.movimentosSimplesDe(origem);
+        return (alcancaveis & Bitboard.bit(destino)) != 0;
+    }
+
+    /**
+     * Aplica o salto e acompanha a vez como o servidor: depois de uma captura,
+     * a vez só passa se a peça não tiver outra captura a partir do destino.
+     */
+    private void aplicarSalto(int origem, int destino) {
+        posicao.aplicarSalto(origem, destino);
+    }
+
+    public static BoardSnapshot snapshot(Posicao posicao, int seq) {
+        return BoardSnapshot.newBuilder()
+                .setWhite((int) posicao.getBrancas())
+                .setBlack((int) posicao.getPretas())
+                .setKings((int) posicao.getDamas())
+                .setWhiteToMove(posicao.isVezDasBrancas())
+                .setSeq(seq)
+                .build();
+    }
+
+    public static Posicao posicaoDe(BoardSnapshot snapshot) {
+        return new Posicao(
+                Integer.toUnsignedLong(snapshot.getWhite()),
+                Integer.toUnsignedLong(snapshot.getBlack()),
+                Integer.toUnsignedLong(snapshot.getKings()),
+                snapshot.getWhiteToMove());
+    }
+}
@@ -0,0 +1,17 @@
+package com.checkers.diagnostico;
+
+/**
+ * Tipo de evento: sabe transformar os campos gravados no slot em texto.
+ *
+ * A formatação só acontece na thread de escrita (ou num despejo), então quem registra
+ * passa números e referências já existentes, sem montar strings. O objeto {@code o}
+ * deve ser imutável: ele é lido depois, em outra thread.
+ */
+@FunctionalInterface
+public interface Evento {
+
+    void formatar(StringBuilder sb, long a, long b, long c, Object o);
+
+    /** Texto livre, já montado por quem registrou (para eventos raros). */
+    Evento TEXTO = (sb, a, b, c, o) -> sb.append(o);
+}
@@ -0,0 +1,242 @@
+package com.checkers.diagnostico;
+
+import java.io.PrintStream;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Gravador assíncrono de eventos num buffer circular de slots pré-alocados.
+ *
+ * Quem registra só reserva um número de sequência, copia campos primitivos e
+ * referências para o slot e o publica; não formata nem toca no {@code System.out}.
+ * Uma thread de escrita consome os slots em ordem, formata e imprime os de nível
+ * igual ou acima do configurado. Se ela ficar para trás a ponto de encher o buffer,
+ * os eventos novos são descartados e contados, em vez de travar o jogo.
+ *
+ * Os eventos abaixo do nível de impressão também são gravados: os últimos
+ * {@code historico} eventos consumidos nunca são sobrescritos e são despejados, com
+ * horário e nível, quando um erro é registrado ou quando alguém pede
+ * ({@link #despejar(String)}), por exemplo numa desconexão.
+ *
+ * Configuração por propriedades de sistema: {@code damas.log.nivel} (padrão INFO),
+ * {@code damas.log.capacidade} (padrão 8192, arredondada para potência de dois) e
+ * {@code damas.log.historico} (padrão 256).
+ */
+public final class GravadorDeEventos {
+
+    private static final DateTimeFormatter HORA =
+            DateTimeFormatter.ofPattern("HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final long ESPERA_OCIOSA_NS = 1_000_000;
+
+    private static final GravadorDeEventos GLOBAL = new GravadorDeEventos(
+            nivelConfigurado(),
+            Integer.getInteger("damas.log.capacidade", 8192),
+            Integer.getInteger("damas.log.historico", 256),
+            System.out, System.err);
+
+    private static final class Slot {
+        volatile long publicado = -1;
+        long instante;
+        Nivel nivel;
+        String origem;
+        Evento evento;
+        long a;
+        long b;
+        long c;
+        Object o;
+        Throwable causa;
+    }
+
+    private final Slot[] slots;
+    private final int mascara;
+    private final int historico;
+    private final PrintStream saida;
+    private final PrintStream saidaErro;
+    private final AtomicLong cursor = new AtomicLong();
+    private final LongAdder descartados = new LongAdder();
+    private final Thread escritor;
+    private final StringBuilder linha = new StringBuilder(256);
+
+    private volatile Nivel nivel;
+    private volatile long consumido;
+    private volatile String despejoPedido;
+    private volatile boolean parar;
+
+    GravadorDeEventos(Nivel nivel, int capacidade, int historico, PrintStream saida, PrintStream saidaErro) {
+        int tamanho = Integer.highestOneBit(Math.max(capacidade, 2 * historico + 16) - 1) << 1;
+        this.slots = new Slot[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            slots[i] = new Slot();
+        }
+        this.mascara = tamanho - 1;
+        this.historico = historico;
+        this.nivel = nivel;
+        this.saida = saida;
+        this.saidaErro = saidaErro;
+
+        escritor = new Thread(this::escrever, "gravador-eventos");
+        escritor.setDaemon(true);
+        escritor.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::encerrar, "gravador-eventos-saida"));
+    }
+
+    public static GravadorDeEventos global() {
+        return GLOBAL;
+    }
+
+    private static Nivel nivelConfigurado() {
+        String nome = System.getProperty("damas.log.nivel", "INFO");
+        try {
+            return Nivel.valueOf(nome.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            System.err.println("[LOG] Nível desconhecido: " + nome + ", usando INFO");
+            return Nivel.INFO;
+        }
+    }
+
+    /** Nível a partir do qual os eventos são impressos (todos continuam gravados). */
+    public void setNivel(Nivel nivel) {
+        this.nivel = nivel;
+    }
+
+    public Nivel getNivel() {
+        return nivel;
+    }
+
+    /** Eventos perdidos porque o buffer estava cheio. */
+    public long getDescartados() {
+        return descartados.sum();
+    }
+
+    /**
+     * Grava um evento. Não bloqueia: com o buffer cheio o evento é descartado.
+     */
+    public void registrar(Nivel nivel, String origem, Evento evento, long a, long b, long c, Object o, Throwable causa) {
+        long limite = slots.length - historico;
+        long seq;
+        do {
+            seq = cursor.get();
+            if (seq - consumido >= limite) {
+                descartados.increment();
+                return;
+            }
+        } while (!cursor.compareAndSet(seq, seq + 1));
+
+        Slot slot = slots[(int) seq & mascara];
+        slot.instante = System.currentTimeMillis();
+        slot.nivel = nivel;
+        slot.origem = origem;
+        slot.evento = evento;
+        slot.a = a;
+        slot.b = b;
+        slot.c = c;
+        slot.o = o;
+        slot.causa = causa;
+        slot.publicado = seq;
+
+        if (nivel == Nivel.ERRO) {
+            despejar("erro em " + origem);
+        }
+    }
+
+    /**
+     * Pede que os últimos eventos gravados (de todos os níveis) sejam escritos no
+     * {@code System.err}; o despejo acontece na thread de escrita, depois de consumir o
+     * que já foi registrado.
+     */
+    public void despejar(String motivo) {
+        despejoPedido = motivo;
+        LockSupport.unpark(escritor);
+    }
+
+    private void escrever() {
+        while (true) {
+            if (consumirDisponiveis() == 0) {
+                String motivo = despejoPedido;
+                if (motivo != null) {
+                    despejoPedido = null;
+                    escreverDespejo(motivo);
+                }
+                saida.flush();
+                saidaErro.flush();
+                if (parar) return;
+                LockSupport.parkNanos(this, ESPERA_OCIOSA_NS);
+            }
+        }
+    }
+
+    /** Imprime os slots já publicados, em ordem; retorna quantos consumiu. */
+    private int consumirDisponiveis() {
+        int n = 0;
+        long seq = consumido;
+        while (true) {
+            Slot slot = slots[(int) seq & mascara];
+            if (slot.publicado != seq) {
+                if (seq < cursor.get()) {
+                    // Reservado mas ainda não publicado: o produtor está no meio da cópia
+                    Thread.onSpinWait();
+                    continue;
+                }
+                return n;
+            }
+            Nivel minimo = nivel;
+            if (slot.nivel.compareTo(minimo) >= 0) {
+                linha.setLength(0);
+                linha.append('[').append(slot.origem).append("] ");
+                formatar(slot);
+                (slot.nivel.compareTo(Nivel.AVISO) >= 0 ? saidaErro : saida).println(linha);
+                if (slot.causa != null && slot.nivel == Nivel.ERRO) {
+                    slot.causa.printStackTrace(saidaErro);
+                }
+            }
+            seq++;
+            consumido = seq;
+            n++;
+        }
+    }
+
+    private void formatar(Slot slot) {
+        try {
+            slot.evento.formatar(linha, slot.a, slot.b, slot.c, slot.o);
+        } catch (RuntimeException e) {
+            linha.append("<falha ao formatar: ").append(e).append('>');
+        }
+        if (slot.causa != null) {
+            linha.append(": ").append(slot.causa);
+        }
+    }
+
+    private void escreverDespejo(String motivo) {
+        long fim = consumido;
+        long inicio = Math.max(0, fim - historico);
+        saidaErro.println("======== Últimos " + (fim - inicio) + " eventos (" + motivo + ") ========");
+        for (long seq = inicio; seq < fim; seq++) {
+            Slot slot = slots[(int) seq & mascara];
+            linha.setLength(0);
+            linha.append(HORA.format(Instant.ofEpochMilli(slot.instante))).append(' ')
+                    .append(slot.nivel).append(" [").append(slot.origem).append("] ");
+            formatar(slot);
+            saidaErro.println(linha);
+        }
+        long perdidos = descartados.sum();
+        if (perdidos > 0) {
+            saidaErro.println("(" + perdidos + " eventos descartados com o buffer cheio)");
+        }
+        saidaErro.println("========================================");
+    }
+
+    /** Espera a thread de escrita esvaziar o buffer (chamado na saída da JVM). */
+    private void encerrar() {
+        parar = true;
+        LockSupport.unpark(escritor);
+        try {
+            escritor.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.checkers.diagnostico;
+
+/** Gravidade de um evento, da mais detalhada para a mais grave. */
+public enum Nivel {
+    DEPURACAO,
+    INFO,
+    AVISO,
+    ERRO
+}
@@ -0,0 +1,57 @@
+package com.checkers.diagnostico;
+
+/**
+ * Ponto de registro de um componente, com o prefixo que aparece na saída
+ * ({@code [CLIENTE]}, {@code [BOT]}...). Escreve no {@link GravadorDeEventos#global()}.
+ *
+ * Nos caminhos frequentes use os métodos com {@link Evento} e campos numéricos, que
+ * não alocam; os de texto livre são para eventos raros.
+ */
+public final class Registro {
+
+    private final String origem;
+    private final GravadorDeEventos gravador;
+
+    private Registro(String origem, GravadorDeEventos gravador) {
+        this.origem = origem;
+        this.gravador = gravador;
+    }
+
+    public static Registro de(String origem) {
+        return new Registro(origem, GravadorDeEventos.global());
+    }
+
+    public void registrar(Nivel nivel, Evento evento, long a, long b, long c, Object o) {
+        gravador.registrar(nivel, origem, evento, a, b, c, o, null);
+    }
+
+    public void registrar(Nivel nivel, Evento evento, long a, long b) {
+        gravador.registrar(nivel, origem, evento, a, b, 0, null, null);
+    }
+
+    public void registrar(Nivel nivel, Evento evento, Object o) {
+        gravador.registrar(nivel, origem, evento, 0, 0, 0, o, null);
+    }
+
+    public void depuracao(String texto) {
+        gravador.registrar(Nivel.DEPURACAO, origem, Evento.TEXTO, 0, 0, 0, texto, null);
+    }
+
+    public void info(String texto) {
+        gravador.registrar(Nivel.INFO, origem, Evento.TEXTO, 0, 0, 0, texto, null);
+    }
+
+    public void aviso(String texto) {
+        gravador.registrar(Nivel.AVISO, origem, Evento.TEXTO, 0, 0, 0, texto, null);
+    }
+
+    /** Registra o erro e despeja os últimos eventos; {@code causa} pode ser nula. */
+    public void erro(String texto, Throwable causa) {
+        gravador.registrar(Nivel.ERRO, origem, Evento.TEXTO, 0, 0, 0, texto, causa);
+    }
+
+    /** Despeja os últimos eventos sem registrar um erro (por exemplo numa desconexão). */
+    public void despejar(String motivo) {
+        gravador.despejar("[" + origem + "] " + motivo);
+    }
+}
@@ -0,0 +1,179 @@
+package com.checkers.engine;
+
+import com.checkers.diagnostico.Registro;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * Avaliação estática linear: soma ponderada de características da posição,
+ * todas calculadas como (brancas - pretas) com contagem de bits.
+ *
+ * Os pesos podem vir de um arquivo de texto com uma linha {@code nome=valor} por
+ * característica ({@link #ler(Path)}), como o gravado pelo {@code AjusteDePesos}. Com
+ * {@code damas.avaliacao.pesos}, {@link #padrao()} usa os pesos desse arquivo.
+ */
+public final class Avaliacao {
+
+    /** Índices das características (e dos pesos). */
+    public static final int SIMPLES = 0;
+    public static final int DAMA = 1;
+    public static final int GUARDA = 2;
+    public static final int CENTRO = 3;
+    public static final int AVANCO = 4;
+    public static final int NUM_CARACTERISTICAS = 5;
+
+    public static final String[] NOMES = {"simples", "dama", "guarda", "centro", "avanco"};
+
+    /** Casas centrais: colunas 2-5 das linhas 3 e 4. */
+    static final long CENTRO_TABULEIRO = 0x00066000L;
+
+    /** Pesos de {@link #padrao()} sem arquivo de pesos. */
+    public static final int[] PESOS_INICIAIS = {100, 300, 8, 6, 2};
+
+    private static final Registro REGISTRO = Registro.de("AVALIACAO");
+    private static final Avaliacao PADRAO = carregarPadrao();
+
+    private final int[] pesos;
+
+    public Avaliacao(int[] pesos) {
+        if (pesos.length != NUM_CARACTERISTICAS) {
+            throw new IllegalArgumentException("Esperados " + NUM_CARACTERISTICAS + " pesos");
+        }
+        this.pesos = pesos.clone();
+    }
+
+    /** Pesos de {@code damas.avaliacao.pesos}, ou {@link #PESOS_INICIAIS} sem ele (ou se não der para ler). */
+    public static Avaliacao padrao() {
+        return PADRAO;
+    }
+
+    private static Avaliacao carregarPadrao() {
+        String arquivo = System.getProperty("damas.avaliacao.pesos");
+        if (arquivo != null) {
+            try {
+                Avaliacao avaliacao = ler(Paths.get(arquivo));
+                REGISTRO.info("Pesos da avaliação de " + arquivo + ": " + Arrays.toString(avaliacao.pesos));
+                return avaliacao;
+            } catch (IOException e) {
+                REGISTRO.aviso("Pesos de " + arquivo + " ignorados: " + e.getMessage());
+            }
+        }
+        return new Avaliacao(PESOS_INICIAIS);
+    }
+
+    /** Lê um arquivo de pesos; todas as características de {@link #NOMES} são obrigatórias. */
+    public static Avaliacao ler(Path arquivo) throws IOException {
+        Properties propriedades = new Properties();
+        try (Reader leitor = Files.newBufferedReader(arquivo, StandardCharsets.UTF_8)) {
+            propriedades.load(leitor);
+        }
+        int[] pesos = new int[NUM_CARACTERISTICAS];
+        for (int i = 0; i < NUM_CARACTERISTICAS; i++) {
+            String valor = propriedades.getProperty(NOMES[i]);
+            if (valor == null) throw new IOException("Peso ausente: " + NOMES[i]);
+            try {
+                pesos[i] = Integer.parseInt(valor.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Peso inválido: " + NOMES[i] + "=" + valor);
+            }
+        }
+        return new Avaliacao(pesos);
+    }
+
+    /**
+     * Grava os pesos em {@code destino} (montado ao lado e movido no fim), no formato
+     * de {@link #ler(Path)}.
+     *
+     * @param comentario linhas gravadas como comentário no início, ou nulo
+     */
+    public void gravar(Path destino, String comentario) throws IOException {
+        Path temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), "pesos", ".tmp");
+        try {
+            try (BufferedWriter saida = Files.newBufferedWriter(temporario, StandardCharsets.UTF_8)) {
+                if (comentario != null) {
+                    for (String linha : comentario.split("\n")) {
+                        saida.write("# " + linha);
+                        saida.newLine();
+                    }
+                }
+                for (int i = 0; i < NUM_CARACTERISTICAS; i++) {
+                    saida.write(NOMES[i] + "=" + pesos[i]);
+                    saida.newLine();
+                }
+            }
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    public int[] getPesos() {
+        return pesos.clone();
+    }
+
+    /** Pontuação do ponto de vista de quem tem a vez. */
+    public int avaliar(Posicao posicao) {
+        long brancas = posicao.getBrancas();
+        long pretas = posicao.getPretas();
+        long damas = posicao.getDamas();
+
+        int total = pesos[SIMPLES] * (Long.bitCount(brancas & ~damas) - Long.bitCount(pretas & ~damas))
+                + pesos[DAMA] * (Long.bitCount(brancas & damas) - Long.bitCount(pretas & damas))
+                + pesos[GUARDA] * guarda(brancas, pretas, damas)
+                + pesos[CENTRO] * centro(brancas, pretas)
+                + pesos[AVANCO] * avanco(brancas, pretas, damas);
+        return posicao.isVezDasBrancas() ? total : -total;
+    }
+
+    /**
+     * Preenche {@code saida} com as características (brancas - pretas), na ordem dos pesos.
+     * A avaliação é o produto escalar delas com os pesos.
+     */
+    public static void caracteristicas(Posicao posicao, int[] saida) {
+        long brancas = posicao.getBrancas();
+        long pretas = posicao.getPretas();
+        long damas = posicao.getDamas();
+        saida[SIMPLES] = Long.bitCount(brancas & ~damas) - Long.bitCount(pretas & ~damas);
+        saida[DAMA] = Long.bitCount(brancas & damas) - Long.bitCount(pretas & damas);
+        saida[GUARDA] = guarda(brancas, pretas, damas);
+        saida[CENTRO] = centro(brancas, pretas);
+        saida[AVANCO] = avanco(brancas, pretas, damas);
+    }
+
+    /** Peças simples que ainda guardam a própria última linha (impedem a promoção adversária). */
+    private static int guarda(long brancas, long pretas, long damas) {
+        return Long.bitCount(brancas & ~damas & Bitboard.LINHA_7)
+                - Long.bitCount(pretas & ~damas & Bitboard.LINHA_0);
+    }
+
+    private static int centro(long brancas, long pretas) {
+        return Long.bitCount(brancas & CENTRO_TABULEIRO) - Long.bitCount(pretas & CENTRO_TABULEIRO);
+    }
+
+    /** Soma de quantas linhas cada peça simples já avançou. */
+    private static int avanco(long brancas, long pretas, long damas) {
+        long simplesBrancas = brancas & ~damas;
+        long simplesPretas = pretas & ~damas;
+        int total = 0;
+        for (int linha = 0; linha < 8; linha++) {
+            long mascara = Bitboard.LINHA_0 << (4 * linha);
+            total += (7 - linha) * Long.bitCount(simplesBrancas & mascara);
+            total -= linha * Long.bitCount(simplesPretas & mascara);
+        }
+        return total;
+    }
+
+    @Override
+    public String toString() {
+        return "Avaliacao" + Arrays.toString(pesos);
+    }
+}
@@ -0,0 +1,134 @@
+package com.checkers.engine;
+
+/**
+ * Operações de bitboard sobre as 32 casas escuras do tabuleiro.
+ *
+ * A casa de índice {@code i} fica na linha {@code i / 4}; nas linhas pares as
+ * casas escuras são as colunas 1, 3, 5, 7 e nas ímpares as colunas 0, 2, 4, 6.
+ * Os bitboards usam apenas os 32 bits baixos de um {@code long}.
+ */
+public final class Bitboard {
+
+    public static final int CASAS = 32;
+    public static final long TODAS = 0xFFFFFFFFL;
+
+    /** Direções diagonais. "Cima" é em direção à linha 0 (sentido de avanço das brancas). */
+    public static final int CIMA_ESQ = 0;
+    public static final int CIMA_DIR = 1;
+    public static final int BAIXO_ESQ = 2;
+    public static final int BAIXO_DIR = 3;
+
+    static final long LINHAS_PARES = 0x0F0F0F0FL;
+    static final long LINHAS_IMPARES = 0xF0F0F0F0L;
+    /** Casas da coluna 7 (linhas pares) e da coluna 0 (linhas ímpares). */
+    static final long COLUNA_7 = 0x08080808L;
+    static final long COLUNA_0 = 0x10101010L;
+
+    /** Linha 0 (promoção das brancas) e linha 7 (promoção das pretas). */
+    public static final long LINHA_0 = 0x0000000FL;
+    public static final long LINHA_7 = 0xF0000000L;
+
+    /** Raios diagonais pré-calculados: RAIOS[casa][direcao] em ordem de distância. */
+    private static final int[][][] RAIOS = new int[CASAS][4][];
+
+    static {
+        int[] dLinha = {-1, -1, 1, 1};
+        int[] dColuna = {-1, 1, -1, 1};
+        int[] buffer = new int[8];
+        for (int casa = 0; casa < CASAS; casa++) {
+            for (int d = 0; d < 4; d++) {
+                int n = 0;
+                int r = linha(casa) + dLinha[d];
+                int c = coluna(casa) + dColuna[d];
+                while (r >= 0 && r < 8 && c >= 0 && c < 8) {
+                    buffer[n++] = indice(r, c);
+                    r += dLinha[d];
+                    c += dColuna[d];
+                }
+                int[] raio = new int[n];
+                System.arraycopy(buffer, 0, raio, 0, n);
+                RAIOS[casa][d] = raio;
+            }
+        }
+    }
+
+    private Bitboard() {
+    }
+
+    /**
+     * Converte (linha, coluna) no índice da casa, ou -1 se for casa clara ou fora do tabuleiro.
+     */
+    public static int indice(int linha, int coluna) {
+        if (linha < 0 || linha >= 8 || coluna < 0 || coluna >= 8 || ((linha + coluna) & 1) == 0) {
+            return -1;
+        }
+        return linha * 4 + (coluna >> 1);
+    }
+
+    public static int linha(int casa) {
+        return casa >> 2;
+    }
+
+    public static int coluna(int casa) {
+        return ((casa & 3) << 1) + (linha(casa) % 2 == 0 ? 1 : 0);
+    }
+
+    public static long bit(int casa) {
+        return 1L << casa;
+    }
+
+    /** Um salto em 10 bits ({@code origem << 5 | destino}), como nos históricos e no arquivo de partidas. */
+    public static int salto(int origem, int destino) {
+        return origem << 5 | destino;
+    }
+
+    public static int origemDoSalto(int salto) {
+        return salto >>> 5 & 31;
+    }
+
+    public static int destinoDoSalto(int salto) {
+        return salto & 31;
+    }
+
+    /** Casas vizinhas na direção indicada, para cada bit de {@code b}. */
+    public static long deslocar(long b, int direcao) {
+        switch (direcao) {
+            case CIMA_ESQ:
+                return ((b & LINHAS_PARES) >>> 4) | ((b & LINHAS_IMPARES & ~COLUNA_0) >>> 5);
+            case CIMA_DIR:
+                return ((b & LINHAS_PARES & ~COLUNA_7) >>> 3) | ((b & LINHAS_IMPARES) >>> 4);
+            case BAIXO_ESQ:
+                return (((b & LINHAS_PARES) << 4) | ((b & LINHAS_IMPARES & ~COLUNA_0) << 3)) & TODAS;
+            default:
+                return (((b & LINHAS_PARES & ~COLUNA_7) << 5) | ((b & LINHAS_IMPARES) << 4)) & TODAS;
+        }
+    }
+
+    /** Direção oposta (cima/baixo e esquerda/direita invertidos). */
+    public static int oposta(int direcao) {
+        return 3 - direcao;
+    }
+
+    /** Raio diagonal a partir da casa, sem incluí-la. O array é compartilhado: não altere. */
+    static int[] raio(int casa, int direcao) {
+        return RAIOS[casa][direcao];
+    }
+
+    /**
+     * Máscara das casas estritamente entre {@code origem} e {@code destino},
+     * ou 0 se elas não estiverem na mesma diagonal.
+     */
+    public static long entre(int origem, int destino) {
+        for (int d = 0; d < 4; d++) {
+            int[] raio = RAIOS[origem][d];
+            long mascara = 0L;
+            for (int casa : raio) {
+                if (casa == destino) {
+                    return mascara;
+                }
+                mascara |= bit(casa);
+            }
+        }
+        return 0L;
+    }
+}
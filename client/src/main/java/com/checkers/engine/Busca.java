@@ -0,0 +1,378 @@
+package com.checkers.engine;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Busca alfa-beta com aprofundamento iterativo, paralelizada no estilo Lazy SMP:
+ * todas as threads buscam a mesma raiz e só se comunicam pela
+ * {@link TabelaTransposicao} compartilhada. As threads auxiliares começam em
+ * profundidades alternadas e com ordem de lances deslocada para divergir da principal.
+ * O resultado é sempre o da thread principal.
+ *
+ * Com uma {@link SondaDeFinais} ({@link #setFinais}), posições com poucas peças são
+ * resolvidas pelas tabelas sem descer a árvore. Se a própria raiz está nas tabelas, a
+ * busca só considera os lances que mantêm o resultado dela e não consulta as tabelas
+ * abaixo: assim ainda enxerga o fim concreto e usa a avaliação para progredir.
+ */
+public final class Busca implements AutoCloseable {
+
+    public static final int VITORIA = 30000;
+    public static final int INFINITO = 32000;
+    public static final int PROFUNDIDADE_MAXIMA = 64;
+
+    /** Pontuações acima disso indicam vitória/derrota forçada. */
+    static final int LIMITE_VITORIA = VITORIA - 1000;
+
+    /**
+     * Base da vitória vinda das tabelas de finais, somada à avaliação: as tabelas não dão
+     * a distância até o fim, então a avaliação é quem faz a partida progredir.
+     */
+    public static final int VITORIA_FINAIS = 20000;
+
+    private final TabelaTransposicao tabela;
+    private final Avaliacao avaliacao;
+    private final int numThreads;
+    private final ExecutorService auxiliares;
+    private volatile SondaDeFinais finais;
+
+    public Busca(TabelaTransposicao tabela, Avaliacao avaliacao, int numThreads) {
+        this.tabela = tabela;
+        this.avaliacao = avaliacao;
+        this.numThreads = Math.max(1, numThreads);
+        this.auxiliares = this.numThreads > 1
+                ? Executors.newFixedThreadPool(this.numThreads - 1, r -> {
+                    Thread t = new Thread(r, "busca-auxiliar");
+                    t.setDaemon(true);
+                    return t;
+                })
+                : null;
+    }
+
+    /** Busca com todos os núcleos, tabela de 2^22 entradas e avaliação padrão. */
+    public static Busca paraTodosOsNucleos() {
+        return new Busca(new TabelaTransposicao(22), Avaliacao.padrao(),
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public TabelaTransposicao getTabela() {
+        return tabela;
+    }
+
+    /** Tabelas de finais consultadas durante a busca; {@code null} desliga. */
+    public void setFinais(SondaDeFinais finais) {
+        this.finais = finais;
+    }
+
+    /**
+     * Procura o melhor lance para quem tem a vez.
+     *
+     * @param tempoMs       orçamento de tempo para o lance
+     * @param profundidade  profundidade máxima (nominal) do aprofundamento iterativo
+     * @return resultado, com lance {@code null} se não houver lances legais
+     */
+    public Resultado buscar(Posicao raiz, long tempoMs, int profundidade) {
+        long inicio = System.nanoTime();
+        long prazo = inicio + tempoMs * 1_000_000L;
+        int profundidadeMaxima = Math.min(profundidade, PROFUNDIDADE_MAXIMA - 1);
+
+        ListaMovimentos lances = new ListaMovimentos();
+        int n = GeradorMovimentos.gerar(raiz, lances);
+        if (n == 0) {
+            return new Resultado(null, -VITORIA, 0, 0, System.nanoTime() - inicio);
+        }
+        if (n == 1) {
+            return new Resultado(lances.lance(0), 0, 0, 0, System.nanoTime() - inicio);
+        }
+
+        SondaDeFinais finais = this.finais;
+        int resultadoRaiz = SondaDeFinais.DESCONHECIDO;
+        if (finais != null && Long.bitCount(raiz.ocupadas()) <= finais.getMaxPecas()) {
+            resultadoRaiz = finais.sondar(raiz);
+        }
+
+        AtomicBoolean parar = new AtomicBoolean(false);
+        List<Future<?>> futuros = new ArrayList<>();
+        List<Trabalhador> trabalhadores = new ArrayList<>();
+        for (int id = 1; id < numThreads; id++) {
+            Trabalhador t = new Trabalhador(id, raiz, inicio, prazo, parar, finais, resultadoRaiz);
+            trabalhadores.add(t);
+            futuros.add(auxiliares.submit(() -> t.aprofundar(profundidadeMaxima)));
+        }
+
+        Trabalhador principal = new Trabalhador(0, raiz, inicio, prazo, parar, finais, resultadoRaiz);
+        principal.aprofundar(profundidadeMaxima);
+        parar.set(true);
+
+        long nos = principal.nos;
+        for (int i = 0; i < futuros.size(); i++) {
+            try {
+                futuros.get(i).get();
+            } catch (Exception e) {
+                throw new IllegalStateException("Falha numa thread auxiliar da busca", e);
+            }
+            nos += trabalhadores.get(i).nos;
+        }
+
+        Lance melhor = principal.melhor != null ? principal.melhor : lances.lance(0);
+        return new Resultado(melhor, principal.melhorPontuacao, principal.profundidadeCompleta,
+                nos, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Variante principal lida da tabela: o lance dado e, depois dele, o melhor lance
+     * guardado para cada posição, enquanto houver um e ele for legal. Para numa posição
+     * repetida ou com {@code maximo} lances. Com a tabela compartilhada por outras buscas
+     * a variante pode misturar linhas, mas cada lance é legal na sua posição.
+     */
+    public List<Lance> variantePrincipal(Posicao raiz, Lance primeiro, int maximo) {
+        List<Lance> variante = new ArrayList<>();
+        Posicao posicao = new Posicao(raiz);
+        ListaMovimentos lista = new ListaMovimentos();
+        Set<Long> vistas = new HashSet<>();
+        Lance lance = primeiro;
+        while (lance != null && variante.size() < maximo && vistas.add(posicao.getHash())) {
+            variante.add(lance);
+            posicao.jogar(lance);
+            long dado = tabela.sondar(posicao.getHash());
+            lance = null;
+            if (TabelaTransposicao.temLance(dado)) {
+                GeradorMovimentos.gerar(posicao, lista);
+                int i = indiceDoLance(lista, TabelaTransposicao.origem(dado), TabelaTransposicao.destino(dado));
+                if (i >= 0) lance = lista.lance(i);
+            }
+        }
+        return variante;
+    }
+
+    @Override
+    public void close() {
+        if (auxiliares != null) {
+            auxiliares.shutdownNow();
+        }
+    }
+
+    /** Resultado de uma busca. */
+    public static final class Resultado {
+        private final Lance lance;
+        private final int pontuacao;
+        private final int profundidade;
+        private final long nos;
+        private final long tempoNs;
+
+        Resultado(Lance lance, int pontuacao, int profundidade, long nos, long tempoNs) {
+            this.lance = lance;
+            this.pontuacao = pontuacao;
+            this.profundidade = profundidade;
+            this.nos = nos;
+            this.tempoNs = tempoNs;
+        }
+
+        public Lance getLance() {
+            return lance;
+        }
+
+        public int getPontuacao() {
+            return pontuacao;
+        }
+
+        public int getProfundidade() {
+            return profundidade;
+        }
+
+        public long getNos() {
+            return nos;
+        }
+
+        public long getTempoNs() {
+            return tempoNs;
+        }
+
+        public long nosPorSegundo() {
+            return tempoNs > 0 ? nos * 1_000_000_000L / tempoNs : 0;
+        }
+
+        @Override
+        public String toString() {
+            return lance + " pontuação=" + pontuacao + " profundidade=" + profundidade
+                    + " nós=" + nos + " nps=" + nosPorSegundo();
+        }
+    }
+
+    /** Estado de uma thread de busca: pilhas de posições e listas pré-alocadas. */
+    private final class Trabalhador {
+        private final int id;
+        private final long inicio;
+        private final long prazo;
+        private final AtomicBoolean parar;
+        private final SondaDeFinais finais;
+        /** Resultado da raiz pelas tabelas; fora delas, {@link SondaDeFinais#DESCONHECIDO}. */
+        private final int resultadoRaiz;
+        /** Consultada abaixo da raiz; nula se a raiz já está nas tabelas. */
+        private final SondaDeFinais sondaAbaixo;
+        private final Posicao[] posicoes = new Posicao[PROFUNDIDADE_MAXIMA + 1];
+        private final ListaMovimentos[] listas = new ListaMovimentos[PROFUNDIDADE_MAXIMA + 1];
+
+        private long nos;
+        private Lance melhor;
+        private Lance melhorDaIteracao;
+        private int melhorPontuacao;
+        private int profundidadeCompleta;
+
+        Trabalhador(int id, Posicao raiz, long inicio, long prazo, AtomicBoolean parar,
+                    SondaDeFinais finais, int resultadoRaiz) {
+            this.id = id;
+            this.inicio = inicio;
+            this.prazo = prazo;
+            this.parar = parar;
+            this.finais = finais;
+            this.resultadoRaiz = resultadoRaiz;
+            this.sondaAbaixo = resultadoRaiz == SondaDeFinais.DESCONHECIDO ? finais : null;
+            for (int i = 0; i <= PROFUNDIDADE_MAXIMA; i++) {
+                posicoes[i] = new Posicao();
+                listas[i] = new ListaMovimentos();
+            }
+            posicoes[0].copiarDe(raiz);
+        }
+
+        void aprofundar(int profundidadeMaxima) {
+            // Auxiliares ímpares começam uma profundidade à frente
+            int inicial = 1 + (id & 1);
+            for (int p = inicial; p <= profundidadeMaxima && !parar.get(); p++) {
+                int pontuacao = buscar(0, p, -INFINITO, INFINITO);
+                if (parar.get()) break;
+
+                melhorPontuacao = pontuacao;
+                profundidadeCompleta = p;
+                melhor = melhorDaIteracao;
+                if (Math.abs(pontuacao) > LIMITE_VITORIA) break;
+
+                // Não começa uma iteração que provavelmente não termina a tempo
+                if (id == 0 && System.nanoTime() - inicio > (prazo - inicio) / 2) break;
+            }
+        }
+
+        private int buscar(int ply, int profundidade, int alfa, int beta) {
+            if ((++nos & 1023) == 0 && System.nanoTime() > prazo) {
+                parar.set(true);
+            }
+            if (parar.get()) return 0;
+
+            Posicao posicao = posicoes[ply];
+            ListaMovimentos lista = listas[ply];
+            int n = GeradorMovimentos.gerar(posicao, lista);
+            if (n == 0) return -VITORIA + ply;
+
+            if (ply > 0 && sondaAbaixo != null && Long.bitCount(posicao.ocupadas()) <= sondaAbaixo.getMaxPecas()) {
+                int resultado = sondaAbaixo.sondar(posicao);
+                if (resultado != SondaDeFinais.DESCONHECIDO) {
+                    return pontuacaoDeFinal(resultado, posicao);
+                }
+            }
+
+            // Capturas pendentes estendem a busca (captura obrigatória já é uma quiescência)
+            if ((profundidade <= 0 && !lista.ehCaptura(0)) || ply >= PROFUNDIDADE_MAXIMA - 1) {
+                return avaliacao.avaliar(posicao);
+            }
+
+            int alfaOriginal = alfa;
+            long hash = posicao.getHash();
+            long dado = tabela.sondar(hash);
+            if (dado != TabelaTransposicao.AUSENTE) {
+                if (ply > 0 && TabelaTransposicao.profundidade(dado) >= Math.max(profundidade, 0)) {
+                    int valor = deTabela(TabelaTransposicao.pontuacao(dado), ply);
+                    int tipo = TabelaTransposicao.tipo(dado);
+                    if (tipo == TabelaTransposicao.EXATO) return valor;
+                    if (tipo == TabelaTransposicao.INFERIOR && valor >= beta) return valor;
+                    if (tipo == TabelaTransposicao.SUPERIOR && valor <= alfa) return valor;
+                }
+                if (TabelaTransposicao.temLance(dado)) {
+                    int i = indiceDoLance(lista, TabelaTransposicao.origem(dado), TabelaTransposicao.destino(dado));
+                    if (i > 0) lista.trocar(0, i);
+                }
+            }
+
+            int melhorValor = -INFINITO;
+            int melhorIndice = 0;
+            int deslocamento = ply == 0 ? 0 : id;
+            Posicao filha = posicoes[ply + 1];
+            for (int k = 0; k < n; k++) {
+                // O primeiro lance (da tabela) é sempre o primeiro; o resto é rotacionado por thread
+                int i = k == 0 ? 0 : 1 + (k - 1 + deslocamento) % (n - 1);
+                filha.copiarDe(posicao);
+                filha.jogar(lista, i);
+                if (ply == 0 && resultadoRaiz != SondaDeFinais.DESCONHECIDO && !mantemResultado(filha)) {
+                    continue;
+                }
+                int valor = -buscar(ply + 1, profundidade - 1, -beta, -alfa);
+                if (parar.get()) return 0;
+
+                if (valor > melhorValor) {
+                    melhorValor = valor;
+                    melhorIndice = i;
+                }
+                if (valor > alfa) alfa = valor;
+                if (alfa >= beta) break;
+            }
+
+            if (ply == 0) melhorDaIteracao = lista.lance(melhorIndice);
+
+            int tipo = melhorValor <= alfaOriginal ? TabelaTransposicao.SUPERIOR
+                    : melhorValor >= beta ? TabelaTransposicao.INFERIOR
+                    : TabelaTransposicao.EXATO;
+            tabela.gravar(hash, Math.max(profundidade, 0), paraTabela(melhorValor, ply), tipo,
+                    lista.origem(melhorIndice), lista.destino(melhorIndice));
+            return melhorValor;
+        }
+
+        /** Se o lance da raiz que levou a {@code filha} mantém o resultado das tabelas. */
+        private boolean mantemResultado(Posicao filha) {
+            int daFilha = finais.sondar(filha);
+            switch (resultadoRaiz) {
+                case SondaDeFinais.VITORIA:
+                    return daFilha == SondaDeFinais.DERROTA;
+                case SondaDeFinais.EMPATE:
+                    return daFilha == SondaDeFinais.EMPATE;
+                default:
+                    return true;
+            }
+        }
+    }
+
+    private int pontuacaoDeFinal(int resultado, Posicao posicao) {
+        switch (resultado) {
+            case SondaDeFinais.VITORIA:
+                return VITORIA_FINAIS + Math.max(0, avaliacao.avaliar(posicao));
+            case SondaDeFinais.DERROTA:
+                return -VITORIA_FINAIS + Math.min(0, avaliacao.avaliar(posicao));
+            default:
+                return 0;
+        }
+    }
+
+    private static int indiceDoLance(ListaMovimentos lista, int origem, int destino) {
+        for (int i = 0; i < lista.tamanho(); i++) {
+            if (lista.origem(i) == origem && lista.destino(i) == destino) return i;
+        }
+        return -1;
+    }
+
+    /** Pontuações de vitória são guardadas relativas ao nó, não à raiz. */
+    static int paraTabela(int pontuacao, int ply) {
+        if (pontuacao > LIMITE_VITORIA) return pontuacao + ply;
+        if (pontuacao < -LIMITE_VITORIA) return pontuacao - ply;
+        return pontuacao;
+    }
+
+    static int deTabela(int pontuacao, int ply) {
+        if (pontuacao > LIMITE_VITORIA) return pontuacao - ply;
+        if (pontuacao < -LIMITE_VITORIA) return pontuacao + ply;
+        return pontuacao;
+    }
+}
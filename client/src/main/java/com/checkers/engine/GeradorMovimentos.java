@@ -0,0 +1,132 @@
+package com.checkers.engine;
+
+/**
+ * Gerador de lances legais completos para a peça da vez.
+ *
+ * Regras (as mesmas de {@code GameState.executeMove} no servidor):
+ * <ul>
+ *   <li>captura é obrigatória, mas não é obrigatório escolher a maior;</li>
+ *   <li>a peça que capturou continua saltando enquanto puder capturar;</li>
+ *   <li>a peça capturada sai do tabuleiro no próprio salto;</li>
+ *   <li>peça simples que chega à última linha vira dama na hora, inclusive no
+ *       meio de uma captura múltipla, e continua capturando como dama.</li>
+ * </ul>
+ * A geração não aloca nada além do crescimento eventual da {@link ListaMovimentos}.
+ */
+public final class GeradorMovimentos {
+
+    private GeradorMovimentos() {
+    }
+
+    /**
+     * Preenche a lista com todos os lances legais da posição.
+     *
+     * @return número de lances gerados (0 significa que o lado da vez perdeu)
+     */
+    public static int gerar(Posicao posicao, ListaMovimentos lista) {
+        lista.limpar();
+        boolean ehBranca = posicao.isVezDasBrancas();
+        long comCaptura = posicao.pecasComCaptura(ehBranca);
+        if (comCaptura != 0) {
+            gerarCapturas(posicao, comCaptura, lista);
+        } else {
+            gerarSimples(posicao, lista);
+        }
+        return lista.tamanho();
+    }
+
+    /** Gera apenas as capturas (lista vazia se não houver nenhuma). */
+    public static int gerarCapturas(Posicao posicao, ListaMovimentos lista) {
+        lista.limpar();
+        long comCaptura = posicao.pecasComCaptura(posicao.isVezDasBrancas());
+        if (comCaptura != 0) {
+            gerarCapturas(posicao, comCaptura, lista);
+        }
+        return lista.tamanho();
+    }
+
+    private static void gerarSimples(Posicao posicao, ListaMovimentos lista) {
+        boolean ehBranca = posicao.isVezDasBrancas();
+        long linhaPromocao = ehBranca ? Bitboard.LINHA_0 : Bitboard.LINHA_7;
+        long pecas = posicao.pecasComMovimentoSimples(ehBranca);
+        while (pecas != 0) {
+            int origem = Long.numberOfTrailingZeros(pecas);
+            pecas &= pecas - 1;
+            boolean ehDama = posicao.ehDama(origem);
+            long destinos = posicao.movimentosSimplesDe(origem);
+            while (destinos != 0) {
+                int destino = Long.numberOfTrailingZeros(destinos);
+                destinos &= destinos - 1;
+                boolean promove = !ehDama && (Bitboard.bit(destino) & linhaPromocao) != 0;
+                lista.adicionarSimples(origem, destino, promove);
+            }
+        }
+    }
+
+    private static void gerarCapturas(Posicao posicao, long pecas, ListaMovimentos lista) {
+        boolean ehBranca = posicao.isVezDasBrancas();
+        long inimigas = posicao.pecasDe(!ehBranca);
+        while (pecas != 0) {
+            int origem = Long.numberOfTrailingZeros(pecas);
+            pecas &= pecas - 1;
+            // A peça que se move sai da origem: ela pode pousar de volta lá num salto posterior
+            long ocupadas = posicao.ocupadas() & ~Bitboard.bit(origem);
+            saltar(lista, origem, origem, posicao.ehDama(origem), ehBranca,
+                    ocupadas, inimigas, 0L, false, 0);
+        }
+    }
+
+    /**
+     * Busca em profundidade dos saltos a partir de {@code casa}. Registra um lance
+     * em cada ponto onde a sequência não pode mais continuar.
+     *
+     * @return se houve ao menos um salto a partir de {@code casa}
+     */
+    private static boolean saltar(ListaMovimentos lista, int origem, int casa, boolean ehDama,
+                                  boolean ehBranca, long ocupadas, long inimigas,
+                                  long capturadas, boolean promoveu, int numSaltos) {
+        int[] caminho = lista.caminhoAtual;
+        long linhaPromocao = ehBranca ? Bitboard.LINHA_0 : Bitboard.LINHA_7;
+        boolean saltou = false;
+
+        for (int d = 0; d < 4; d++) {
+            if (!ehDama) {
+                long meio = Bitboard.deslocar(Bitboard.bit(casa), d) & inimigas;
+                long pouso = Bitboard.deslocar(meio, d) & ~ocupadas;
+                if (pouso == 0) continue;
+
+                int destino = Long.numberOfTrailingZeros(pouso);
+                boolean virouDama = (pouso & linhaPromocao) != 0;
+                caminho[numSaltos] = destino;
+                saltou = true;
+                if (!saltar(lista, origem, destino, virouDama, ehBranca,
+                        ocupadas & ~meio, inimigas & ~meio, capturadas | meio,
+                        promoveu || virouDama, numSaltos + 1)) {
+                    lista.adicionarCaptura(origem, capturadas | meio, promoveu || virouDama,
+                            caminho, numSaltos + 1);
+                }
+                continue;
+            }
+
+            int[] raio = Bitboard.raio(casa, d);
+            long inimigo = 0L;
+            for (int alvo : raio) {
+                long b = Bitboard.bit(alvo);
+                if ((ocupadas & b) != 0) {
+                    if ((inimigas & b) == 0 || inimigo != 0) break;
+                    inimigo = b;
+                } else if (inimigo != 0) {
+                    caminho[numSaltos] = alvo;
+                    saltou = true;
+                    if (!saltar(lista, origem, alvo, true, ehBranca,
+                            ocupadas & ~inimigo, inimigas & ~inimigo, capturadas | inimigo,
+                            promoveu, numSaltos + 1)) {
+                        lista.adicionarCaptura(origem, capturadas | inimigo, promoveu,
+                                caminho, numSaltos + 1);
+                    }
+                }
+            }
+        }
+        return saltou;
+    }
+}
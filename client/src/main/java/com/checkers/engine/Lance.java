@@ -0,0 +1,78 @@
+package com.checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Lance completo imutável (origem e casas de pouso de cada salto), para guardar
+ * fora da {@link ListaMovimentos} que o gerou, por exemplo como resultado de uma busca.
+ */
+public final class Lance {
+
+    private final int origem;
+    private final int[] caminho;
+    private final long capturadas;
+    private final boolean promove;
+
+    public Lance(int origem, int[] caminho, long capturadas, boolean promove) {
+        if (caminho.length == 0) {
+            throw new IllegalArgumentException("Lance sem destino");
+        }
+        this.origem = origem;
+        this.caminho = caminho.clone();
+        this.capturadas = capturadas;
+        this.promove = promove;
+    }
+
+    public int getOrigem() {
+        return origem;
+    }
+
+    public int getDestino() {
+        return caminho[caminho.length - 1];
+    }
+
+    public int getSaltos() {
+        return caminho.length;
+    }
+
+    /** Casa de pouso do salto {@code j}. */
+    public int casaDoCaminho(int j) {
+        return caminho[j];
+    }
+
+    public long getCapturadas() {
+        return capturadas;
+    }
+
+    public boolean ehCaptura() {
+        return capturadas != 0;
+    }
+
+    public boolean isPromove() {
+        return promove;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Lance)) return false;
+        Lance l = (Lance) o;
+        return origem == l.origem && capturadas == l.capturadas && Arrays.equals(caminho, l.caminho);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * origem + Arrays.hashCode(caminho);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append('(').append(Bitboard.linha(origem)).append(',').append(Bitboard.coluna(origem)).append(')');
+        for (int casa : caminho) {
+            sb.append(ehCaptura() ? 'x' : '-');
+            sb.append('(').append(Bitboard.linha(casa)).append(',').append(Bitboard.coluna(casa)).append(')');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,191 @@
+package com.checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Lista reutilizável de lances completos, em arrays paralelos para que a geração
+ * não aloque um objeto por lance. Cada lance guarda origem, destino final, peças
+ * capturadas, se a peça vira dama e o caminho de casas de pouso dos saltos.
+ */
+public final class ListaMovimentos {
+
+    /** Uma peça captura no máximo as 12 peças adversárias. */
+    public static final int MAX_SALTOS = 12;
+
+    private int tamanho;
+    private int[] origens;
+    private int[] destinos;
+    private long[] capturadas;
+    private boolean[] promocoes;
+    private int[] saltos;
+    private int[] caminhos;
+
+    /** Caminho em construção durante a geração de capturas múltiplas. */
+    final int[] caminhoAtual = new int[MAX_SALTOS];
+
+    public ListaMovimentos() {
+        this(64);
+    }
+
+    public ListaMovimentos(int capacidade) {
+        origens = new int[capacidade];
+        destinos = new int[capacidade];
+        capturadas = new long[capacidade];
+        promocoes = new boolean[capacidade];
+        saltos = new int[capacidade];
+        caminhos = new int[capacidade * MAX_SALTOS];
+    }
+
+    public void limpar() {
+        tamanho = 0;
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    public boolean estaVazia() {
+        return tamanho == 0;
+    }
+
+    public int origem(int i) {
+        return origens[i];
+    }
+
+    public int destino(int i) {
+        return destinos[i];
+    }
+
+    public long capturadas(int i) {
+        return capturadas[i];
+    }
+
+    public boolean ehCaptura(int i) {
+        return capturadas[i] != 0;
+    }
+
+    public boolean promove(int i) {
+        return promocoes[i];
+    }
+
+    /** Número de saltos do lance (1 para movimento simples ou captura única). */
+    public int saltos(int i) {
+        return saltos[i];
+    }
+
+    /** Casa de pouso do salto {@code j} do lance {@code i}; o último é o destino. */
+    public int casaDoCaminho(int i, int j) {
+        return caminhos[i * MAX_SALTOS + j];
+    }
+
+    /** Copia o lance {@code i} para um {@link Lance} independente da lista. */
+    public Lance lance(int i) {
+        int[] caminho = Arrays.copyOfRange(caminhos, i * MAX_SALTOS, i * MAX_SALTOS + saltos[i]);
+        return new Lance(origens[i], caminho, capturadas[i], promocoes[i]);
+    }
+
+    /** Índice do lance igual ao indicado, ou -1. */
+    public int procurar(Lance lance) {
+        for (int i = 0; i < tamanho; i++) {
+            if (origens[i] == lance.getOrigem() && destinos[i] == lance.getDestino()
+                    && capturadas[i] == lance.getCapturadas()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Índice do lance com a origem e o caminho indicados, ou -1. */
+    public int procurar(int origem, int[] caminho, int numSaltos) {
+        for (int i = 0; i < tamanho; i++) {
+            if (origens[i] != origem || saltos[i] != numSaltos) continue;
+            int j = 0;
+            while (j < numSaltos && caminhos[i * MAX_SALTOS + j] == caminho[j]) j++;
+            if (j == numSaltos) return i;
+        }
+        return -1;
+    }
+
+    /** Troca dois lances de posição (ordenação de lances na busca). */
+    void trocar(int i, int j) {
+        if (i == j) return;
+        trocar(origens, i, j);
+        trocar(destinos, i, j);
+        trocar(saltos, i, j);
+        long c = capturadas[i];
+        capturadas[i] = capturadas[j];
+        capturadas[j] = c;
+        boolean p = promocoes[i];
+        promocoes[i] = promocoes[j];
+        promocoes[j] = p;
+        for (int k = 0; k < MAX_SALTOS; k++) {
+            int t = caminhos[i * MAX_SALTOS + k];
+            caminhos[i * MAX_SALTOS + k] = caminhos[j * MAX_SALTOS + k];
+            caminhos[j * MAX_SALTOS + k] = t;
+        }
+    }
+
+    private static void trocar(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    void adicionarSimples(int origem, int destino, boolean promove) {
+        garantirCapacidade();
+        origens[tamanho] = origem;
+        destinos[tamanho] = destino;
+        capturadas[tamanho] = 0L;
+        promocoes[tamanho] = promove;
+        saltos[tamanho] = 1;
+        caminhos[tamanho * MAX_SALTOS] = destino;
+        tamanho++;
+    }
+
+    /**
+     * Adiciona uma captura, ignorando-a se já houver um lance com a mesma origem,
+     * destino e peças capturadas (caminhos diferentes que levam à mesma posição).
+     */
+    void adicionarCaptura(int origem, long capturadasNoLance, boolean promove, int[] caminho, int numSaltos) {
+        int destino = caminho[numSaltos - 1];
+        for (int i = 0; i < tamanho; i++) {
+            if (origens[i] == origem && destinos[i] == destino && capturadas[i] == capturadasNoLance) {
+                return;
+            }
+        }
+        garantirCapacidade();
+        origens[tamanho] = origem;
+        destinos[tamanho] = destino;
+        capturadas[tamanho] = capturadasNoLance;
+        promocoes[tamanho] = promove;
+        saltos[tamanho] = numSaltos;
+        System.arraycopy(caminho, 0, caminhos, tamanho * MAX_SALTOS, numSaltos);
+        tamanho++;
+    }
+
+    private void garantirCapacidade() {
+        if (tamanho < origens.length) return;
+        int novaCapacidade = origens.length * 2;
+        origens = Arrays.copyOf(origens, novaCapacidade);
+        destinos = Arrays.copyOf(destinos, novaCapacidade);
+        capturadas = Arrays.copyOf(capturadas, novaCapacidade);
+        promocoes = Arrays.copyOf(promocoes, novaCapacidade);
+        saltos = Arrays.copyOf(saltos, novaCapacidade);
+        caminhos = Arrays.copyOf(caminhos, novaCapacidade * MAX_SALTOS);
+    }
+
+    /** Descrição legível do lance: {@code (r,c)-(r,c)} ou {@code (r,c)x(r,c)x(r,c)}. */
+    public String descrever(int i) {
+        StringBuilder sb = new StringBuilder();
+        anexarCasa(sb, origens[i]);
+        for (int j = 0; j < saltos[i]; j++) {
+            sb.append(ehCaptura(i) ? 'x' : '-');
+            anexarCasa(sb, casaDoCaminho(i, j));
+        }
+        return sb.toString();
+    }
+
+    private static void anexarCasa(StringBuilder sb, int casa) {
+        sb.append('(').append(Bitboard.linha(casa)).append(',').append(Bitboard.coluna(casa)).append(')');
+    }
+}
@@ -0,0 +1,104 @@
+package com.checkers.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Contagem de nós da árvore de lances legais (perft), usada para validar o gerador.
+ *
+ * Subárvores já contadas ficam numa tabela de transposição indexada pelo hash de
+ * Zobrist da posição combinado com a profundidade restante, o que torna viáveis
+ * profundidades altas. Valores de referência a partir da posição inicial:
+ * <pre>
+ *  1: 7          5: 7 482       9: 4 571 311
+ *  2: 49         6: 37 986     10: 22 480 790
+ *  3: 302        7: 190 146    11: 111 223 865
+ *  4: 1 469      8: 929 978    12: 547 272 925
+ * </pre>
+ */
+public final class Perft {
+
+    private static final long[] CHAVES_PROFUNDIDADE = new long[64];
+
+    static {
+        SplittableRandom random = new SplittableRandom(0xDE9711L);
+        for (int i = 0; i < CHAVES_PROFUNDIDADE.length; i++) {
+            CHAVES_PROFUNDIDADE[i] = random.nextLong();
+        }
+    }
+
+    private final long[] chaves;
+    private final long[] contagens;
+    private final int mascara;
+
+    /**
+     * @param bitsTabela log2 do número de entradas da tabela de transposição
+     *                   (0 desliga a tabela)
+     */
+    public Perft(int bitsTabela) {
+        int entradas = bitsTabela > 0 ? 1 << bitsTabela : 0;
+        chaves = new long[entradas];
+        contagens = new long[entradas];
+        mascara = entradas - 1;
+    }
+
+    public long contar(Posicao posicao, int profundidade) {
+        if (profundidade >= CHAVES_PROFUNDIDADE.length) {
+            throw new IllegalArgumentException("Profundidade máxima: " + (CHAVES_PROFUNDIDADE.length - 1));
+        }
+        if (profundidade == 0) return 1;
+
+        ListaMovimentos[] listas = new ListaMovimentos[profundidade + 1];
+        Posicao[] posicoes = new Posicao[profundidade + 1];
+        for (int i = 0; i <= profundidade; i++) {
+            listas[i] = new ListaMovimentos();
+            posicoes[i] = new Posicao();
+        }
+        posicoes[profundidade].copiarDe(posicao);
+        return contar(posicoes, listas, profundidade);
+    }
+
+    private long contar(Posicao[] posicoes, ListaMovimentos[] listas, int profundidade) {
+        Posicao posicao = posicoes[profundidade];
+        ListaMovimentos lista = listas[profundidade];
+        int n = GeradorMovimentos.gerar(posicao, lista);
+        if (profundidade == 1 || n == 0) return n;
+
+        long chave = posicao.getHash() ^ CHAVES_PROFUNDIDADE[profundidade];
+        int indice = (int) chave & mascara;
+        if (mascara >= 0 && chaves[indice] == chave) {
+            return contagens[indice];
+        }
+
+        long total = 0;
+        Posicao filha = posicoes[profundidade - 1];
+        for (int i = 0; i < n; i++) {
+            filha.copiarDe(posicao);
+            filha.jogar(lista, i);
+            total += contar(posicoes, listas, profundidade - 1);
+        }
+
+        if (mascara >= 0) {
+            chaves[indice] = chave;
+            contagens[indice] = total;
+        }
+        return total;
+    }
+
+    /**
+     * Uso: {@code Perft [profundidade] [bitsTabela]}. Imprime a contagem para cada
+     * profundidade a partir da posição inicial.
+     */
+    public static void main(String[] args) {
+        int profundidadeMaxima = args.length > 0 ? Integer.parseInt(args[0]) : 10;
+        int bitsTabela = args.length > 1 ? Integer.parseInt(args[1]) : 22;
+
+        Perft perft = new Perft(bitsTabela);
+        Posicao inicial = Posicao.inicial();
+        for (int p = 1; p <= profundidadeMaxima; p++) {
+            long inicio = System.nanoTime();
+            long nos = perft.contar(inicial, p);
+            long ms = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println("[PERFT] profundidade " + p + ": " + nos + " nós (" + ms + " ms)");
+        }
+    }
+}
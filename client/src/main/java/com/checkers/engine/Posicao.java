@@ -0,0 +1,359 @@
+package com.checkers.engine;
+
+/**
+ * Posição de damas em bitboards: peças brancas, peças pretas e damas (de ambas as cores),
+ * mais a vez de jogar e o hash de Zobrist, mantido de forma incremental.
+ *
+ * Segue as mesmas regras do servidor ({@code gameState.js}): brancas começam
+ * embaixo (linhas 5-7) e andam para cima, peças simples capturam em todas as
+ * direções, damas são de longo alcance e a captura é obrigatória.
+ * Nenhum método de geração aloca memória: os resultados são máscaras de casas.
+ */
+public final class Posicao {
+
+    private long brancas;
+    private long pretas;
+    private long damas;
+    private boolean vezDasBrancas = true;
+    private long hash;
+
+    public Posicao() {
+    }
+
+    public Posicao(long brancas, long pretas, long damas) {
+        this(brancas, pretas, damas, true);
+    }
+
+    public Posicao(long brancas, long pretas, long damas, boolean vezDasBrancas) {
+        this.brancas = brancas & Bitboard.TODAS;
+        this.pretas = pretas & Bitboard.TODAS & ~this.brancas;
+        this.damas = damas & (this.brancas | this.pretas);
+        this.vezDasBrancas = vezDasBrancas;
+        this.hash = Zobrist.calcular(this.brancas, this.pretas, this.damas, vezDasBrancas);
+    }
+
+    public Posicao(Posicao outra) {
+        copiarDe(outra);
+    }
+
+    /** Posição inicial: pretas nas linhas 0-2, brancas nas linhas 5-7. */
+    public static Posicao inicial() {
+        return new Posicao(0xFFF00000L, 0x00000FFFL, 0L);
+    }
+
+    public void copiarDe(Posicao outra) {
+        brancas = outra.brancas;
+        pretas = outra.pretas;
+        damas = outra.damas;
+        vezDasBrancas = outra.vezDasBrancas;
+        hash = outra.hash;
+    }
+
+    public long getBrancas() {
+        return brancas;
+    }
+
+    public long getPretas() {
+        return pretas;
+    }
+
+    public long getDamas() {
+        return damas;
+    }
+
+    public boolean isVezDasBrancas() {
+        return vezDasBrancas;
+    }
+
+    /** Hash de Zobrist da posição (peças e vez de jogar). */
+    public long getHash() {
+        return hash;
+    }
+
+    public void trocarVez() {
+        vezDasBrancas = !vezDasBrancas;
+        hash ^= Zobrist.VEZ_DAS_PRETAS;
+    }
+
+    public long pecasDe(boolean ehBranca) {
+        return ehBranca ? brancas : pretas;
+    }
+
+    public long ocupadas() {
+        return brancas | pretas;
+    }
+
+    public long vazias() {
+        return ~(brancas | pretas) & Bitboard.TODAS;
+    }
+
+    public boolean estaVazia(int casa) {
+        return casa < 0 || ((brancas | pretas) & Bitboard.bit(casa)) == 0;
+    }
+
+    public boolean ehBranca(int casa) {
+        return casa >= 0 && (brancas & Bitboard.bit(casa)) != 0;
+    }
+
+    public boolean ehPreta(int casa) {
+        return casa >= 0 && (pretas & Bitboard.bit(casa)) != 0;
+    }
+
+    public boolean ehDama(int casa) {
+        return casa >= 0 && (damas & Bitboard.bit(casa)) != 0;
+    }
+
+    // ==================== GERAÇÃO DE MOVIMENTOS ====================
+
+    /**
+     * Casas de destino das capturas possíveis a partir da casa (um único salto),
+     * equivalente ao antigo {@code movimentosDeCaptura}.
+     */
+    public long capturasDe(int casa) {
+        if (estaVazia(casa)) return 0L;
+
+        boolean ehBranca = ehBranca(casa);
+        long inimigas = ehBranca ? pretas : brancas;
+        long vazias = vazias();
+
+        if (!ehDama(casa)) {
+            long origem = Bitboard.bit(casa);
+            long destinos = 0L;
+            for (int d = 0; d < 4; d++) {
+                destinos |= Bitboard.deslocar(Bitboard.deslocar(origem, d) & inimigas, d);
+            }
+            return destinos & vazias;
+        }
+
+        long destinos = 0L;
+        for (int d = 0; d < 4; d++) {
+            int[] raio = Bitboard.raio(casa, d);
+            boolean inimigoEncontrado = false;
+            for (int alvo : raio) {
+                long b = Bitboard.bit(alvo);
+                if ((vazias & b) == 0) {
+                    if ((inimigas & b) == 0 || inimigoEncontrado) break;
+                    inimigoEncontrado = true;
+                } else if (inimigoEncontrado) {
+                    destinos |= b;
+                }
+            }
+        }
+        return destinos;
+    }
+
+    /** Casas de destino dos movimentos simples (sem captura) a partir da casa. */
+    public long movimentosSimplesDe(int casa) {
+        if (estaVazia(casa)) return 0L;
+
+        long vazias = vazias();
+        if (!ehDama(casa)) {
+            long origem = Bitboard.bit(casa);
+            if (ehBranca(casa)) {
+                return (Bitboard.deslocar(origem, Bitboard.CIMA_ESQ)
+                        | Bitboard.deslocar(origem, Bitboard.CIMA_DIR)) & vazias;
+            }
+            return (Bitboard.deslocar(origem, Bitboard.BAIXO_ESQ)
+                    | Bitboard.deslocar(origem, Bitboard.BAIXO_DIR)) & vazias;
+        }
+
+        long destinos = 0L;
+        for (int d = 0; d < 4; d++) {
+            for (int alvo : Bitboard.raio(casa, d)) {
+                long b = Bitboard.bit(alvo);
+                if ((vazias & b) == 0) break;
+                destinos |= b;
+            }
+        }
+        return destinos;
+    }
+
+    /**
+     * Peças da cor indicada que têm ao menos uma captura disponível.
+     * Peças simples são resolvidas só com deslocamentos; damas casa a casa.
+     */
+    public long pecasComCaptura(boolean ehBranca) {
+        long proprias = ehBranca ? brancas : pretas;
+        long inimigas = ehBranca ? pretas : brancas;
+        long vazias = vazias();
+        long simples = proprias & ~damas;
+
+        long resultado = 0L;
+        for (int d = 0; d < 4; d++) {
+            int volta = Bitboard.oposta(d);
+            long alvos = Bitboard.deslocar(vazias, volta) & inimigas;
+            resultado |= Bitboard.deslocar(alvos, volta) & simples;
+        }
+
+        long damasProprias = proprias & damas;
+        while (damasProprias != 0) {
+            int casa = Long.numberOfTrailingZeros(damasProprias);
+            damasProprias &= damasProprias - 1;
+            if (capturasDe(casa) != 0) {
+                resultado |= Bitboard.bit(casa);
+            }
+        }
+        return resultado;
+    }
+
+    /** Equivalente a {@code !encontrarTodasCapturas(ehBranca).isEmpty()}. */
+    public boolean temCaptura(boolean ehBranca) {
+        return pecasComCaptura(ehBranca) != 0;
+    }
+
+    /**
+     * Valida um único salto como o {@code executeMove} do servidor: a peça é de quem
+     * tem a vez e, havendo captura obrigatória, o salto é uma captura dessa peça;
+     * senão, é um movimento simples (peça uma casa para a frente, dama com caminho livre).
+     */
+    public boolean saltoLegal(int origem, int destino) {
+        if (origem < 0 || destino < 0 || estaVazia(origem) || ehBranca(origem) != vezDasBrancas) {
+            return false;
+        }
+        long destinos = temCaptura(vezDasBrancas) ? capturasDe(origem) : movimentosSimplesDe(origem);
+        return (destinos & Bitboard.bit(destino)) != 0;
+    }
+
+    /** Peças da cor indicada que têm ao menos um movimento simples. */
+    public long pecasComMovimentoSimples(boolean ehBranca) {
+        long proprias = ehBranca ? brancas : pretas;
+        long vazias = vazias();
+        long simples = proprias & ~damas;
+        long resultado = 0L;
+
+        if (ehBranca) {
+            resultado |= Bitboard.deslocar(vazias, Bitboard.BAIXO_DIR) & simples;
+            resultado |= Bitboard.deslocar(vazias, Bitboard.BAIXO_ESQ) & simples;
+        } else {
+            resultado |= Bitboard.deslocar(vazias, Bitboard.CIMA_DIR) & simples;
+            resultado |= Bitboard.deslocar(vazias, Bitboard.CIMA_ESQ) & simples;
+        }
+
+        long damasProprias = proprias & damas;
+        long vizinhasVazias = 0L;
+        for (int d = 0; d < 4; d++) {
+            vizinhasVazias |= Bitboard.deslocar(vazias, d);
+        }
+        return resultado | (damasProprias & vizinhasVazias);
+    }
+
+    // ==================== APLICAÇÃO DE MOVIMENTOS ====================
+
+    /**
+     * Aplica um salto/movimento de {@code origem} para {@code destino}: remove as peças
+     * no caminho, move a peça e promove a dama na última linha. Não valida o movimento.
+     *
+     * @return máscara das peças capturadas
+     */
+    public long aplicarMovimento(int origem, int destino) {
+        long capturadas = Bitboard.entre(origem, destino) & (brancas | pretas);
+        mover(origem, destino, capturadas, false);
+        return capturadas;
+    }
+
+    /**
+     * Aplica um salto isolado e acompanha a vez como o servidor: a vez passa, exceto
+     * depois de uma captura a partir de cuja casa de destino a peça ainda pode capturar.
+     * Serve para reproduzir partidas registradas salto a salto. Não valida o salto.
+     *
+     * @return máscara das peças capturadas
+     */
+    public long aplicarSalto(int origem, int destino) {
+        boolean ehBranca = ehBranca(origem);
+        setVezDasBrancas(ehBranca);
+        long capturadas = aplicarMovimento(origem, destino);
+        if (capturadas == 0 || capturasDe(destino) == 0) {
+            setVezDasBrancas(!ehBranca);
+        }
+        return capturadas;
+    }
+
+    /**
+     * Joga um lance completo gerado por {@link GeradorMovimentos} (inclusive capturas
+     * múltiplas) e passa a vez ao adversário.
+     */
+    public void jogar(ListaMovimentos lista, int i) {
+        mover(lista.origem(i), lista.destino(i), lista.capturadas(i), lista.promove(i));
+        trocarVez();
+    }
+
+    /** Joga um {@link Lance} completo e passa a vez ao adversário. */
+    public void jogar(Lance lance) {
+        mover(lance.getOrigem(), lance.getDestino(), lance.getCapturadas(), lance.isPromove());
+        trocarVez();
+    }
+
+    /** Define de quem é a vez, ajustando o hash. */
+    public void setVezDasBrancas(boolean vezDasBrancas) {
+        if (this.vezDasBrancas != vezDasBrancas) trocarVez();
+    }
+
+    /**
+     * Remove as peças capturadas e move a peça de {@code origem} para {@code destino},
+     * promovendo-a se chegar à última linha ou se {@code promove} for verdadeiro
+     * (peça que passou pela última linha no meio de uma captura múltipla).
+     */
+    private void mover(int origem, int destino, long capturadas, boolean promove) {
+        long bitOrigem = Bitboard.bit(origem);
+        long bitDestino = Bitboard.bit(destino);
+
+        long capturadasBrancas = capturadas & brancas;
+        long capturadasPretas = capturadas & pretas;
+        hash ^= Zobrist.pecas(Zobrist.BRANCA, capturadasBrancas & ~damas)
+                ^ Zobrist.pecas(Zobrist.DAMA_BRANCA, capturadasBrancas & damas)
+                ^ Zobrist.pecas(Zobrist.PRETA, capturadasPretas & ~damas)
+                ^ Zobrist.pecas(Zobrist.DAMA_PRETA, capturadasPretas & damas);
+        brancas &= ~capturadas;
+        pretas &= ~capturadas;
+        damas &= ~capturadas;
+
+        boolean ehBranca = (brancas & bitOrigem) != 0;
+        if (!ehBranca && (pretas & bitOrigem) == 0) return;
+
+        boolean eraDama = (damas & bitOrigem) != 0;
+        long linhaPromocao = ehBranca ? Bitboard.LINHA_0 : Bitboard.LINHA_7;
+        boolean ehDama = eraDama || promove || (bitDestino & linhaPromocao) != 0;
+
+        if (ehBranca) {
+            brancas = (brancas & ~bitOrigem) | bitDestino;
+        } else {
+            pretas = (pretas & ~bitOrigem) | bitDestino;
+        }
+        damas &= ~bitOrigem;
+        if (ehDama) damas |= bitDestino;
+
+        hash ^= Zobrist.peca(Zobrist.tipo(ehBranca, eraDama), origem)
+                ^ Zobrist.peca(Zobrist.tipo(ehBranca, ehDama), destino);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Posicao)) return false;
+        Posicao p = (Posicao) o;
+        return brancas == p.brancas && pretas == p.pretas && damas == p.damas
+                && vezDasBrancas == p.vezDasBrancas;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(hash);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int r = 0; r < 8; r++) {
+            for (int c = 0; c < 8; c++) {
+                int casa = Bitboard.indice(r, c);
+                char ch = '.';
+                if (ehBranca(casa)) ch = ehDama(casa) ? 'W' : 'w';
+                else if (ehPreta(casa)) ch = ehDama(casa) ? 'B' : 'b';
+                else if (casa < 0) ch = ' ';
+                sb.append(ch);
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,21 @@
+package com.checkers.engine;
+
+/**
+ * Consulta a tabelas de finais: resultado exato (vitória, derrota ou empate com jogo
+ * perfeito) de posições com poucas peças. A {@link Busca} usa para cortar a árvore
+ * assim que a posição cai nas tabelas.
+ */
+public interface SondaDeFinais {
+
+    /** Posição fora das tabelas (peças demais ou classe de material não gerada). */
+    int DESCONHECIDO = 0;
+    int VITORIA = 1;
+    int DERROTA = 2;
+    int EMPATE = 3;
+
+    /** Maior número de peças coberto; posições com mais nem são consultadas. */
+    int getMaxPecas();
+
+    /** Resultado do ponto de vista de quem tem a vez. Deve ser seguro entre threads. */
+    int sondar(Posicao posicao);
+}
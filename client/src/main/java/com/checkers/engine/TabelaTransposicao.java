@@ -0,0 +1,98 @@
+package com.checkers.engine;
+
+import java.util.Arrays;
+
+/**
+ * Tabela de transposição compartilhada entre as threads da busca, sem locks.
+ *
+ * Cada entrada ocupa dois {@code long}: {@code hash ^ dado} e {@code dado}. Uma
+ * leitura só é aceita se {@code chave ^ dado == hash}; escritas concorrentes que
+ * se misturam simplesmente falham essa verificação e contam como ausência.
+ */
+public final class TabelaTransposicao {
+
+    public static final int EXATO = 0;
+    public static final int INFERIOR = 1;
+    public static final int SUPERIOR = 2;
+
+    /** Valor devolvido por {@link #sondar} quando a posição não está na tabela. */
+    public static final long AUSENTE = 0L;
+
+    private static final long VALIDO = 1L << 63;
+    private static final long TEM_LANCE = 1L << 62;
+
+    private final long[] entradas;
+    private final int mascara;
+
+    /**
+     * @param bitsEntradas log2 do número de entradas (cada uma com 16 bytes)
+     */
+    public TabelaTransposicao(int bitsEntradas) {
+        int n = 1 << bitsEntradas;
+        entradas = new long[2 * n];
+        mascara = n - 1;
+    }
+
+    private int indice(long hash) {
+        return ((int) (hash >>> 32) & mascara) << 1;
+    }
+
+    /** Dado empacotado da posição, ou {@link #AUSENTE}. */
+    public long sondar(long hash) {
+        int i = indice(hash);
+        long dado = entradas[i + 1];
+        if ((entradas[i] ^ dado) != hash) return AUSENTE;
+        return dado;
+    }
+
+    /**
+     * Grava o resultado de uma busca. Uma entrada da mesma posição com profundidade
+     * maior é preservada.
+     *
+     * @param origem  origem do melhor lance, ou -1
+     * @param destino destino do melhor lance, ou -1
+     */
+    public void gravar(long hash, int profundidade, int pontuacao, int tipo, int origem, int destino) {
+        int i = indice(hash);
+        long atual = entradas[i + 1];
+        if ((entradas[i] ^ atual) == hash && profundidade(atual) > profundidade) return;
+
+        long dado = VALIDO
+                | (pontuacao & 0xFFFFL)
+                | ((long) (Math.max(profundidade, 0) & 0xFF) << 16)
+                | ((long) (tipo & 0x3) << 24);
+        if (origem >= 0) {
+            dado |= TEM_LANCE | ((long) origem << 26) | ((long) destino << 31);
+        }
+        entradas[i] = hash ^ dado;
+        entradas[i + 1] = dado;
+    }
+
+    public void limpar() {
+        Arrays.fill(entradas, 0L);
+    }
+
+    public static int pontuacao(long dado) {
+        return (short) (dado & 0xFFFF);
+    }
+
+    public static int profundidade(long dado) {
+        return (int) (dado >>> 16) & 0xFF;
+    }
+
+    public static int tipo(long dado) {
+        return (int) (dado >>> 24) & 0x3;
+    }
+
+    public static boolean temLance(long dado) {
+        return (dado & TEM_LANCE) != 0;
+    }
+
+    public static int origem(long dado) {
+        return (int) (dado >>> 26) & 0x1F;
+    }
+
+    public static int destino(long dado) {
+        return (int) (dado >>> 31) & 0x1F;
+    }
+}
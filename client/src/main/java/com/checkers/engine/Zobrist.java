@@ -0,0 +1,63 @@
+package com.checkers.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Chaves de Zobrist para as posições. A semente é fixa, então o mesmo hash vale
+ * entre execuções e pode ser gravado em disco (livros, índices, tabelas).
+ */
+public final class Zobrist {
+
+    /** Tipos de peça usados como primeiro índice de {@link #PECAS}. */
+    public static final int BRANCA = 0;
+    public static final int PRETA = 1;
+    public static final int DAMA_BRANCA = 2;
+    public static final int DAMA_PRETA = 3;
+
+    private static final long SEMENTE = 0x5EEDDA3A5L;
+
+    static final long[][] PECAS = new long[4][Bitboard.CASAS];
+
+    /** Aplicada (XOR) quando é a vez das pretas. */
+    static final long VEZ_DAS_PRETAS;
+
+    static {
+        SplittableRandom random = new SplittableRandom(SEMENTE);
+        for (int tipo = 0; tipo < 4; tipo++) {
+            for (int casa = 0; casa < Bitboard.CASAS; casa++) {
+                PECAS[tipo][casa] = random.nextLong();
+            }
+        }
+        VEZ_DAS_PRETAS = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static int tipo(boolean ehBranca, boolean ehDama) {
+        return (ehBranca ? BRANCA : PRETA) + (ehDama ? 2 : 0);
+    }
+
+    public static long peca(int tipo, int casa) {
+        return PECAS[tipo][casa];
+    }
+
+    /** Hash de todas as peças de um bitboard com o mesmo tipo. */
+    static long pecas(int tipo, long bitboard) {
+        long hash = 0L;
+        while (bitboard != 0) {
+            hash ^= PECAS[tipo][Long.numberOfTrailingZeros(bitboard)];
+            bitboard &= bitboard - 1;
+        }
+        return hash;
+    }
+
+    /** Calcula o hash do zero (as posições mantêm o seu de forma incremental). */
+    public static long calcular(long brancas, long pretas, long damas, boolean vezDasBrancas) {
+        long hash = pecas(BRANCA, brancas & ~damas)
+                ^ pecas(PRETA, pretas & ~damas)
+                ^ pecas(DAMA_BRANCA, brancas & damas)
+                ^ pecas(DAMA_PRETA, pretas & damas);
+        return vezDasBrancas ? hash : hash ^ VEZ_DAS_PRETAS;
+    }
+}
@@ -0,0 +1,382 @@
+package com.checkers.finais;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.engine.SondaDeFinais;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Gera as tabelas de finais (vitória, derrota ou empate) de todas as classes de
+ * material até um número de peças, por análise retrógrada.
+ *
+ * Uma classe só depende das classes alcançáveis por captura (menos peças) ou por
+ * promoção (uma simples a menos); essas são geradas antes. As classes formam um grafo
+ * de dependências executado num {@link ForkJoinPool}: classes independentes rodam ao
+ * mesmo tempo, e dentro de cada classe as passadas são divididas em faixas de índices
+ * por {@link RecursiveAction}.
+ *
+ * Numa classe, a primeira passada avalia todas as posições com os valores já
+ * conhecidos: sem lances é derrota; um lance para derrota do adversário é vitória;
+ * todos os lances para vitória do adversário é derrota. Cada posição resolvida marca
+ * as suas antecessoras na classe (desfazendo lances simples do lado que acabou de
+ * jogar), e as passadas seguintes só reavaliam as marcadas. Quando nada mais é marcado,
+ * o que não foi resolvido é empate: sem regra de empate no servidor, ninguém consegue
+ * forçar o fim.
+ *
+ * Classes já presentes na pasta são aproveitadas, então uma geração interrompida
+ * continua de onde parou.
+ */
+public final class GeradorDeFinais {
+
+    /** Posições por tarefa; múltiplo de 64 para que nenhuma palavra seja escrita por duas tarefas. */
+    private static final int FAIXA = 1 << 14;
+
+    private final Path pasta;
+    private final int maxPecas;
+    private final ForkJoinPool pool;
+    private final TabelaDeFinais tabela;
+    private final Map<Integer, CompletableFuture<Void>> tarefas = new HashMap<>();
+
+    public GeradorDeFinais(Path pasta, int maxPecas, ForkJoinPool pool) {
+        this.pasta = pasta;
+        this.maxPecas = maxPecas;
+        this.pool = pool;
+        this.tabela = new TabelaDeFinais(pasta, maxPecas);
+    }
+
+    /** Gera todas as classes com até {@code maxPecas} peças, com pelo menos uma de cada cor. */
+    public void gerar() throws IOException {
+        Files.createDirectories(pasta);
+        List<CompletableFuture<Void>> todas = new ArrayList<>();
+        for (int total = 2; total <= maxPecas; total++) {
+            for (int brancas = 1; brancas < total; brancas++) {
+                int pretas = total - brancas;
+                for (int sb = 0; sb <= brancas; sb++) {
+                    for (int sp = 0; sp <= pretas; sp++) {
+                        todas.add(agendar(new Material(sb, brancas - sb, sp, pretas - sp)));
+                    }
+                }
+            }
+        }
+        try {
+            CompletableFuture.allOf(todas.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    /** Tarefa da classe, criada uma vez, que começa quando as dependências terminam. */
+    private CompletableFuture<Void> agendar(Material material) {
+        CompletableFuture<Void> tarefa = tarefas.get(material.chave());
+        if (tarefa != null) return tarefa;
+
+        List<CompletableFuture<Void>> dependencias = new ArrayList<>();
+        for (Material d : dependencias(material)) {
+            dependencias.add(agendar(d));
+        }
+        tarefa = CompletableFuture.allOf(dependencias.toArray(new CompletableFuture<?>[0]))
+                .thenRunAsync(() -> gerarClasse(material), pool);
+        tarefas.put(material.chave(), tarefa);
+        return tarefa;
+    }
+
+    /** Classes para onde um lance pode levar: uma peça a menos de cada tipo, ou uma promoção. */
+    private static List<Material> dependencias(Material m) {
+        List<Material> resultado = new ArrayList<>();
+        int[] c = {m.simplesBrancas, m.damasBrancas, m.simplesPretas, m.damasPretas};
+        for (int tipo = 0; tipo < 4; tipo++) {
+            if (c[tipo] == 0) continue;
+            c[tipo]--;
+            if (c[0] + c[1] > 0 && c[2] + c[3] > 0) {
+                resultado.add(new Material(c[0], c[1], c[2], c[3]));
+            }
+            if (tipo == 0 || tipo == 2) {
+                // Promoção: a simples vira dama
+                c[tipo + 1]++;
+                resultado.add(new Material(c[0], c[1], c[2], c[3]));
+                c[tipo + 1]--;
+            }
+            c[tipo]++;
+        }
+        return resultado;
+    }
+
+    private void gerarClasse(Material material) {
+        Path arquivo = pasta.resolve(material.nomeArquivo());
+        if (Files.exists(arquivo)) return;
+        long inicio = System.nanoTime();
+        Classe classe = new Classe(material);
+        int passadas = classe.resolver();
+        try {
+            classe.gravar(arquivo);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        System.out.printf(Locale.ROOT, "[FINAIS] %-12s %,13d posições  %3d passadas  %s  %d ms%n",
+                material, 2 * material.getTamanho(), passadas, classe.resumo(),
+                (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    /** Estado de uma classe em geração. */
+    private final class Classe {
+        private final Material material;
+        private final long tamanho;
+        /** 2 bits por posição: brancas a jogar em [0, tamanho), pretas depois. */
+        private final long[] valores;
+        private AtomicLongArray marcadas;
+        private AtomicLongArray proximas;
+
+        Classe(Material material) {
+            this.material = material;
+            this.tamanho = material.getTamanho();
+            long total = 2 * tamanho;
+            this.valores = new long[(int) ((total + 31) / 32)];
+            this.marcadas = new AtomicLongArray((int) ((total + 63) / 64));
+            this.proximas = new AtomicLongArray(marcadas.length());
+        }
+
+        /** @return número de passadas até nada mais mudar */
+        int resolver() {
+            long total = 2 * tamanho;
+            for (int i = 0; i < marcadas.length(); i++) {
+                marcadas.set(i, -1L);
+            }
+            int passadas = 0;
+            boolean mudou = true;
+            while (mudou) {
+                passadas++;
+                pool.invoke(new Passada(0, total));
+                AtomicLongArray t = marcadas;
+                marcadas = proximas;
+                proximas = t;
+                mudou = false;
+                for (int i = 0; i < proximas.length(); i++) {
+                    proximas.set(i, 0);
+                }
+                for (int i = 0; i < marcadas.length() && !mudou; i++) {
+                    mudou = marcadas.get(i) != 0;
+                }
+            }
+            // O que sobrou é empate
+            for (long p = 0; p < total; p++) {
+                if (valor(p) == SondaDeFinais.DESCONHECIDO) definir(p, SondaDeFinais.EMPATE);
+            }
+            return passadas;
+        }
+
+        int valor(long p) {
+            return (int) (valores[(int) (p >>> 5)] >>> ((p & 31) << 1)) & 3;
+        }
+
+        /** Só quem é dono da faixa escreve na palavra (faixas alinhadas a 64 posições). */
+        void definir(long p, int valor) {
+            valores[(int) (p >>> 5)] |= (long) valor << ((p & 31) << 1);
+        }
+
+        void marcar(long p) {
+            int i = (int) (p >>> 6);
+            long bit = 1L << p;
+            if ((proximas.get(i) & bit) == 0) {
+                proximas.getAndAccumulate(i, bit, (a, b) -> a | b);
+            }
+        }
+
+        String resumo() {
+            long[] contagem = new long[4];
+            for (long p = 0; p < 2 * tamanho; p++) {
+                contagem[valor(p)]++;
+            }
+            return String.format(Locale.ROOT, "V %,d  D %,d  E %,d",
+                    contagem[SondaDeFinais.VITORIA], contagem[SondaDeFinais.DERROTA], contagem[SondaDeFinais.EMPATE]);
+        }
+
+        void gravar(Path arquivo) throws IOException {
+            Path temporario = Files.createTempFile(pasta, "finais", ".tmp");
+            try {
+                try (OutputStream saida = new BufferedOutputStream(Files.newOutputStream(temporario), 1 << 16)) {
+                    DataOutputStream cabecalho = new DataOutputStream(saida);
+                    cabecalho.writeLong(TabelaDeFinais.MAGICO);
+                    cabecalho.writeInt(TabelaDeFinais.VERSAO);
+                    cabecalho.writeByte(material.simplesBrancas);
+                    cabecalho.writeByte(material.damasBrancas);
+                    cabecalho.writeByte(material.simplesPretas);
+                    cabecalho.writeByte(material.damasPretas);
+                    cabecalho.writeLong(tamanho);
+                    cabecalho.writeLong(0);
+                    // Cada long vira 8 bytes na ordem em que as posições estão nele
+                    ByteBuffer palavra = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+                    long bytes = (2 * tamanho + 3) / 4;
+                    for (int i = 0; i < valores.length; i++) {
+                        palavra.putLong(0, valores[i]);
+                        saida.write(palavra.array(), 0, (int) Math.min(8, bytes - 8L * i));
+                    }
+                }
+                Files.move(temporario, arquivo, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temporario);
+            }
+        }
+
+        /** Uma passada sobre as posições marcadas de uma faixa. */
+        private final class Passada extends RecursiveAction {
+            private static final long serialVersionUID = 1L;
+            private final long inicio;
+            private final long fim;
+
+            Passada(long inicio, long fim) {
+                this.inicio = inicio;
+                this.fim = fim;
+            }
+
+            @Override
+            protected void compute() {
+                if (fim - inicio > FAIXA) {
+                    long meio = inicio + ((fim - inicio) / 2 & -64L);
+                    invokeAll(new Passada(inicio, meio), new Passada(meio, fim));
+                    return;
+                }
+                Avaliador avaliador = new Avaliador(Classe.this);
+                for (long p = inicio; p < fim; p++) {
+                    if ((marcadas.get((int) (p >>> 6)) & 1L << p) == 0) continue;
+                    if (valor(p) != SondaDeFinais.DESCONHECIDO) continue;
+                    int v = avaliador.avaliar(p);
+                    if (v != SondaDeFinais.DESCONHECIDO) {
+                        definir(p, v);
+                        avaliador.marcarAntecessoras(p);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Estado de trabalho de uma tarefa: posições e lista reaproveitadas. */
+    private final class Avaliador {
+        private final Classe classe;
+        private final Material material;
+        private final long[] pecas = new long[3];
+        private final ListaMovimentos lista = new ListaMovimentos();
+        private final Posicao filha = new Posicao();
+
+        Avaliador(Classe classe) {
+            this.classe = classe;
+            this.material = classe.material;
+        }
+
+        int avaliar(long p) {
+            boolean vezDasBrancas = p < classe.tamanho;
+            material.posicao(vezDasBrancas ? p : p - classe.tamanho, pecas);
+            Posicao posicao = new Posicao(pecas[0], pecas[1], pecas[2], vezDasBrancas);
+            int n = GeradorMovimentos.gerar(posicao, lista);
+            if (n == 0) return SondaDeFinais.DERROTA;
+
+            boolean todasPerdem = true;
+            for (int i = 0; i < n; i++) {
+                filha.copiarDe(posicao);
+                filha.jogar(lista, i);
+                int v = valorDaFilha();
+                if (v == SondaDeFinais.DERROTA) return SondaDeFinais.VITORIA;
+                if (v != SondaDeFinais.VITORIA) todasPerdem = false;
+            }
+            return todasPerdem ? SondaDeFinais.DERROTA : SondaDeFinais.DESCONHECIDO;
+        }
+
+        /** Valor da filha para quem joga nela: da própria classe (em geração) ou de uma já gerada. */
+        private int valorDaFilha() {
+            long b = filha.getBrancas();
+            long p = filha.getPretas();
+            long d = filha.getDamas();
+            if (Material.chave(b, p, d) != material.chave()) {
+                return tabela.sondar(b, p, d, filha.isVezDasBrancas());
+            }
+            long indice = material.indice(b, p, d);
+            return classe.valor(filha.isVezDasBrancas() ? indice : indice + classe.tamanho);
+        }
+
+        /**
+         * Marca as posições da classe das quais um lance simples leva a {@code p}: o
+         * lado que não tem a vez em {@code p} volta uma peça (dama em qualquer distância
+         * por casas vazias, simples uma casa para trás). Capturas e promoções vêm de
+         * outras classes e não entram. Uma antecessora em que o lance não era legal
+         * (havia captura obrigatória) só é reavaliada à toa.
+         */
+        void marcarAntecessoras(long p) {
+            boolean vezDasBrancas = p < classe.tamanho;
+            material.posicao(vezDasBrancas ? p : p - classe.tamanho, pecas);
+            long brancas = pecas[0];
+            long pretas = pecas[1];
+            long damas = pecas[2];
+            boolean antesBrancas = !vezDasBrancas;
+            long proprias = antesBrancas ? brancas : pretas;
+            long vazias = Bitboard.TODAS & ~(brancas | pretas);
+            long deslocamento = antesBrancas ? 0 : classe.tamanho;
+
+            long pecasQueJogaram = proprias;
+            while (pecasQueJogaram != 0) {
+                long destino = pecasQueJogaram & -pecasQueJogaram;
+                pecasQueJogaram ^= destino;
+                boolean dama = (damas & destino) != 0;
+                for (int dir = 0; dir < 4; dir++) {
+                    if (!dama && (antesBrancas ? dir < Bitboard.BAIXO_ESQ : dir >= Bitboard.BAIXO_ESQ)) {
+                        continue; // simples só anda para a frente: volta para trás
+                    }
+                    long origem = Bitboard.deslocar(destino, dir) & vazias;
+                    while (origem != 0) {
+                        long novasProprias = proprias & ~destino | origem;
+                        long novasDamas = dama ? damas & ~destino | origem : damas;
+                        long b = antesBrancas ? novasProprias : brancas;
+                        long q = antesBrancas ? pretas : novasProprias;
+                        classe.marcar(material.indice(b, q, novasDamas) + deslocamento);
+                        if (!dama) break;
+                        origem = Bitboard.deslocar(origem, dir) & vazias;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Uso: {@code GeradorDeFinais <pasta> [maxPecas] [threads]} (padrão: 4 peças, todos
+     * os núcleos).
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Uso: GeradorDeFinais <pasta> [maxPecas] [threads]");
+            System.exit(2);
+        }
+        int maxPecas = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        long inicio = System.nanoTime();
+        try {
+            new GeradorDeFinais(Path.of(args[0]), maxPecas, pool).gerar();
+        } finally {
+            pool.shutdown();
+        }
+        System.out.printf("[FINAIS] Até %d peças em %d s%n", maxPecas, (System.nanoTime() - inicio) / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,241 @@
+package com.checkers.finais;
+
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+/**
+ * Classe de material (simples e damas de cada cor) e a indexação perfeita das suas
+ * posições: cada posição válida da classe tem um índice em {@code [0, getTamanho())}
+ * e cada índice corresponde a exatamente uma posição, sem buracos.
+ *
+ * Simples brancas nunca estão na linha 0 nem pretas na linha 7 (teriam virado damas).
+ * As simples são contadas separadas pela linha exclusiva de cada cor (brancas na
+ * linha 7, pretas na linha 0) e pelas 24 casas do meio, que as duas cores disputam;
+ * para cada divisão o número de posições é um produto de binômios, e os blocos das
+ * divisões ficam um depois do outro. Dentro do bloco, cada grupo de peças é ranqueado
+ * (ordem colex) entre as casas que sobraram para ele.
+ *
+ * O índice não inclui a vez: as tabelas guardam as duas metades.
+ */
+final class Material {
+
+    private static final long LINHAS_MEIO = 0x0FFFFFF0L;
+    private static final int CASAS_MEIO = 24;
+    private static final int CASAS_LINHA = 4;
+
+    /** BINOMIAL[n][k], n até 32. */
+    private static final long[][] BINOMIAL = new long[Bitboard.CASAS + 1][Bitboard.CASAS + 1];
+
+    static {
+        for (int n = 0; n <= Bitboard.CASAS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + (k <= n - 1 ? BINOMIAL[n - 1][k] : 0);
+            }
+        }
+    }
+
+    final int simplesBrancas;
+    final int damasBrancas;
+    final int simplesPretas;
+    final int damasPretas;
+
+    /** Início do bloco de cada divisão [brancas na linha 7][pretas na linha 0]; -1 se impossível. */
+    private final long[][] inicioBloco = new long[CASAS_LINHA + 1][CASAS_LINHA + 1];
+    private final long tamanho;
+
+    Material(int simplesBrancas, int damasBrancas, int simplesPretas, int damasPretas) {
+        this.simplesBrancas = simplesBrancas;
+        this.damasBrancas = damasBrancas;
+        this.simplesPretas = simplesPretas;
+        this.damasPretas = damasPretas;
+
+        int livres = Bitboard.CASAS - simplesBrancas - simplesPretas;
+        long porDamas = binomial(livres, damasBrancas) * binomial(livres - damasBrancas, damasPretas);
+        long total = 0;
+        for (int j = 0; j <= CASAS_LINHA; j++) {
+            for (int i = 0; i <= CASAS_LINHA; i++) {
+                int brancasMeio = simplesBrancas - j;
+                int pretasMeio = simplesPretas - i;
+                if (brancasMeio < 0 || pretasMeio < 0 || brancasMeio + pretasMeio > CASAS_MEIO) {
+                    inicioBloco[j][i] = -1;
+                    continue;
+                }
+                inicioBloco[j][i] = total;
+                total += binomial(CASAS_LINHA, j) * binomial(CASAS_MEIO, brancasMeio)
+                        * binomial(CASAS_LINHA, i) * binomial(CASAS_MEIO - brancasMeio, pretasMeio)
+                        * porDamas;
+            }
+        }
+        this.tamanho = total;
+    }
+
+    static Material de(Posicao posicao) {
+        long brancas = posicao.getBrancas();
+        long pretas = posicao.getPretas();
+        long damas = posicao.getDamas();
+        return new Material(Long.bitCount(brancas & ~damas), Long.bitCount(brancas & damas),
+                Long.bitCount(pretas & ~damas), Long.bitCount(pretas & damas));
+    }
+
+    /** Chave compacta (4 bits por contagem), para tabelas indexadas por classe. */
+    static int chave(int simplesBrancas, int damasBrancas, int simplesPretas, int damasPretas) {
+        return simplesBrancas << 12 | damasBrancas << 8 | simplesPretas << 4 | damasPretas;
+    }
+
+    static int chave(long brancas, long pretas, long damas) {
+        return chave(Long.bitCount(brancas & ~damas), Long.bitCount(brancas & damas),
+                Long.bitCount(pretas & ~damas), Long.bitCount(pretas & damas));
+    }
+
+    int chave() {
+        return chave(simplesBrancas, damasBrancas, simplesPretas, damasPretas);
+    }
+
+    int getPecas() {
+        return simplesBrancas + damasBrancas + simplesPretas + damasPretas;
+    }
+
+    int getSimples() {
+        return simplesBrancas + simplesPretas;
+    }
+
+    /** Posições por lado a jogar. */
+    long getTamanho() {
+        return tamanho;
+    }
+
+    /** Índice da posição, que deve ser desta classe. */
+    long indice(long brancas, long pretas, long damas) {
+        long simplesBrancasBb = brancas & ~damas;
+        long simplesPretasBb = pretas & ~damas;
+        long brancasLinha = simplesBrancasBb & Bitboard.LINHA_7;
+        long brancasMeio = simplesBrancasBb & LINHAS_MEIO;
+        long pretasLinha = simplesPretasBb & Bitboard.LINHA_0;
+        long pretasMeio = simplesPretasBb & LINHAS_MEIO;
+        int j = Long.bitCount(brancasLinha);
+        int i = Long.bitCount(pretasLinha);
+        int nBrancasMeio = simplesBrancas - j;
+        int nPretasMeio = simplesPretas - i;
+
+        long simples = simplesBrancasBb | simplesPretasBb;
+        long livresDamas = Bitboard.TODAS & ~simples;
+        int nLivres = Bitboard.CASAS - simplesBrancas - simplesPretas;
+
+        long r = posto(brancasLinha >>> 28, Bitboard.TODAS);
+        r = r * binomial(CASAS_MEIO, nBrancasMeio) + posto(brancasMeio >>> 4, Bitboard.TODAS);
+        r = r * binomial(CASAS_LINHA, i) + posto(pretasLinha, Bitboard.TODAS);
+        r = r * binomial(CASAS_MEIO - nBrancasMeio, nPretasMeio)
+                + posto(pretasMeio >>> 4, ~(brancasMeio >>> 4) & 0xFFFFFFL);
+        r = r * binomial(nLivres, damasBrancas) + posto(brancas & damas, livresDamas);
+        r = r * binomial(nLivres - damasBrancas, damasPretas) + posto(pretas & damas, livresDamas & ~(brancas & damas));
+        return inicioBloco[j][i] + r;
+    }
+
+    /**
+     * Posição do índice; escreve brancas, pretas e damas em {@code saida}.
+     */
+    void posicao(long indice, long[] saida) {
+        int j = 0;
+        int i = 0;
+        // Último bloco que começa antes do índice (são poucos: até 25)
+        long melhorInicio = -1;
+        for (int jj = 0; jj <= CASAS_LINHA; jj++) {
+            for (int ii = 0; ii <= CASAS_LINHA; ii++) {
+                long inicio = inicioBloco[jj][ii];
+                if (inicio >= 0 && inicio <= indice && inicio > melhorInicio) {
+                    melhorInicio = inicio;
+                    j = jj;
+                    i = ii;
+                }
+            }
+        }
+        long r = indice - melhorInicio;
+        int nBrancasMeio = simplesBrancas - j;
+        int nPretasMeio = simplesPretas - i;
+        int nLivres = Bitboard.CASAS - simplesBrancas - simplesPretas;
+
+        long bDamasPretas = binomial(nLivres - damasBrancas, damasPretas);
+        long rDamasPretas = r % bDamasPretas;
+        r /= bDamasPretas;
+        long bDamasBrancas = binomial(nLivres, damasBrancas);
+        long rDamasBrancas = r % bDamasBrancas;
+        r /= bDamasBrancas;
+        long bPretasMeio = binomial(CASAS_MEIO - nBrancasMeio, nPretasMeio);
+        long rPretasMeio = r % bPretasMeio;
+        r /= bPretasMeio;
+        long bPretasLinha = binomial(CASAS_LINHA, i);
+        long rPretasLinha = r % bPretasLinha;
+        r /= bPretasLinha;
+        long bBrancasMeio = binomial(CASAS_MEIO, nBrancasMeio);
+        long rBrancasMeio = r % bBrancasMeio;
+        r /= bBrancasMeio;
+        long rBrancasLinha = r;
+
+        long brancasLinha = conjunto(rBrancasLinha, j, Bitboard.TODAS) << 28;
+        long brancasMeio = conjunto(rBrancasMeio, nBrancasMeio, Bitboard.TODAS) << 4;
+        long pretasLinha = conjunto(rPretasLinha, i, Bitboard.TODAS);
+        long pretasMeio = conjunto(rPretasMeio, nPretasMeio, ~(brancasMeio >>> 4) & 0xFFFFFFL) << 4;
+        long simples = brancasLinha | brancasMeio | pretasLinha | pretasMeio;
+        long livresDamas = Bitboard.TODAS & ~simples;
+        long damasB = conjunto(rDamasBrancas, damasBrancas, livresDamas);
+        long damasP = conjunto(rDamasPretas, damasPretas, livresDamas & ~damasB);
+
+        saida[0] = brancasLinha | brancasMeio | damasB;
+        saida[1] = pretasLinha | pretasMeio | damasP;
+        saida[2] = damasB | damasP;
+    }
+
+    static long binomial(int n, int k) {
+        return k < 0 || k > n ? 0 : BINOMIAL[n][k];
+    }
+
+    /**
+     * Posto colex de {@code pecas} entre as casas de {@code disponiveis}: cada peça conta
+     * pela sua posição entre as casas disponíveis, não pela casa em si.
+     */
+    private static long posto(long pecas, long disponiveis) {
+        long r = 0;
+        int k = 1;
+        while (pecas != 0) {
+            long b = pecas & -pecas;
+            pecas ^= b;
+            r += binomial(Long.bitCount(disponiveis & (b - 1)), k++);
+        }
+        return r;
+    }
+
+    /** Inverso de {@link #posto}: as {@code k} casas de {@code disponiveis} com esse posto. */
+    private static long conjunto(long posto, int k, long disponiveis) {
+        long pecas = 0;
+        int limite = Long.bitCount(disponiveis);
+        for (; k > 0; k--) {
+            int p = k - 1;
+            while (p + 1 < limite && binomial(p + 1, k) <= posto) {
+                p++;
+            }
+            posto -= binomial(p, k);
+            pecas |= selecionar(disponiveis, p);
+            limite = p;
+        }
+        return pecas;
+    }
+
+    /** Bit da {@code n}-ésima (a partir de 0) casa de {@code disponiveis}. */
+    private static long selecionar(long disponiveis, int n) {
+        for (int i = 0; i < n; i++) {
+            disponiveis &= disponiveis - 1;
+        }
+        return disponiveis & -disponiveis;
+    }
+
+    /** Nome do arquivo da classe: contagens de simples e damas brancas, simples e damas pretas. */
+    String nomeArquivo() {
+        return "finais-" + simplesBrancas + damasBrancas + simplesPretas + damasPretas + ".tab";
+    }
+
+    @Override
+    public String toString() {
+        return simplesBrancas + "s" + damasBrancas + "d x " + simplesPretas + "s" + damasPretas + "d";
+    }
+}
@@ -0,0 +1,211 @@
+package com.checkers.finais;
+
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.engine.SondaDeFinais;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Tabelas de finais geradas por {@link GeradorDeFinais}: um arquivo por classe de
+ * material numa pasta, mapeado em memória na primeira consulta à classe.
+ *
+ * Arquivo de uma classe: cabeçalho de 32 bytes (mágico, versão, as quatro contagens
+ * em bytes, posições por lado, reservado) seguido de 2 bits por posição, quatro por
+ * byte a partir dos bits baixos: primeiro todas as posições com as brancas a jogar,
+ * depois as com as pretas. Os valores são os de {@link SondaDeFinais}, do ponto de
+ * vista de quem tem a vez.
+ *
+ * As consultas não alocam e podem vir de várias threads.
+ */
+public final class TabelaDeFinais implements SondaDeFinais, Closeable {
+
+    /** "DAMASFN1" */
+    static final long MAGICO = 0x44414D4153464E31L;
+    static final int VERSAO = 1;
+    static final int CABECALHO = 32;
+
+    private static final Classe AUSENTE = new Classe(null, null, null);
+
+    private final Path pasta;
+    private final int maxPecas;
+    private final AtomicReferenceArray<Classe> classes = new AtomicReferenceArray<>(1 << 16);
+
+    /** Classe aberta: indexação e os valores mapeados. */
+    private static final class Classe {
+        final Material material;
+        final FileChannel canal;
+        final MappedByteBuffer valores;
+
+        Classe(Material material, FileChannel canal, MappedByteBuffer valores) {
+            this.material = material;
+            this.canal = canal;
+            this.valores = valores;
+        }
+    }
+
+    TabelaDeFinais(Path pasta, int maxPecas) {
+        this.pasta = pasta;
+        this.maxPecas = maxPecas;
+    }
+
+    /** Abre a pasta; o maior número de peças é o da maior classe presente. */
+    public static TabelaDeFinais abrir(Path pasta) throws IOException {
+        int maxPecas = 0;
+        try (DirectoryStream<Path> arquivos = Files.newDirectoryStream(pasta, "finais-*.tab")) {
+            for (Path arquivo : arquivos) {
+                String nome = arquivo.getFileName().toString();
+                int pecas = 0;
+                for (int i = "finais-".length(); i < nome.length() - ".tab".length(); i++) {
+                    pecas += Character.digit(nome.charAt(i), 10);
+                }
+                maxPecas = Math.max(maxPecas, pecas);
+            }
+        }
+        return new TabelaDeFinais(pasta, maxPecas);
+    }
+
+    @Override
+    public int getMaxPecas() {
+        return maxPecas;
+    }
+
+    @Override
+    public int sondar(Posicao posicao) {
+        return sondar(posicao.getBrancas(), posicao.getPretas(), posicao.getDamas(), posicao.isVezDasBrancas());
+    }
+
+    int sondar(long brancas, long pretas, long damas, boolean vezDasBrancas) {
+        long proprias = vezDasBrancas ? brancas : pretas;
+        if (proprias == 0) return DERROTA;
+        if ((brancas | pretas) == proprias) return VITORIA;
+        if (Long.bitCount(brancas | pretas) > maxPecas) return DESCONHECIDO;
+
+        Classe classe = classe(Material.chave(brancas, pretas, damas));
+        if (classe == AUSENTE) return DESCONHECIDO;
+        long indice = classe.material.indice(brancas, pretas, damas);
+        if (!vezDasBrancas) indice += classe.material.getTamanho();
+        return ler(classe.valores, indice);
+    }
+
+    static int ler(ByteBuffer valores, long indice) {
+        return (valores.get((int) (indice >>> 2)) >>> ((int) (indice & 3) << 1)) & 3;
+    }
+
+    private Classe classe(int chave) {
+        Classe classe = classes.get(chave);
+        if (classe != null) return classe;
+        synchronized (this) {
+            classe = classes.get(chave);
+            if (classe == null) {
+                classe = carregar(chave);
+                classes.set(chave, classe);
+            }
+            return classe;
+        }
+    }
+
+    private Classe carregar(int chave) {
+        Material material = new Material(chave >>> 12 & 15, chave >>> 8 & 15, chave >>> 4 & 15, chave & 15);
+        Path arquivo = pasta.resolve(material.nomeArquivo());
+        if (!Files.exists(arquivo)) return AUSENTE;
+        try {
+            FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+            try {
+                long bytes = (2 * material.getTamanho() + 3) / 4;
+                if (canal.size() < CABECALHO + bytes) {
+                    throw new IOException("Tabela truncada: " + arquivo);
+                }
+                MappedByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO);
+                if (cabecalho.getLong(0) != MAGICO || cabecalho.getInt(8) != VERSAO
+                        || cabecalho.getLong(16) != material.getTamanho()) {
+                    throw new IOException("Tabela inválida: " + arquivo);
+                }
+                return new Classe(material, canal, canal.map(FileChannel.MapMode.READ_ONLY, CABECALHO, bytes));
+            } catch (IOException | RuntimeException e) {
+                canal.close();
+                throw e;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resultado de cada lance legal da posição, do ponto de vista de quem joga: a
+     * análise mostra quais lances mantêm a vitória ou o empate.
+     */
+    public String analisar(Posicao posicao) {
+        ListaMovimentos lista = new ListaMovimentos();
+        int n = GeradorMovimentos.gerar(posicao, lista);
+        StringBuilder sb = new StringBuilder(descrever(sondar(posicao))).append('\n');
+        Posicao filha = new Posicao();
+        for (int i = 0; i < n; i++) {
+            filha.copiarDe(posicao);
+            filha.jogar(lista, i);
+            sb.append("  ").append(lista.descrever(i)).append(": ").append(descrever(inverter(sondar(filha)))).append('\n');
+        }
+        return sb.toString();
+    }
+
+    /** Resultado visto pelo outro lado. */
+    static int inverter(int resultado) {
+        switch (resultado) {
+            case VITORIA:
+                return DERROTA;
+            case DERROTA:
+                return VITORIA;
+            default:
+                return resultado;
+        }
+    }
+
+    public static String descrever(int resultado) {
+        switch (resultado) {
+            case VITORIA:
+                return "vitória";
+            case DERROTA:
+                return "derrota";
+            case EMPATE:
+                return "empate";
+            default:
+                return "desconhecido";
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        for (int i = 0; i < classes.length(); i++) {
+            Classe classe = classes.getAndSet(i, null);
+            if (classe != null && classe.canal != null) classe.canal.close();
+        }
+    }
+
+    /**
+     * Uso: {@code TabelaDeFinais <pasta> <brancasHex> <pretasHex> <damasHex> <b|p>}:
+     * resultado da posição e de cada lance.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 5) {
+            System.err.println("Uso: TabelaDeFinais <pasta> <brancasHex> <pretasHex> <damasHex> <b|p>");
+            System.exit(2);
+        }
+        Posicao posicao = new Posicao(Long.parseUnsignedLong(args[1], 16), Long.parseUnsignedLong(args[2], 16),
+                Long.parseUnsignedLong(args[3], 16), args[4].equals("b"));
+        try (TabelaDeFinais tabela = abrir(Path.of(args[0]))) {
+            System.out.print(posicao);
+            System.out.print(tabela.analisar(posicao));
+        }
+    }
+}
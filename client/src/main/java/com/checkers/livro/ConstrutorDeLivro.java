@@ -0,0 +1,177 @@
+package com.checkers.livro;
+
+import com.checkers.arquivo.LeitorDePartidas;
+import com.checkers.arquivo.Partida;
+import com.checkers.arquivo.ResultadoPartida;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Monta o {@link LivroDeAberturas} a partir de arquivos de partidas (do cliente, dos
+ * bots ou de autojogo).
+ *
+ * Cada partida completa é reproduzida lance a lance (os saltos de um mesmo jogador
+ * seguidos formam um lance) até {@code damas.livro.profundidade} lances; cada par
+ * (posição, lance) soma uma partida e os pontos de quem jogou. Pares vistos em menos
+ * de {@code damas.livro.minimo} partidas ficam de fora.
+ */
+public final class ConstrutorDeLivro {
+
+    private static final int PROFUNDIDADE_PADRAO = 16;
+    private static final int MINIMO_PADRAO = 2;
+
+    private final int profundidade;
+    private final int minimo;
+    private final Map<Chave, int[]> contagem = new HashMap<>();
+    private final Posicao trabalho = new Posicao();
+    private long partidas;
+
+    public ConstrutorDeLivro(int profundidade, int minimo) {
+        this.profundidade = profundidade;
+        this.minimo = minimo;
+    }
+
+    /** Soma as partidas completas de um arquivo. */
+    public void adicionar(Path arquivo) throws IOException {
+        try (LeitorDePartidas leitor = LeitorDePartidas.abrir(arquivo)) {
+            while (leitor.proxima()) {
+                Partida p = leitor.getPartida();
+                if (p.isCompleta()) adicionar(p);
+            }
+        }
+    }
+
+    private void adicionar(Partida partida) {
+        partidas++;
+        trabalho.copiarDe(Posicao.inicial());
+        int n = partida.getNumSaltos();
+        int i = 0;
+        for (int lances = 0; lances < profundidade && i < n; lances++) {
+            int origem = Bitboard.origemDoSalto(partida.getSalto(i));
+            boolean brancas = trabalho.ehBranca(origem);
+            trabalho.setVezDasBrancas(brancas);
+            long hash = trabalho.getHash();
+
+            long capturadas = 0;
+            int destino;
+            do {
+                int salto = partida.getSalto(i++);
+                destino = Bitboard.destinoDoSalto(salto);
+                capturadas |= trabalho.aplicarSalto(Bitboard.origemDoSalto(salto), destino);
+            } while (i < n && trabalho.isVezDasBrancas() == brancas);
+
+            int[] jogosEPontos = contagem.computeIfAbsent(
+                    new Chave(hash, LivroDeAberturas.chave(origem, destino, capturadas)), c -> new int[2]);
+            jogosEPontos[0]++;
+            jogosEPontos[1] += pontos(partida.getResultado(), brancas);
+        }
+    }
+
+    /** Meios pontos de quem jogou: vitória 2, derrota 0, empate ou sem vencedor conhecido 1. */
+    private static int pontos(ResultadoPartida resultado, boolean brancas) {
+        switch (resultado) {
+            case BRANCAS:
+                return brancas ? 2 : 0;
+            case PRETAS:
+                return brancas ? 0 : 2;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Grava o livro em {@code destino} (montado ao lado e movido no fim).
+     *
+     * @return número de entradas gravadas
+     */
+    public long gravar(Path destino) throws IOException {
+        List<Map.Entry<Chave, int[]>> entradas = new ArrayList<>();
+        for (Map.Entry<Chave, int[]> e : contagem.entrySet()) {
+            if (e.getValue()[0] >= minimo) entradas.add(e);
+        }
+        entradas.sort((a, b) -> {
+            int c = Long.compareUnsigned(a.getKey().hash, b.getKey().hash);
+            return c != 0 ? c : Integer.compare(b.getValue()[0], a.getValue()[0]);
+        });
+
+        Path temporario = Files.createTempFile(destino.toAbsolutePath().getParent(), "livro", ".tmp");
+        try {
+            try (DataOutputStream saida = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporario), 1 << 16))) {
+                saida.writeLong(LivroDeAberturas.MAGICO);
+                saida.writeInt(LivroDeAberturas.VERSAO);
+                saida.writeInt(profundidade);
+                saida.writeLong(entradas.size());
+                saida.writeLong(partidas);
+                for (Map.Entry<Chave, int[]> e : entradas) {
+                    saida.writeLong(e.getKey().hash);
+                    saida.writeLong(e.getKey().lance);
+                    saida.writeInt(e.getValue()[0]);
+                    saida.writeInt(e.getValue()[1]);
+                }
+            }
+            Files.move(temporario, destino, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+        return entradas.size();
+    }
+
+    private static final class Chave {
+        final long hash;
+        final long lance;
+
+        Chave(long hash, long lance) {
+            this.hash = hash;
+            this.lance = lance;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Chave)) return false;
+            Chave c = (Chave) o;
+            return hash == c.hash && lance == c.lance;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(hash * 31 + lance);
+        }
+    }
+
+    /**
+     * Uso: {@code ConstrutorDeLivro <livro> <partidas>...}. Imprime o tamanho do livro e
+     * os lances da posição inicial.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: ConstrutorDeLivro <livro> <partidas>...");
+            System.exit(2);
+        }
+        ConstrutorDeLivro construtor = new ConstrutorDeLivro(
+                Integer.getInteger("damas.livro.profundidade", PROFUNDIDADE_PADRAO),
+                Integer.getInteger("damas.livro.minimo", MINIMO_PADRAO));
+        long inicio = System.nanoTime();
+        for (int i = 1; i < args.length; i++) {
+            construtor.adicionar(Path.of(args[i]));
+        }
+        Path destino = Path.of(args[0]);
+        long entradas = construtor.gravar(destino);
+        System.out.printf("%d entradas de %d partidas em %d ms%n",
+                entradas, construtor.partidas, (System.nanoTime() - inicio) / 1_000_000);
+        try (LivroDeAberturas livro = LivroDeAberturas.abrir(destino)) {
+            System.out.print(livro.descrever(Posicao.inicial()));
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.checkers.livro;
+
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.Lance;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Livro de aberturas: lances jogados em cada posição das primeiras jogadas, com quantas
+ * partidas os usaram e quantos pontos fizeram. Montado por {@link ConstrutorDeLivro}.
+ *
+ * O arquivo é mapeado em memória e consultado por busca binária, sem carregar nada no
+ * heap. Layout (big-endian): cabeçalho de 32 bytes (mágico, versão, profundidade em
+ * lances, número de entradas, partidas usadas) seguido de entradas de 24 bytes
+ * <pre>
+ *   long hash     Zobrist da posição, com a vez
+ *   long lance    {@link #chave(int, int, long)}
+ *   int  jogos    partidas em que o lance foi jogado nesta posição
+ *   int  pontos   meios pontos de quem jogou (vitória 2, empate ou sem vencedor 1)
+ * </pre>
+ * ordenadas pelo hash sem sinal e, no mesmo hash, por jogos decrescentes.
+ *
+ * As consultas só leem o buffer por posição absoluta, então uma instância pode ser
+ * usada por várias threads.
+ */
+public final class LivroDeAberturas implements Closeable {
+
+    /** "DAMASLV1" */
+    static final long MAGICO = 0x44414D41534C5631L;
+    static final int VERSAO = 1;
+    static final int CABECALHO = 32;
+    static final int ENTRADA = 24;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer entradas;
+    private final long numEntradas;
+    private final int profundidade;
+    private final long partidas;
+
+    private LivroDeAberturas(FileChannel canal, MappedByteBuffer entradas, long numEntradas,
+                             int profundidade, long partidas) {
+        this.canal = canal;
+        this.entradas = entradas;
+        this.numEntradas = numEntradas;
+        this.profundidade = profundidade;
+        this.partidas = partidas;
+    }
+
+    public static LivroDeAberturas abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        try {
+            if (canal.size() < CABECALHO) {
+                throw new IOException("Livro vazio ou truncado: " + arquivo);
+            }
+            MappedByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, CABECALHO);
+            if (cabecalho.getLong(0) != MAGICO) {
+                throw new IOException("Não é um livro de aberturas: " + arquivo);
+            }
+            if (cabecalho.getInt(8) != VERSAO) {
+                throw new IOException("Versão não suportada: " + cabecalho.getInt(8));
+            }
+            int profundidade = cabecalho.getInt(12);
+            long numEntradas = cabecalho.getLong(16);
+            long partidas = cabecalho.getLong(24);
+            long bytes = numEntradas * ENTRADA;
+            if (CABECALHO + bytes > canal.size()) {
+                throw new IOException("Livro truncado: " + arquivo);
+            }
+            if (bytes > Integer.MAX_VALUE) {
+                throw new IOException("Livro grande demais para um mapeamento: " + numEntradas + " entradas");
+            }
+            MappedByteBuffer entradas = canal.map(FileChannel.MapMode.READ_ONLY, CABECALHO, bytes);
+            return new LivroDeAberturas(canal, entradas, numEntradas, profundidade, partidas);
+        } catch (IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /** Lance compactado: casas capturadas, origem e destino (o caminho sai do gerador). */
+    public static long chave(int origem, int destino, long capturadas) {
+        return capturadas << 10 | (long) origem << 5 | destino;
+    }
+
+    public long getNumEntradas() {
+        return numEntradas;
+    }
+
+    /** Até quantos lances de cada partida o livro foi montado. */
+    public int getProfundidade() {
+        return profundidade;
+    }
+
+    public long getPartidas() {
+        return partidas;
+    }
+
+    /** Primeira entrada com este hash ou, se não houver, a posição onde estaria. */
+    private int primeira(long hash) {
+        int baixo = 0;
+        int alto = (int) numEntradas;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (Long.compareUnsigned(entradas.getLong(meio * ENTRADA), hash) < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Sorteia um lance do livro para a posição, com peso pelos pontos que ele fez. Só
+     * devolve lances legais na posição (uma colisão de hash não passa).
+     *
+     * @param lista lista reaproveitada para gerar os lances legais
+     * @return o lance, ou {@code null} se a posição não está no livro
+     */
+    public Lance escolher(Posicao posicao, ListaMovimentos lista) {
+        long hash = posicao.getHash();
+        int inicio = primeira(hash);
+        if (inicio >= numEntradas || entradas.getLong(inicio * ENTRADA) != hash) {
+            return null;
+        }
+        GeradorMovimentos.gerar(posicao, lista);
+
+        long pesoTotal = 0;
+        int fim = inicio;
+        for (; fim < numEntradas && entradas.getLong(fim * ENTRADA) == hash; fim++) {
+            pesoTotal += peso(fim, lista);
+        }
+        if (pesoTotal == 0) return null;
+
+        long sorteio = ThreadLocalRandom.current().nextLong(pesoTotal);
+        for (int e = inicio; e < fim; e++) {
+            sorteio -= peso(e, lista);
+            if (sorteio < 0) {
+                return lista.lance(indiceNaLista(e, lista));
+            }
+        }
+        throw new AssertionError("sorteio fora do peso total");
+    }
+
+    private long peso(int entrada, ListaMovimentos lista) {
+        return indiceNaLista(entrada, lista) < 0 ? 0 : entradas.getInt(entrada * ENTRADA + 20);
+    }
+
+    private int indiceNaLista(int entrada, ListaMovimentos lista) {
+        long lance = entradas.getLong(entrada * ENTRADA + 8);
+        for (int i = 0; i < lista.tamanho(); i++) {
+            if (chave(lista.origem(i), lista.destino(i), lista.capturadas(i)) == lance) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Descreve os lances do livro na posição (lance, partidas e aproveitamento), para
+     * inspeção.
+     */
+    public String descrever(Posicao posicao) {
+        ListaMovimentos lista = new ListaMovimentos();
+        GeradorMovimentos.gerar(posicao, lista);
+        StringBuilder sb = new StringBuilder();
+        long hash = posicao.getHash();
+        for (int e = primeira(hash); e < numEntradas && entradas.getLong(e * ENTRADA) == hash; e++) {
+            int i = indiceNaLista(e, lista);
+            int jogos = entradas.getInt(e * ENTRADA + 16);
+            int pontos = entradas.getInt(e * ENTRADA + 20);
+            sb.append(i < 0 ? "(ilegal)" : lista.descrever(i))
+                    .append("  ").append(jogos).append(" partidas, ")
+                    .append(Math.round(50.0 * pontos / jogos)).append("%\n");
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+}
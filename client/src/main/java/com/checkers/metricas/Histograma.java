@@ -0,0 +1,101 @@
+package com.checkers.metricas;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma log-linear no estilo HDR para latências (em qualquer unidade inteira,
+ * normalmente nanossegundos). Valores abaixo de 64 têm balde próprio; acima disso
+ * cada potência de dois é dividida em 32 baldes, o que dá erro relativo de até ~3%.
+ *
+ * O registro é livre de locks e pode ser chamado de qualquer thread.
+ */
+public final class Histograma {
+
+    private static final int BITS_SUB = 5;
+    private static final int SUB = 1 << BITS_SUB;
+    private static final int BALDES = 64 * SUB;
+
+    private final AtomicLongArray baldes = new AtomicLongArray(BALDES);
+    private final LongAdder contagem = new LongAdder();
+    private final LongAdder soma = new LongAdder();
+    private final LongAccumulator maximo = new LongAccumulator(Math::max, 0);
+
+    public void registrar(long valor) {
+        if (valor < 0) valor = 0;
+        baldes.incrementAndGet(indice(valor));
+        contagem.increment();
+        soma.add(valor);
+        maximo.accumulate(valor);
+    }
+
+    static int indice(long valor) {
+        if (valor < 2 * SUB) return (int) valor;
+        int expoente = 63 - Long.numberOfLeadingZeros(valor) - BITS_SUB;
+        return expoente * SUB + (int) (valor >>> expoente);
+    }
+
+    /** Maior valor que cai no mesmo balde de {@code indice}. */
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUB) return indice;
+        int expoente = indice / SUB - 1;
+        long mantissa = indice % SUB + SUB;
+        return ((mantissa + 1) << expoente) - 1;
+    }
+
+    public long getContagem() {
+        return contagem.sum();
+    }
+
+    public long getSoma() {
+        return soma.sum();
+    }
+
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    public double media() {
+        long n = contagem.sum();
+        return n == 0 ? 0 : (double) soma.sum() / n;
+    }
+
+    /**
+     * Valor no percentil indicado (0-100), arredondado para o limite superior do balde.
+     */
+    public long percentil(double percentil) {
+        long[] copia = copiarBaldes();
+        long total = 0;
+        for (long c : copia) total += c;
+        if (total == 0) return 0;
+
+        long alvo = Math.max(1, (long) Math.ceil(total * percentil / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < copia.length; i++) {
+            acumulado += copia[i];
+            if (acumulado >= alvo) {
+                return Math.min(limiteSuperior(i), getMaximo());
+            }
+        }
+        return getMaximo();
+    }
+
+    /** Cópia das contagens por balde (para exportação). */
+    public long[] copiarBaldes() {
+        long[] copia = new long[BALDES];
+        for (int i = 0; i < BALDES; i++) {
+            copia[i] = baldes.get(i);
+        }
+        return copia;
+    }
+
+    public void zerar() {
+        for (int i = 0; i < BALDES; i++) {
+            baldes.set(i, 0);
+        }
+        contagem.reset();
+        soma.reset();
+        maximo.reset();
+    }
+}
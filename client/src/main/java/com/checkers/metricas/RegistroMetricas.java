@@ -0,0 +1,183 @@
+package com.checkers.metricas;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Conjunto de métricas com nome, exportável em texto do Prometheus ou em JSON.
+ *
+ * O registro acontece uma vez, na criação; quem mede guarda o {@link LongAdder} ou o
+ * {@link Histograma} devolvido e o atualiza direto, sem passar pelo registro nem
+ * pegar lock. Os histogramas recebem nanossegundos e são exportados em segundos,
+ * como resumo (p50, p90, p99, p99.9, soma, contagem); o máximo vai numa família
+ * {@code <nome>_max} à parte, do tipo gauge, porque um resumo não tem essa série.
+ */
+public final class RegistroMetricas {
+
+    private static final double[] QUANTIS = {0.5, 0.9, 0.99, 0.999};
+
+    private static final class Familia {
+        final String nome;
+        final String ajuda;
+        final boolean histograma;
+        final List<String[]> rotulos = new ArrayList<>();
+        final List<Object> series = new ArrayList<>();
+
+        Familia(String nome, String ajuda, boolean histograma) {
+            this.nome = nome;
+            this.ajuda = ajuda;
+            this.histograma = histograma;
+        }
+    }
+
+    private final Map<String, Familia> familias = new LinkedHashMap<>();
+
+    /**
+     * Contador monotônico. Os {@code rotulos} vêm em pares nome, valor; o mesmo nome
+     * com rótulos diferentes forma uma família só.
+     */
+    public synchronized LongAdder contador(String nome, String ajuda, String... rotulos) {
+        LongAdder contador = new LongAdder();
+        familia(nome, ajuda, false, rotulos).series.add(contador);
+        return contador;
+    }
+
+    /** Histograma de durações em nanossegundos. */
+    public synchronized Histograma histograma(String nome, String ajuda, String... rotulos) {
+        Histograma histograma = new Histograma();
+        familia(nome, ajuda, true, rotulos).series.add(histograma);
+        return histograma;
+    }
+
+    private Familia familia(String nome, String ajuda, boolean histograma, String[] rotulos) {
+        if (rotulos.length % 2 != 0) {
+            throw new IllegalArgumentException("Rótulos devem vir em pares nome, valor: " + nome);
+        }
+        Familia familia = familias.computeIfAbsent(nome, n -> new Familia(n, ajuda, histograma));
+        if (familia.histograma != histograma) {
+            throw new IllegalArgumentException("Métrica já registrada com outro tipo: " + nome);
+        }
+        familia.rotulos.add(rotulos.clone());
+        return familia;
+    }
+
+    /** Formato de exposição em texto do Prometheus (0.0.4). */
+    public synchronized String prometheus() {
+        StringBuilder sb = new StringBuilder();
+        for (Familia f : familias.values()) {
+            sb.append("# HELP ").append(f.nome).append(' ').append(f.ajuda).append('\n');
+            sb.append("# TYPE ").append(f.nome).append(f.histograma ? " summary\n" : " counter\n");
+            for (int i = 0; i < f.series.size(); i++) {
+                String[] rotulos = f.rotulos.get(i);
+                if (!f.histograma) {
+                    linha(sb, f.nome, rotulos, null, ((LongAdder) f.series.get(i)).sum());
+                    continue;
+                }
+                Histograma h = (Histograma) f.series.get(i);
+                for (double q : QUANTIS) {
+                    linha(sb, f.nome, rotulos, formatar(q), segundos(h.percentil(q * 100)));
+                }
+                linha(sb, f.nome + "_sum", rotulos, null, segundos(h.getSoma()));
+                linha(sb, f.nome + "_count", rotulos, null, h.getContagem());
+            }
+            if (!f.histograma) continue;
+            String maximo = f.nome + "_max";
+            sb.append("# HELP ").append(maximo).append(' ').append(f.ajuda).append(" (máximo)\n");
+            sb.append("# TYPE ").append(maximo).append(" gauge\n");
+            for (int i = 0; i < f.series.size(); i++) {
+                linha(sb, maximo, f.rotulos.get(i), null, segundos(((Histograma) f.series.get(i)).getMaximo()));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void linha(StringBuilder sb, String nome, String[] rotulos, String quantil, Object valor) {
+        sb.append(nome);
+        if (rotulos.length > 0 || quantil != null) {
+            sb.append('{');
+            for (int i = 0; i < rotulos.length; i += 2) {
+                if (i > 0) sb.append(',');
+                sb.append(rotulos[i]).append("=\"").append(escapar(rotulos[i + 1])).append('"');
+            }
+            if (quantil != null) {
+                if (rotulos.length > 0) sb.append(',');
+                sb.append("quantile=\"").append(quantil).append('"');
+            }
+            sb.append('}');
+        }
+        sb.append(' ').append(valor instanceof Double ? formatar((Double) valor) : valor).append('\n');
+    }
+
+    /** Retrato de todas as séries em JSON: uma entrada por série, com os rótulos. */
+    public synchronized String json() {
+        StringBuilder sb = new StringBuilder("{\"metricas\":[");
+        boolean primeira = true;
+        for (Familia f : familias.values()) {
+            for (int i = 0; i < f.series.size(); i++) {
+                if (!primeira) sb.append(',');
+                primeira = false;
+                sb.append("\n  {\"nome\":\"").append(escapar(f.nome)).append("\",\"rotulos\":{");
+                String[] rotulos = f.rotulos.get(i);
+                for (int j = 0; j < rotulos.length; j += 2) {
+                    if (j > 0) sb.append(',');
+                    sb.append('"').append(escapar(rotulos[j])).append("\":\"").append(escapar(rotulos[j + 1])).append('"');
+                }
+                sb.append('}');
+                if (!f.histograma) {
+                    sb.append(",\"valor\":").append(((LongAdder) f.series.get(i)).sum()).append('}');
+                    continue;
+                }
+                Histograma h = (Histograma) f.series.get(i);
+                sb.append(",\"contagem\":").append(h.getContagem())
+                        .append(",\"soma_s\":").append(formatar(segundos(h.getSoma())))
+                        .append(",\"max_s\":").append(formatar(segundos(h.getMaximo())));
+                for (double q : QUANTIS) {
+                    sb.append(",\"p").append(formatar(q * 100)).append("_s\":")
+                            .append(formatar(segundos(h.percentil(q * 100))));
+                }
+                sb.append('}');
+            }
+        }
+        return sb.append("\n]}\n").toString();
+    }
+
+    /**
+     * Grava o retrato atual: JSON se o arquivo termina em {@code .json}, senão texto do
+     * Prometheus. Escreve num temporário e renomeia, então quem lê (por exemplo o
+     * coletor de arquivos do node_exporter) nunca vê um arquivo pela metade.
+     */
+    public void exportar(Path arquivo) throws IOException {
+        String conteudo = arquivo.toString().endsWith(".json") ? json() : prometheus();
+        Path temporario = Files.createTempFile(arquivo.toAbsolutePath().getParent(), "metricas", ".tmp");
+        try {
+            Files.write(temporario, conteudo.getBytes(StandardCharsets.UTF_8));
+            Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporario);
+        }
+    }
+
+    private static double segundos(long nanos) {
+        return nanos / 1e9;
+    }
+
+    private static String formatar(double valor) {
+        if (valor == Math.rint(valor) && Math.abs(valor) < 1e15) {
+            return Long.toString((long) valor);
+        }
+        return String.format(Locale.ROOT, "%.9g", valor).replaceFirst("\\.?0+(e|$)", "$1");
+    }
+
+    private static String escapar(String texto) {
+        return texto.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
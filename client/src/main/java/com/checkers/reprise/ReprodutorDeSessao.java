@@ -0,0 +1,463 @@
+package com.checkers.reprise;
+
+import com.checkers.client.ProcessadorDeMensagens;
+import com.checkers.client.SincronizadorTabuleiro;
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.GameMessage;
+import com.checkers.grpc.Move;
+import com.checkers.grpc.MoveSequence;
+import com.checkers.grpc.OpponentMove;
+import com.checkers.grpc.RecordedMessage;
+import com.checkers.grpc.RecordingHeader;
+import com.google.protobuf.InvalidProtocolBufferException;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reproduz sessões gravadas pelo cliente ({@code damas.gravacao.pasta}) no mesmo
+ * caminho de sincronização da mesa e do bot: cada mensagem recebida é decodificada e
+ * entregue ao {@link ProcessadorDeMensagens}, como a {@code SessaoDeJogo} faz com eles.
+ * Os lances enviados são jogados salto a salto como na mesa (aplicados sem esperar o
+ * eco) e passam pelo envio do processador; o que ele envia não sai daqui, só os
+ * pedidos de snapshot são comparados com os da gravação.
+ *
+ * O ritmo é o da gravação multiplicado pela velocidade (1 = tempo real), ou o mais
+ * rápido possível ({@code max}). O relatório traz a vazão (mensagens por segundo de
+ * processamento e tempo por mensagem) e, no modo com ritmo, o atraso em relação ao
+ * instante previsto.
+ *
+ * Divergências são detectadas contra uma posição de referência montada só com os ecos
+ * do servidor na ordem dos números de lance:
+ * <ul>
+ *   <li>um eco que não é legal na referência, ou um snapshot que não bate com ela;</li>
+ *   <li>a posição do sincronizador diferente da referência no mesmo lance, sem lances
+ *       otimistas pendentes nem snapshot aguardado;</li>
+ *   <li>um pedido de snapshot que a gravação não tem (ou o contrário). Sem o snapshot
+ *       correspondente na gravação, o sincronizador é ressincronizado pela referência
+ *       para a reprodução continuar.</li>
+ * </ul>
+ *
+ * Uso: {@code ReprodutorDeSessao <sessao...> [--velocidade N|max] [--repeticoes N]}.
+ * Com repetições, cada passada é medida à parte (as primeiras aquecem o JIT).
+ */
+public final class ReprodutorDeSessao {
+
+    /** Quantas mensagens um pedido de snapshot espera pelo RESYNC equivalente da gravação. */
+    private static final int JANELA_RESYNC = 8;
+    private static final int MAX_DETALHES = 5;
+
+    /** Sessão gravada, com as mensagens ainda codificadas como chegaram pelo stream. */
+    public static final class Gravacao {
+        final Path arquivo;
+        final RecordingHeader cabecalho;
+        final long[] instantes;
+        final boolean[] recebidas;
+        final byte[][] mensagens;
+        final boolean cortada;
+
+        private Gravacao(Path arquivo, RecordingHeader cabecalho, List<RecordedMessage> registros, boolean cortada) {
+            this.arquivo = arquivo;
+            this.cabecalho = cabecalho;
+            this.cortada = cortada;
+            int n = registros.size();
+            instantes = new long[n];
+            recebidas = new boolean[n];
+            mensagens = new byte[n][];
+            for (int i = 0; i < n; i++) {
+                RecordedMessage registro = registros.get(i);
+                instantes[i] = registro.getTimeNs();
+                recebidas[i] = registro.getDirection() == RecordedMessage.Direction.INBOUND;
+                mensagens[i] = registro.getMessage().toByteArray();
+            }
+        }
+
+        public int tamanho() {
+            return mensagens.length;
+        }
+
+        /** Lê a gravação inteira; um registro cortado no fim (gravação interrompida) é descartado. */
+        public static Gravacao ler(Path arquivo) throws IOException {
+            try (InputStream in = new BufferedInputStream(Files.newInputStream(arquivo))) {
+                RecordingHeader cabecalho = RecordingHeader.parseDelimitedFrom(in);
+                if (cabecalho == null) throw new IOException("Gravação vazia: " + arquivo);
+                List<RecordedMessage> registros = new ArrayList<>();
+                boolean cortada = false;
+                while (true) {
+                    RecordedMessage registro;
+                    try {
+                        registro = RecordedMessage.parseDelimitedFrom(in);
+                    } catch (InvalidProtocolBufferException e) {
+                        cortada = true;
+                        break;
+                    }
+                    if (registro == null) break;
+                    registros.add(registro);
+                }
+                return new Gravacao(arquivo, cabecalho, registros, cortada);
+            }
+        }
+    }
+
+    /** Resultado de uma passada por uma gravação. */
+    public static final class Relatorio {
+        int mensagens;
+        long processamentoNs;
+        long duracaoNs;
+        long[] porMensagemNs;
+        long atrasoMaximoNs;
+        long atrasoTotalNs;
+        int partidas;
+        int ressincronizacoes;
+        int ressincronizacoesGravadas;
+        int divergencias;
+        final List<String> detalhes = new ArrayList<>();
+
+        public int getDivergencias() {
+            return divergencias;
+        }
+
+        void divergencia(int indice, long instanteNs, String texto) {
+            divergencias++;
+            if (detalhes.size() < MAX_DETALHES) {
+                detalhes.add(String.format(Locale.ROOT, "#%d (%.3f s): %s", indice, instanteNs / 1e9, texto));
+            }
+        }
+    }
+
+    private final ProcessadorDeMensagens processador = new ProcessadorDeMensagens("reprise",
+            Registro.de("REPRISE"), new ProcessadorDeMensagens.Ouvinte() {});
+    private final Posicao posicao = processador.getPosicao();
+    private final SincronizadorTabuleiro sincronizador = processador.getSincronizador();
+    private final int[] caminho = new int[ListaMovimentos.MAX_SALTOS + 1];
+    // Posição só com os ecos do servidor; conhecida = falso depois de uma lacuna na gravação
+    private final Posicao referencia = new Posicao();
+    private int seqReferencia;
+    private boolean referenciaConhecida;
+    // Pedido de snapshot da reprodução ainda sem o RESYNC da gravação, e há quantas mensagens
+    private boolean pedidoSemPar;
+    private int mensagensDesdePedido;
+    // RESYNC da gravação que a reprodução ainda não pediu
+    private int pedidosGravadosSemPar;
+
+    /**
+     * Reproduz a gravação.
+     *
+     * @param velocidade multiplicador do ritmo gravado; zero ou negativo para o mais rápido possível
+     */
+    public Relatorio reproduzir(Gravacao gravacao, double velocidade) throws InvalidProtocolBufferException {
+        reiniciar();
+        Relatorio relatorio = new Relatorio();
+        int n = gravacao.tamanho();
+        relatorio.mensagens = n;
+        relatorio.porMensagemNs = new long[n];
+        boolean comRitmo = velocidade > 0;
+        long inicio = System.nanoTime();
+        for (int i = 0; i < n; i++) {
+            if (comRitmo) {
+                long previsto = inicio + (long) (gravacao.instantes[i] / velocidade);
+                long espera;
+                while ((espera = previsto - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(espera);
+                }
+                long atraso = System.nanoTime() - previsto;
+                relatorio.atrasoTotalNs += atraso;
+                relatorio.atrasoMaximoNs = Math.max(relatorio.atrasoMaximoNs, atraso);
+            }
+            long antes = System.nanoTime();
+            GameMessage message = GameMessage.parseFrom(gravacao.mensagens[i]);
+            if (gravacao.recebidas[i]) {
+                receber(message, i, gravacao.instantes[i], relatorio);
+            } else {
+                enviar(message, i, gravacao.instantes[i], relatorio);
+            }
+            long tempo = System.nanoTime() - antes;
+            relatorio.porMensagemNs[i] = tempo;
+            relatorio.processamentoNs += tempo;
+        }
+        relatorio.duracaoNs = System.nanoTime() - inicio;
+        if (pedidoSemPar) {
+            relatorio.divergencia(n, n > 0 ? gravacao.instantes[n - 1] : 0,
+                    "a reprodução pediu snapshot no lance " + sincronizador.getSeq() + " e a gravação acabou");
+        }
+        relatorio.ressincronizacoes = sincronizador.getRessincronizacoes();
+        return relatorio;
+    }
+
+    private void reiniciar() {
+        processador.setConexao(new ProcessadorDeMensagens.Conexao() {
+            @Override
+            public boolean enviar(GameMessage message) {
+                if (message.getMessageCase() == GameMessage.MessageCase.RESYNC) pedirSnapshot();
+                return true;
+            }
+
+            @Override
+            public void setRetomavel(boolean retomavel) {
+            }
+        });
+        sincronizador.reiniciar();
+        referencia.copiarDe(Posicao.inicial());
+        seqReferencia = 0;
+        referenciaConhecida = true;
+        pedidoSemPar = false;
+        pedidosGravadosSemPar = 0;
+    }
+
+    /** Mensagem do servidor: primeiro a referência, depois o processador da mesa e do bot. */
+    private void receber(GameMessage message, int indice, long instanteNs, Relatorio relatorio) {
+        switch (message.getMessageCase()) {
+            case RESUMED:
+                // A SessaoDeJogo não repassa a mensagem: só avisa a retomada
+                processador.retomar(message.getResumed().getSeq());
+                conferir(indice, instanteNs, relatorio);
+                return;
+
+            case START:
+                referencia.copiarDe(Posicao.inicial());
+                seqReferencia = 0;
+                referenciaConhecida = true;
+                pedidoSemPar = false;
+                pedidosGravadosSemPar = 0;
+                break;
+
+            case OPPONENT_MOVE:
+                OpponentMove op = message.getOpponentMove();
+                ecoNaReferencia(op.getSeq(), Bitboard.indice(op.getFromRow(), op.getFromCol()),
+                        Bitboard.indice(op.getToRow(), op.getToCol()), indice, instanteNs, relatorio);
+                break;
+
+            case MOVE_SEQUENCE:
+                MoveSequence sequencia = message.getMoveSequence();
+                for (int j = 0; j + 1 < sequencia.getPathCount(); j++) {
+                    ecoNaReferencia(sequencia.getSeq() == 0 ? 0 : sequencia.getSeq() + j,
+                            sequencia.getPath(j), sequencia.getPath(j + 1), indice, instanteNs, relatorio);
+                }
+                break;
+
+            case SNAPSHOT:
+                Posicao doServidor = SincronizadorTabuleiro.posicaoDe(message.getSnapshot());
+                int seq = message.getSnapshot().getSeq();
+                if (referenciaConhecida && seq == seqReferencia && !referencia.equals(doServidor)) {
+                    relatorio.divergencia(indice, instanteNs, "snapshot do lance " + seq
+                            + " diferente dos ecos\n" + lado(referencia, doServidor));
+                }
+                if (!referenciaConhecida || seq >= seqReferencia) {
+                    referencia.copiarDe(doServidor);
+                    seqReferencia = seq;
+                    referenciaConhecida = true;
+                }
+                pedidoSemPar = false;
+                break;
+
+            case GAME_OVER:
+                relatorio.partidas++;
+                break;
+
+            default:
+                break;
+        }
+        processador.processar(message);
+        conferir(indice, instanteNs, relatorio);
+    }
+
+    /** Mensagem do cliente: lances são jogados como na mesa; RESYNC casa com os pedidos da reprodução. */
+    private void enviar(GameMessage message, int indice, long instanteNs, Relatorio relatorio) {
+        switch (message.getMessageCase()) {
+            case MOVE:
+                Move lance = message.getMove();
+                caminho[0] = Bitboard.indice(lance.getFromRow(), lance.getFromCol());
+                caminho[1] = Bitboard.indice(lance.getToRow(), lance.getToCol());
+                jogar(2);
+                break;
+
+            case MOVE_SEQUENCE:
+                MoveSequence sequencia = message.getMoveSequence();
+                int n = Math.min(sequencia.getPathCount(), caminho.length);
+                for (int j = 0; j < n; j++) {
+                    caminho[j] = sequencia.getPath(j);
+                }
+                jogar(n);
+                break;
+
+            case RESYNC:
+                relatorio.ressincronizacoesGravadas++;
+                if (pedidoSemPar) {
+                    pedidoSemPar = false;
+                } else {
+                    pedidosGravadosSemPar++;
+                    relatorio.divergencia(indice, instanteNs, "a gravação pediu snapshot no lance "
+                            + message.getResync().getLastSeq() + " e a reprodução não");
+                }
+                break;
+
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Joga o lance gravado como a mesa: salto a salto, sem esperar o eco. A mesa só envia
+     * saltos legais na posição local; se aqui algum não for (ou se o tabuleiro espera um
+     * snapshot), os demais ficam para o eco resolver.
+     */
+    private void jogar(int n) {
+        if (n < 2) return;
+        if (!sincronizador.isAguardandoSnapshot()) {
+            for (int j = 0; j + 1 < n; j++) {
+                if (!processador.jogarSalto(caminho[j], caminho[j + 1])) break;
+            }
+        }
+        processador.enviarCaminho(caminho, n);
+    }
+
+    private void pedirSnapshot() {
+        sincronizador.pedidoDeResync();
+        if (pedidosGravadosSemPar > 0) {
+            pedidosGravadosSemPar--;
+        } else {
+            pedidoSemPar = true;
+            mensagensDesdePedido = 0;
+        }
+    }
+
+    private void ecoNaReferencia(int seq, int origem, int destino, int indice, long instanteNs, Relatorio relatorio) {
+        if (seq != 0) {
+            if (seq <= seqReferencia) return;
+            if (seq != seqReferencia + 1) {
+                // Lances que não estão na gravação: a referência só volta com um snapshot
+                referenciaConhecida = false;
+                seqReferencia = seq;
+                return;
+            }
+            seqReferencia = seq;
+        }
+        if (!referenciaConhecida) return;
+        if (!referencia.saltoLegal(origem, destino)) {
+            relatorio.divergencia(indice, instanteNs, "eco ilegal " + origem + "-" + destino + " no lance " + seq);
+            referenciaConhecida = false;
+            return;
+        }
+        referencia.aplicarSalto(origem, destino);
+    }
+
+    /** Compara o sincronizador com a referência quando os dois estão no mesmo lance. */
+    private void conferir(int indice, long instanteNs, Relatorio relatorio) {
+        if (pedidoSemPar && ++mensagensDesdePedido > JANELA_RESYNC) {
+            pedidoSemPar = false;
+            relatorio.divergencia(indice, instanteNs, "a reprodução pediu snapshot no lance "
+                    + sincronizador.getSeq() + " e a gravação não");
+            if (referenciaConhecida) {
+                sincronizador.aplicar(SincronizadorTabuleiro.snapshot(referencia, seqReferencia));
+            }
+            return;
+        }
+        if (!referenciaConhecida || sincronizador.isAguardandoSnapshot() || sincronizador.temPendentes()
+                || sincronizador.getSeq() != seqReferencia || posicao.equals(referencia)) {
+            return;
+        }
+        relatorio.divergencia(indice, instanteNs, "tabuleiro diferente da referência no lance "
+                + seqReferencia + "\n" + lado(referencia, posicao));
+        sincronizador.aplicar(SincronizadorTabuleiro.snapshot(referencia, seqReferencia));
+    }
+
+    /** Dois tabuleiros lado a lado: referência à esquerda. */
+    private static String lado(Posicao esquerda, Posicao direita) {
+        String[] a = esquerda.toString().split("\n");
+        String[] b = direita.toString().split("\n");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < a.length; i++) {
+            sb.append("    ").append(a[i]).append("   ").append(b[i]).append('\n');
+        }
+        sb.append("    vez ").append(esquerda.isVezDasBrancas() ? "brancas" : "pretas ")
+                .append("     vez ").append(direita.isVezDasBrancas() ? "brancas" : "pretas").append('\n');
+        return sb.toString();
+    }
+
+    private static void imprimir(Gravacao gravacao, Relatorio r, double velocidade) {
+        long[] tempos = r.porMensagemNs.clone();
+        Arrays.sort(tempos);
+        double segundos = r.processamentoNs / 1e9;
+        System.out.printf(Locale.ROOT, "%s (%s, %d mensagens%s)%n", gravacao.arquivo.getFileName(),
+                gravacao.cabecalho.getPlayerName(), r.mensagens, gravacao.cortada ? ", cortada" : "");
+        System.out.printf(Locale.ROOT, "  duração %.3f s, processamento %.3f ms: %.0f msg/s, média %d ns, p50 %d ns, p99 %d ns%n",
+                r.duracaoNs / 1e9, r.processamentoNs / 1e6,
+                segundos > 0 ? r.mensagens / segundos : 0.0,
+                r.mensagens > 0 ? r.processamentoNs / r.mensagens : 0,
+                percentil(tempos, 0.50), percentil(tempos, 0.99));
+        if (velocidade > 0 && r.mensagens > 0) {
+            System.out.printf(Locale.ROOT, "  atraso no ritmo %.1fx: médio %d µs, máximo %d µs%n", velocidade,
+                    TimeUnit.NANOSECONDS.toMicros(r.atrasoTotalNs / r.mensagens),
+                    TimeUnit.NANOSECONDS.toMicros(r.atrasoMaximoNs));
+        }
+        System.out.printf(Locale.ROOT, "  partidas %d, ressincronizações %d (gravadas %d), divergências %d%n",
+                r.partidas, r.ressincronizacoes, r.ressincronizacoesGravadas, r.divergencias);
+        for (String detalhe : r.detalhes) {
+            System.out.println("  ! " + detalhe);
+        }
+    }
+
+    private static long percentil(long[] ordenados, double p) {
+        if (ordenados.length == 0) return 0;
+        return ordenados[Math.min(ordenados.length - 1, (int) (p * ordenados.length))];
+    }
+
+    public static void main(String[] args) throws IOException {
+        List<Path> arquivos = new ArrayList<>();
+        double velocidade = 0;
+        int repeticoes = 1;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--velocidade") && i + 1 < args.length) {
+                String valor = args[++i];
+                velocidade = valor.equals("max") ? 0 : Double.parseDouble(valor);
+            } else if (args[i].equals("--repeticoes") && i + 1 < args.length) {
+                repeticoes = Integer.parseInt(args[++i]);
+            } else {
+                arquivos.add(Paths.get(args[i]));
+            }
+        }
+        if (arquivos.isEmpty()) {
+            System.err.println("Uso: ReprodutorDeSessao <sessao...> [--velocidade N|max] [--repeticoes N]");
+            System.exit(2);
+        }
+
+        List<Gravacao> gravacoes = new ArrayList<>();
+        for (Path arquivo : arquivos) {
+            gravacoes.add(Gravacao.ler(arquivo));
+        }
+
+        ReprodutorDeSessao reprodutor = new ReprodutorDeSessao();
+        int divergencias = 0;
+        for (int passada = 1; passada <= repeticoes; passada++) {
+            if (repeticoes > 1) System.out.println("== Passada " + passada);
+            long mensagens = 0;
+            long processamentoNs = 0;
+            for (Gravacao gravacao : gravacoes) {
+                Relatorio relatorio = reprodutor.reproduzir(gravacao, velocidade);
+                if (gravacoes.size() == 1 || repeticoes == 1) imprimir(gravacao, relatorio, velocidade);
+                mensagens += relatorio.mensagens;
+                processamentoNs += relatorio.processamentoNs;
+                divergencias += relatorio.divergencias;
+            }
+            if (gravacoes.size() > 1) {
+                System.out.printf(Locale.ROOT, "Total: %d sessões, %d mensagens, %.3f ms de processamento, %.0f msg/s%n",
+                        gravacoes.size(), mensagens, processamentoNs / 1e6,
+                        processamentoNs > 0 ? mensagens / (processamentoNs / 1e9) : 0.0);
+            }
+        }
+        if (divergencias > 0) System.exit(1);
+    }
+}
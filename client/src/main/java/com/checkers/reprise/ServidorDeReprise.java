@@ -0,0 +1,322 @@
+package com.checkers.reprise;
+
+import com.checkers.arquivo.LeitorDePartidas;
+import com.checkers.arquivo.Partida;
+import com.checkers.client.SincronizadorTabuleiro;
+import com.checkers.diagnostico.Registro;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Posicao;
+import com.checkers.grpc.CheckersGameGrpc;
+import com.checkers.grpc.GameOver;
+import com.checkers.grpc.RoomUpdate;
+import com.checkers.grpc.WatchRequest;
+import com.checkers.grpc.WatchUpdate;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor substituto para testar espectadores: reproduz partidas de um arquivo de
+ * partidas ({@link LeitorDePartidas}) em várias salas ao mesmo tempo e as transmite por
+ * {@code WatchGames}, como o servidor Node faz com as partidas ao vivo.
+ *
+ * Cada sala reproduz uma partida gravada, um salto a cada {@code damas.reprise.intervaloMs}
+ * (600 ms, o ritmo de um jogo rápido) dividido pela velocidade; ao fim, uma sala nova
+ * começa com a próxima partida do arquivo, em ciclo. Salas, espectadores e lotes vivem
+ * no laço {@code reprise}: a cada {@value #LOTE_MS} ms cada espectador recebe um
+ * {@link WatchUpdate} com as novidades das suas salas. Espectador com o stream cheio não
+ * recebe nada até o gRPC avisar que pode; se uma sala acumular mais de
+ * {@value #MAX_SALTOS_PENDENTES} saltos, eles viram um snapshot.
+ *
+ * Uso: {@code ServidorDeReprise <partidas> [porta] [salas] [velocidade]}
+ */
+public final class ServidorDeReprise extends CheckersGameGrpc.CheckersGameImplBase {
+
+    private static final Registro REGISTRO = Registro.de("REPRISE");
+
+    static final long LOTE_MS = 50;
+    static final int MAX_SALTOS_PENDENTES = 64;
+    private static final long PAUSA_ENTRE_PARTIDAS_MS = 2000;
+
+    /** Partida do arquivo, copiada para a memória (a {@link Partida} só vale até o leitor avançar). */
+    private static final class Gravada {
+        final String brancas;
+        final String pretas;
+        final int[] saltos;
+        final String vencedor;
+        final String motivo;
+
+        Gravada(Partida partida) {
+            this.brancas = partida.getBrancas();
+            this.pretas = partida.getPretas();
+            this.saltos = new int[partida.getNumSaltos()];
+            for (int i = 0; i < saltos.length; i++) {
+                saltos[i] = partida.getSalto(i);
+            }
+            switch (partida.getResultado()) {
+                case BRANCAS:
+                    this.vencedor = "WHITE";
+                    break;
+                case PRETAS:
+                    this.vencedor = "BLACK";
+                    break;
+                case DESCONEXAO:
+                    this.vencedor = "DISCONNECT";
+                    break;
+                default:
+                    this.vencedor = "";
+            }
+            this.motivo = partida.getMotivo();
+        }
+    }
+
+    /** Sala em reprodução; {@code seq} é o número do último salto aplicado. */
+    private static final class Sala {
+        final int id;
+        final Gravada partida;
+        final Posicao posicao = Posicao.inicial();
+        int seq;
+        boolean terminada;
+
+        Sala(int id, Gravada partida) {
+            this.id = id;
+            this.partida = partida;
+        }
+    }
+
+    /** Novidades de uma sala ainda não enviadas a um espectador. */
+    private static final class Pendente {
+        final Sala sala;
+        boolean snapshot;
+        boolean atrasado;
+        int seq;
+        int[] saltos = new int[16];
+        int numSaltos;
+        boolean fim;
+
+        Pendente(Sala sala) {
+            this.sala = sala;
+        }
+
+        void adicionar(int salto, int seqDoSalto) {
+            if (snapshot) return;
+            if (numSaltos == 0) seq = seqDoSalto;
+            if (numSaltos == MAX_SALTOS_PENDENTES) {
+                // Espectador atrasado: o snapshot do envio já inclui todos os saltos
+                snapshot = true;
+                atrasado = true;
+                numSaltos = 0;
+                return;
+            }
+            if (numSaltos == saltos.length) saltos = Arrays.copyOf(saltos, saltos.length * 2);
+            saltos[numSaltos++] = salto;
+        }
+    }
+
+    private static final class Espectador {
+        final ServerCallStreamObserver<WatchUpdate> stream;
+        final Set<Integer> filtro;
+        final Map<Integer, Pendente> pendentes = new LinkedHashMap<>();
+
+        Espectador(ServerCallStreamObserver<WatchUpdate> stream, List<Integer> salas) {
+            this.stream = stream;
+            this.filtro = salas.isEmpty() ? null : new HashSet<>(salas);
+        }
+
+        boolean quer(Sala sala) {
+            return filtro == null || filtro.contains(sala.id);
+        }
+
+        Pendente pendente(Sala sala) {
+            return pendentes.computeIfAbsent(sala.id, id -> new Pendente(sala));
+        }
+    }
+
+    private final List<Gravada> partidas;
+    private final long intervaloNanos;
+    private final ScheduledExecutorService laco = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "reprise");
+        t.setDaemon(true);
+        return t;
+    });
+    private final Random sorteio = new Random(1);
+
+    // Só no laço reprise
+    private final Map<Integer, Sala> salas = new HashMap<>();
+    private final List<Espectador> espectadores = new ArrayList<>();
+    private int proximaSala = 1;
+    private int proximaPartida;
+    private long saltosTransmitidos;
+    private long snapshotsPorAtraso;
+
+    ServidorDeReprise(List<Gravada> partidas, double velocidade) {
+        this.partidas = partidas;
+        long intervaloMs = Long.getLong("damas.reprise.intervaloMs", 600);
+        this.intervaloNanos = Math.max(1, (long) (TimeUnit.MILLISECONDS.toNanos(intervaloMs) / velocidade));
+    }
+
+    /** Abre as salas e começa os lotes. */
+    public void iniciar(int numSalas) {
+        laco.execute(() -> {
+            for (int i = 0; i < numSalas; i++) {
+                // Começos espalhados ao longo de um salto, para as salas não andarem juntas
+                laco.schedule(this::abrirSala, sorteio.nextInt((int) Math.min(Integer.MAX_VALUE, intervaloNanos)),
+                        TimeUnit.NANOSECONDS);
+            }
+        });
+        laco.scheduleAtFixedRate(this::enviarLotes, LOTE_MS, LOTE_MS, TimeUnit.MILLISECONDS);
+        laco.scheduleAtFixedRate(() -> REGISTRO.info(salas.size() + " salas, " + espectadores.size()
+                + " espectador(es), " + saltosTransmitidos + " saltos, " + snapshotsPorAtraso
+                + " snapshot(s) por atraso"), 10, 10, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void watchGames(WatchRequest pedido, StreamObserver<WatchUpdate> resposta) {
+        ServerCallStreamObserver<WatchUpdate> stream = (ServerCallStreamObserver<WatchUpdate>) resposta;
+        Espectador espectador = new Espectador(stream, pedido.getRoomIdsList());
+        stream.setOnCancelHandler(() -> laco.execute(() -> {
+            espectadores.remove(espectador);
+            REGISTRO.info("Espectador saiu");
+        }));
+        // Stream liberado depois de cheio: envia o acumulado sem esperar o próximo lote
+        stream.setOnReadyHandler(() -> laco.execute(() -> enviar(espectador)));
+        laco.execute(() -> {
+            espectadores.add(espectador);
+            for (Sala sala : salas.values()) {
+                if (!sala.terminada && espectador.quer(sala)) espectador.pendente(sala).snapshot = true;
+            }
+            REGISTRO.info("Novo espectador (" + (espectador.filtro == null ? "todas as salas" : "salas " + espectador.filtro) + ")");
+        });
+    }
+
+    // ==================== SALAS (laço reprise) ====================
+
+    private void abrirSala() {
+        Sala sala = new Sala(proximaSala++, partidas.get(proximaPartida));
+        proximaPartida = (proximaPartida + 1) % partidas.size();
+        salas.put(sala.id, sala);
+        for (Espectador espectador : espectadores) {
+            if (espectador.quer(sala)) espectador.pendente(sala).snapshot = true;
+        }
+        laco.schedule(() -> avancar(sala), intervaloNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void avancar(Sala sala) {
+        int[] saltos = sala.partida.saltos;
+        if (sala.seq < saltos.length) {
+            int salto = saltos[sala.seq];
+            sala.posicao.aplicarSalto(Bitboard.origemDoSalto(salto), Bitboard.destinoDoSalto(salto));
+            sala.seq++;
+            saltosTransmitidos++;
+            for (Espectador espectador : espectadores) {
+                if (espectador.quer(sala)) espectador.pendente(sala).adicionar(salto, sala.seq);
+            }
+        }
+        if (sala.seq < saltos.length) {
+            laco.schedule(() -> avancar(sala), intervaloNanos, TimeUnit.NANOSECONDS);
+            return;
+        }
+
+        sala.terminada = true;
+        for (Espectador espectador : espectadores) {
+            if (espectador.quer(sala)) espectador.pendente(sala).fim = true;
+        }
+        laco.schedule(() -> {
+            salas.remove(sala.id);
+            abrirSala();
+        }, PAUSA_ENTRE_PARTIDAS_MS, TimeUnit.MILLISECONDS);
+    }
+
+    // ==================== LOTES (laço reprise) ====================
+
+    private void enviarLotes() {
+        for (Espectador espectador : espectadores) {
+            enviar(espectador);
+        }
+    }
+
+    private void enviar(Espectador espectador) {
+        if (espectador.pendentes.isEmpty() || !espectador.stream.isReady() || espectador.stream.isCancelled()) {
+            return;
+        }
+        WatchUpdate.Builder lote = WatchUpdate.newBuilder();
+        for (Pendente pendente : espectador.pendentes.values()) {
+            Sala sala = pendente.sala;
+            RoomUpdate.Builder atualizacao = lote.addRoomsBuilder().setRoomId(sala.id);
+            if (pendente.snapshot) {
+                if (pendente.atrasado) snapshotsPorAtraso++;
+                atualizacao.setSnapshot(SincronizadorTabuleiro.snapshot(sala.posicao, sala.seq))
+                        .setWhiteName(sala.partida.brancas)
+                        .setBlackName(sala.partida.pretas);
+            } else if (pendente.numSaltos > 0) {
+                atualizacao.setSeq(pendente.seq);
+                for (int i = 0; i < pendente.numSaltos; i++) {
+                    atualizacao.addHops(pendente.saltos[i]);
+                }
+            }
+            if (pendente.fim) {
+                atualizacao.setGameOver(GameOver.newBuilder()
+                        .setWinner(sala.partida.vencedor)
+                        .setReason(sala.partida.motivo));
+            }
+        }
+        espectador.pendentes.clear();
+        espectador.stream.onNext(lote.build());
+    }
+
+    // ==================== CARGA DO ARQUIVO ====================
+
+    /** Lê as partidas completas do arquivo. */
+    static List<Gravada> carregar(Path arquivo) throws IOException {
+        List<Gravada> partidas = new ArrayList<>();
+        try (LeitorDePartidas leitor = LeitorDePartidas.abrir(arquivo)) {
+            while (leitor.proxima()) {
+                Partida partida = leitor.getPartida();
+                if (partida.isCompleta() && partida.getNumSaltos() > 0) partidas.add(new Gravada(partida));
+            }
+        }
+        return partidas;
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 1) {
+            System.err.println("Uso: ServidorDeReprise <partidas> [porta] [salas] [velocidade]");
+            System.exit(2);
+        }
+        Path arquivo = Paths.get(args[0]);
+        int porta = args.length > 1 ? Integer.parseInt(args[1]) : 50051;
+        int numSalas = args.length > 2 ? Integer.parseInt(args[2]) : 24;
+        double velocidade = args.length > 3 ? Double.parseDouble(args[3]) : 10;
+
+        List<Gravada> partidas = carregar(arquivo);
+        if (partidas.isEmpty()) {
+            System.err.println("Nenhuma partida completa em " + arquivo);
+            System.exit(1);
+        }
+
+        ServidorDeReprise reprise = new ServidorDeReprise(partidas, velocidade);
+        Server servidor = ServerBuilder.forPort(porta).addService(reprise).build().start();
+        REGISTRO.info(partidas.size() + " partidas de " + arquivo + " em " + numSalas + " salas, "
+                + velocidade + "x, porta " + porta);
+        reprise.iniciar(numSalas);
+        Runtime.getRuntime().addShutdownHook(new Thread(servidor::shutdown));
+        servidor.awaitTermination();
+    }
+}
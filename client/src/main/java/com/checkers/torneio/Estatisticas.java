@@ -0,0 +1,208 @@
+package com.checkers.torneio;
+
+import java.util.Locale;
+
+/**
+ * Placar de um torneio entre dois participantes, do ponto de vista do primeiro (A):
+ * vitórias, empates e derrotas, diferença de Elo com intervalo de 95%, LOS e o
+ * teste sequencial (SPRT) entre duas hipóteses de Elo. Também acumula a duração
+ * das partidas e os nós buscados por participante.
+ *
+ * O SPRT usa a aproximação normal do modelo de três resultados: a razão de
+ * log-verossimilhança é {@code n (s1 - s0) (2s - s0 - s1) / (2 var)}, com {@code s}
+ * a pontuação média, {@code var} a variância por partida e {@code s0}, {@code s1} as
+ * pontuações esperadas (curva logística) para {@code elo0} e {@code elo1}.
+ *
+ * Todos os métodos são sincronizados: uma partida leva milissegundos, a disputa pela
+ * trava é desprezível.
+ */
+final class Estatisticas {
+
+    /** Largura, em lances, de cada faixa do histograma de duração. */
+    static final int FAIXA_DURACAO = 10;
+
+    private final int limiteLances;
+    private final long[] duracoes;
+
+    private long vitorias;
+    private long empates;
+    private long derrotas;
+    private long vitoriasBrancas;
+    private long vitoriasPretas;
+    private long somaLances;
+
+    private final long[] nos = new long[2];
+    private final long[] tempoNs = new long[2];
+
+    private final boolean comSprt;
+    private final double elo0;
+    private final double elo1;
+    private final double limiteInferior;
+    private final double limiteSuperior;
+
+    /**
+     * @param limiteLances lances a partir dos quais a partida é empate (último balde do histograma)
+     * @param sprt         {@code {elo0, elo1}} para o SPRT, ou {@code null} sem teste
+     * @param alfa         erro tipo I do SPRT
+     * @param beta         erro tipo II do SPRT
+     */
+    Estatisticas(int limiteLances, double[] sprt, double alfa, double beta) {
+        this.limiteLances = limiteLances;
+        this.duracoes = new long[limiteLances / FAIXA_DURACAO + 1];
+        this.comSprt = sprt != null;
+        this.elo0 = comSprt ? sprt[0] : 0;
+        this.elo1 = comSprt ? sprt[1] : 0;
+        this.limiteInferior = Math.log(beta / (1 - alfa));
+        this.limiteSuperior = Math.log((1 - beta) / alfa);
+    }
+
+    /**
+     * Registra uma partida.
+     *
+     * @param pontosA      1 vitória de A, 0.5 empate, 0 derrota
+     * @param aBrancas     se A jogou de brancas
+     * @param lances       lances da partida (meio-lances, um por vez de jogar)
+     */
+    synchronized void registrar(double pontosA, boolean aBrancas, int lances) {
+        if (pontosA == 1) {
+            vitorias++;
+            if (aBrancas) vitoriasBrancas++;
+            else vitoriasPretas++;
+        } else if (pontosA == 0) {
+            derrotas++;
+            if (aBrancas) vitoriasPretas++;
+            else vitoriasBrancas++;
+        } else {
+            empates++;
+        }
+        somaLances += lances;
+        duracoes[Math.min(lances, limiteLances) / FAIXA_DURACAO]++;
+    }
+
+    /** Soma os nós e o tempo de busca de um participante (0 = A, 1 = B). */
+    synchronized void registrarBusca(int participante, long nosBuscados, long tempoBuscaNs) {
+        nos[participante] += nosBuscados;
+        tempoNs[participante] += tempoBuscaNs;
+    }
+
+    synchronized long getPartidas() {
+        return vitorias + empates + derrotas;
+    }
+
+    /** Pontuação média de A (0 a 1). */
+    synchronized double pontuacao() {
+        long n = getPartidas();
+        return n == 0 ? 0.5 : (vitorias + 0.5 * empates) / n;
+    }
+
+    /** Variância da pontuação de uma partida. */
+    private double variancia() {
+        long n = getPartidas();
+        if (n == 0) return 0;
+        double s = pontuacao();
+        return (vitorias * (1 - s) * (1 - s) + empates * (0.5 - s) * (0.5 - s) + derrotas * s * s) / n;
+    }
+
+    /** Diferença de Elo de A para B estimada pela pontuação. */
+    synchronized double elo() {
+        return elo(pontuacao());
+    }
+
+    /** Meia largura do intervalo de 95% do Elo. */
+    synchronized double margemElo() {
+        long n = getPartidas();
+        if (n == 0) return 0;
+        double s = pontuacao();
+        double margem = 1.96 * Math.sqrt(variancia() / n);
+        return (elo(s + margem) - elo(s - margem)) / 2;
+    }
+
+    /** Probabilidade de A ser mais forte que B (likelihood of superiority). */
+    synchronized double los() {
+        if (vitorias + derrotas == 0) return 0.5;
+        return 0.5 * (1 + erf((vitorias - derrotas) / Math.sqrt(2.0 * (vitorias + derrotas))));
+    }
+
+    /** Razão de log-verossimilhança de H1 ({@code elo1}) contra H0 ({@code elo0}). */
+    synchronized double llr() {
+        double var = variancia();
+        if (!comSprt || var == 0) return 0;
+        double s0 = pontuacaoEsperada(elo0);
+        double s1 = pontuacaoEsperada(elo1);
+        return getPartidas() * (s1 - s0) * (2 * pontuacao() - s0 - s1) / (2 * var);
+    }
+
+    /** {@code "H1"} ou {@code "H0"} quando o SPRT decidiu; {@code null} enquanto não. */
+    synchronized String decisaoSprt() {
+        if (!comSprt) return null;
+        double llr = llr();
+        if (llr >= limiteSuperior) return "H1";
+        if (llr <= limiteInferior) return "H0";
+        return null;
+    }
+
+    static double elo(double pontuacao) {
+        double s = Math.min(Math.max(pontuacao, 1e-6), 1 - 1e-6);
+        return -400 * Math.log10(1 / s - 1);
+    }
+
+    static double pontuacaoEsperada(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    /** Aproximação de Abramowitz e Stegun (7.1.26), erro abaixo de 1.5e-7. */
+    static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * Math.abs(x));
+        double y = 1 - t * (0.254829592 + t * (-0.284496736 + t * (1.421413741
+                + t * (-1.453152027 + t * 1.061405429)))) * Math.exp(-x * x);
+        return x >= 0 ? y : -y;
+    }
+
+    /** Linha curta para o progresso. */
+    synchronized String resumo() {
+        String texto = String.format(Locale.ROOT, "%d partidas  +%d =%d -%d  %.1f%%  Elo %+.1f ± %.1f  LOS %.1f%%",
+                getPartidas(), vitorias, empates, derrotas, 100 * pontuacao(), elo(), margemElo(), 100 * los());
+        if (comSprt) {
+            texto += String.format(Locale.ROOT, "  LLR %.2f [%.2f, %.2f]", llr(), limiteInferior, limiteSuperior);
+        }
+        return texto;
+    }
+
+    /** Relatório final: placar, SPRT, busca por participante e histograma da duração. */
+    synchronized String relatorio(String nomeA, String nomeB, long duracaoNs) {
+        StringBuilder sb = new StringBuilder();
+        double segundos = duracaoNs / 1e9;
+        long n = getPartidas();
+        sb.append("================ RELATÓRIO DO TORNEIO ================\n");
+        sb.append(String.format(Locale.ROOT, "A: %s%nB: %s%n", nomeA, nomeB));
+        sb.append(String.format(Locale.ROOT, "Partidas:     %d em %.1f s (%.2f/s)%n", n, segundos, n / segundos));
+        sb.append(String.format(Locale.ROOT, "Placar de A:  +%d =%d -%d (%.1f%%)%n",
+                vitorias, empates, derrotas, 100 * pontuacao()));
+        sb.append(String.format(Locale.ROOT, "Por cor:      brancas venceram %d, pretas %d%n", vitoriasBrancas, vitoriasPretas));
+        sb.append(String.format(Locale.ROOT, "Elo de A:     %+.1f ± %.1f (95%%), LOS %.1f%%%n", elo(), margemElo(), 100 * los()));
+        if (comSprt) {
+            String decisao = decisaoSprt();
+            sb.append(String.format(Locale.ROOT, "SPRT:         elo0=%.1f elo1=%.1f LLR %.2f [%.2f, %.2f] %s%n",
+                    elo0, elo1, llr(), limiteInferior, limiteSuperior,
+                    decisao == null ? "inconclusivo" : decisao + " aceita"));
+        }
+        for (int i = 0; i < 2; i++) {
+            sb.append(String.format(Locale.ROOT, "Busca de %s:   %d nós, %.0f nós/s%n", i == 0 ? "A" : "B",
+                    nos[i], tempoNs[i] > 0 ? nos[i] * 1e9 / tempoNs[i] : 0.0));
+        }
+        sb.append(String.format(Locale.ROOT, "Duração:      média %.1f lances%n", n == 0 ? 0.0 : (double) somaLances / n));
+
+        long maior = 1;
+        for (long d : duracoes) maior = Math.max(maior, d);
+        for (int i = 0; i < duracoes.length; i++) {
+            if (duracoes[i] == 0) continue;
+            String faixa = i == duracoes.length - 1 && limiteLances % FAIXA_DURACAO == 0
+                    ? String.format(Locale.ROOT, "%7s", "limite")
+                    : String.format(Locale.ROOT, "%3d-%-3d", i * FAIXA_DURACAO, i * FAIXA_DURACAO + FAIXA_DURACAO - 1);
+            sb.append(String.format(Locale.ROOT, "  %s %7d %s%n", faixa, duracoes[i],
+                    "#".repeat((int) Math.max(1, 50 * duracoes[i] / maior))));
+        }
+        sb.append("======================================================");
+        return sb.toString();
+    }
+}
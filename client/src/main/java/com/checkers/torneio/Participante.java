@@ -0,0 +1,57 @@
+package com.checkers.torneio;
+
+import com.checkers.engine.Avaliacao;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/** Um lado do torneio: nome e avaliação usada pela busca. */
+final class Participante {
+
+    private final String nome;
+    private final Avaliacao avaliacao;
+
+    Participante(String nome, Avaliacao avaliacao) {
+        this.nome = nome;
+        this.avaliacao = avaliacao;
+    }
+
+    /**
+     * A partir da linha de comando: {@code padrao}, um arquivo de pesos
+     * ({@link Avaliacao#ler(Path)}) ou os pesos separados por vírgula, na ordem de
+     * {@link Avaliacao#NOMES}.
+     */
+    static Participante de(String especificacao) throws IOException {
+        if (especificacao.equals("padrao")) {
+            return new Participante("padrao" + Arrays.toString(Avaliacao.padrao().getPesos()), Avaliacao.padrao());
+        }
+        Path arquivo = Paths.get(especificacao);
+        if (Files.isRegularFile(arquivo)) {
+            Avaliacao avaliacao = Avaliacao.ler(arquivo);
+            return new Participante(arquivo.getFileName() + Arrays.toString(avaliacao.getPesos()), avaliacao);
+        }
+        String[] partes = especificacao.split(",");
+        int[] pesos = new int[partes.length];
+        for (int i = 0; i < partes.length; i++) {
+            pesos[i] = Integer.parseInt(partes[i].trim());
+        }
+        Avaliacao avaliacao = new Avaliacao(pesos);
+        return new Participante(Arrays.toString(pesos), avaliacao);
+    }
+
+    String getNome() {
+        return nome;
+    }
+
+    Avaliacao getAvaliacao() {
+        return avaliacao;
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
@@ -0,0 +1,261 @@
+package com.checkers.torneio;
+
+import com.checkers.arquivo.EscritorDePartidas;
+import com.checkers.arquivo.ResultadoPartida;
+import com.checkers.engine.Bitboard;
+import com.checkers.engine.Busca;
+import com.checkers.engine.GeradorMovimentos;
+import com.checkers.engine.Lance;
+import com.checkers.engine.ListaMovimentos;
+import com.checkers.engine.Posicao;
+import com.checkers.engine.SondaDeFinais;
+import com.checkers.engine.TabelaTransposicao;
+import com.checkers.finais.TabelaDeFinais;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Torneio local entre duas avaliações, sem rede nem interface: cada partida é uma
+ * tarefa num {@link ForkJoinPool} (roubo de trabalho entre as threads) e cada thread
+ * tem as suas duas buscas de uma thread só, com tabelas de transposição próprias
+ * limpas a cada partida.
+ *
+ * As partidas vêm em pares com a mesma abertura (alguns lances aleatórios, sorteados
+ * pela semente e pelo número do par) e cores trocadas. Cada lance escolhido pela busca
+ * é jogado salto a salto com {@link Posicao#aplicarSalto}, como o cliente acompanha o
+ * servidor, e conferido contra o lance completo do gerador: uma divergência entre as
+ * regras das duas vias interrompe o torneio com a posição.
+ *
+ * O servidor não tem empate; aqui a partida é empate ao atingir o limite de lances.
+ * Com {@code -Ddamas.finais.pasta} as buscas usam as tabelas de finais e a partida é
+ * decidida pelo resultado delas assim que a posição entra nas tabelas.
+ *
+ * Uso: {@code Torneio <partidas> <tempoMs> [pesosA|arquivo|padrao] [pesosB|arquivo|padrao] [threads]}
+ * <ul>
+ *   <li>{@code -Ddamas.torneio.profundidade} (padrão {@link Busca#PROFUNDIDADE_MAXIMA}): com tempo
+ *       folgado, deixa as partidas reprodutíveis;</li>
+ *   <li>{@code -Ddamas.torneio.aberturas} (6): lances aleatórios no começo de cada par;</li>
+ *   <li>{@code -Ddamas.torneio.limite} (200): lances até o empate;</li>
+ *   <li>{@code -Ddamas.torneio.semente} (1): semente das aberturas;</li>
+ *   <li>{@code -Ddamas.torneio.tabela} (20): bits de entradas de cada tabela de transposição;</li>
+ *   <li>{@code -Ddamas.torneio.sprt=elo0,elo1}: para no primeiro veredito do SPRT (alfa = beta = 0.05);</li>
+ *   <li>{@code -Ddamas.torneio.arquivo}: grava as partidas no formato de {@code com.checkers.arquivo}.</li>
+ * </ul>
+ */
+public final class Torneio {
+
+    private final Participante a;
+    private final Participante b;
+    private final int numPartidas;
+    private final long tempoMs;
+    private final int numThreads;
+    private final int profundidade = Integer.getInteger("damas.torneio.profundidade", Busca.PROFUNDIDADE_MAXIMA);
+    private final int lancesDeAbertura = Integer.getInteger("damas.torneio.aberturas", 6);
+    private final int limiteLances = Integer.getInteger("damas.torneio.limite", 200);
+    private final long semente = Long.getLong("damas.torneio.semente", 1);
+    private final int bitsTabela = Integer.getInteger("damas.torneio.tabela", 20);
+
+    private final Estatisticas estatisticas;
+    private final AtomicBoolean encerrado = new AtomicBoolean();
+    private final SondaDeFinais finais;
+    private final EscritorDePartidas escritor;
+    private final ThreadLocal<Motor> motores = ThreadLocal.withInitial(Motor::new);
+
+    Torneio(Participante a, Participante b, int numPartidas, long tempoMs, int numThreads,
+            double[] sprt, SondaDeFinais finais, EscritorDePartidas escritor) {
+        this.a = a;
+        this.b = b;
+        this.numPartidas = numPartidas;
+        this.tempoMs = tempoMs;
+        this.numThreads = Math.max(1, numThreads);
+        this.estatisticas = new Estatisticas(limiteLances, sprt, 0.05, 0.05);
+        this.finais = finais;
+        this.escritor = escritor;
+    }
+
+    /** Estado de uma thread do pool: uma busca por participante e listas reaproveitadas. */
+    private final class Motor {
+        final Busca[] buscas = new Busca[2];
+        final ListaMovimentos lista = new ListaMovimentos();
+        final Posicao conferencia = new Posicao();
+        int[] saltos = new int[256];
+
+        Motor() {
+            Participante[] participantes = {a, b};
+            for (int i = 0; i < 2; i++) {
+                buscas[i] = new Busca(new TabelaTransposicao(bitsTabela), participantes[i].getAvaliacao(), 1);
+                buscas[i].setFinais(finais);
+            }
+        }
+    }
+
+    Estatisticas executar() {
+        System.out.println("[TORNEIO] " + numPartidas + " partidas, " + tempoMs + " ms por lance, "
+                + numThreads + " threads: A=" + a + " x B=" + b);
+        int passo = Math.max(1, Math.min(1000, numPartidas / 20));
+        long inicio = System.nanoTime();
+
+        ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            List<ForkJoinTask<?>> tarefas = new ArrayList<>(numPartidas);
+            for (int i = 0; i < numPartidas; i++) {
+                int partida = i;
+                tarefas.add(pool.submit(() -> {
+                    if (encerrado.get()) return;
+                    jogar(partida);
+                    long feitas = estatisticas.getPartidas();
+                    if (feitas % passo == 0) {
+                        System.out.println("[TORNEIO] " + estatisticas.resumo());
+                    }
+                    if (estatisticas.decisaoSprt() != null && encerrado.compareAndSet(false, true)) {
+                        System.out.println("[TORNEIO] SPRT decidiu após " + feitas + " partidas");
+                    }
+                }));
+            }
+            for (ForkJoinTask<?> tarefa : tarefas) {
+                tarefa.join();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        System.out.println(estatisticas.relatorio(a.toString(), b.toString(), System.nanoTime() - inicio));
+        return estatisticas;
+    }
+
+    /** Joga a partida {@code partida}: pares consecutivos dividem a abertura, A de brancas nas pares. */
+    private void jogar(int partida) {
+        Motor motor = motores.get();
+        boolean aBrancas = (partida & 1) == 0;
+        for (Busca busca : motor.buscas) {
+            busca.getTabela().limpar();
+        }
+
+        Posicao posicao = Posicao.inicial();
+        int numSaltos = abrir(posicao, motor, new SplittableRandom(semente * 0x9E3779B97F4A7C15L + partida / 2));
+        int lances = lancesDeAbertura;
+
+        ResultadoPartida resultado = null;
+        String motivo = null;
+        while (resultado == null) {
+            boolean vezDasBrancas = posicao.isVezDasBrancas();
+            if (GeradorMovimentos.gerar(posicao, motor.lista) == 0) {
+                resultado = vezDasBrancas ? ResultadoPartida.PRETAS : ResultadoPartida.BRANCAS;
+                motivo = posicao.pecasDe(vezDasBrancas) == 0 ? "sem peças" : "sem lances";
+                break;
+            }
+            if (finais != null && Long.bitCount(posicao.ocupadas()) <= finais.getMaxPecas()) {
+                int doFinal = finais.sondar(posicao);
+                if (doFinal != SondaDeFinais.DESCONHECIDO) {
+                    resultado = doFinal == SondaDeFinais.EMPATE ? ResultadoPartida.EMPATE
+                            : (doFinal == SondaDeFinais.VITORIA) == vezDasBrancas
+                            ? ResultadoPartida.BRANCAS : ResultadoPartida.PRETAS;
+                    motivo = "tabelas de finais";
+                    break;
+                }
+            }
+            if (lances >= limiteLances) {
+                resultado = ResultadoPartida.EMPATE;
+                motivo = "limite de lances";
+                break;
+            }
+
+            int participante = vezDasBrancas == aBrancas ? 0 : 1;
+            Busca.Resultado escolha = motor.buscas[participante].buscar(posicao, tempoMs, profundidade);
+            estatisticas.registrarBusca(participante, escolha.getNos(), escolha.getTempoNs());
+            numSaltos = jogarLance(posicao, escolha.getLance(), motor, numSaltos);
+            lances++;
+        }
+
+        boolean vitoriaDeA = resultado == (aBrancas ? ResultadoPartida.BRANCAS : ResultadoPartida.PRETAS);
+        estatisticas.registrar(resultado == ResultadoPartida.EMPATE ? 0.5 : vitoriaDeA ? 1 : 0, aBrancas, lances);
+
+        if (escritor != null) {
+            try {
+                escritor.gravar(System.currentTimeMillis(), aBrancas ? "A " + a : "B " + b, aBrancas ? "B " + b : "A " + a,
+                        resultado, motivo, motor.saltos, numSaltos, true);
+            } catch (IOException e) {
+                throw new IllegalStateException("Falha ao gravar a partida " + partida, e);
+            }
+        }
+    }
+
+    /** Lances aleatórios da abertura do par; devolve o número de saltos gravados. */
+    private int abrir(Posicao posicao, Motor motor, SplittableRandom aleatorio) {
+        int numSaltos = 0;
+        for (int i = 0; i < lancesDeAbertura; i++) {
+            int n = GeradorMovimentos.gerar(posicao, motor.lista);
+            if (n == 0) break;
+            numSaltos = jogarLance(posicao, motor.lista.lance(aleatorio.nextInt(n)), motor, numSaltos);
+        }
+        return numSaltos;
+    }
+
+    /**
+     * Joga o lance salto a salto pelas regras do cliente e confere com o lance completo
+     * do gerador: mesma posição no fim e vez passada só depois do último salto.
+     */
+    private int jogarLance(Posicao posicao, Lance lance, Motor motor, int numSaltos) {
+        motor.conferencia.copiarDe(posicao);
+        motor.conferencia.jogar(lance);
+
+        boolean vezDasBrancas = posicao.isVezDasBrancas();
+        int origem = lance.getOrigem();
+        for (int j = 0; j < lance.getSaltos(); j++) {
+            if (j > 0 && posicao.isVezDasBrancas() != vezDasBrancas) {
+                throw divergencia(motor.conferencia, lance, "a vez passou antes do último salto");
+            }
+            int destino = lance.casaDoCaminho(j);
+            if (numSaltos == motor.saltos.length) {
+                motor.saltos = Arrays.copyOf(motor.saltos, numSaltos * 2);
+            }
+            motor.saltos[numSaltos++] = Bitboard.salto(origem, destino);
+            posicao.aplicarSalto(origem, destino);
+            origem = destino;
+        }
+        if (!posicao.equals(motor.conferencia)) {
+            throw divergencia(motor.conferencia, lance, "salto a salto deu\n" + posicao);
+        }
+        return numSaltos;
+    }
+
+    private static IllegalStateException divergencia(Posicao esperada, Lance lance, String detalhe) {
+        return new IllegalStateException("Regras divergentes no lance " + lance + ": " + detalhe
+                + "\nesperado\n" + esperada);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: Torneio <partidas> <tempoMs> [pesosA|arquivo|padrao] [pesosB|arquivo|padrao] [threads]");
+            System.exit(2);
+        }
+        int partidas = Integer.parseInt(args[0]);
+        long tempoMs = Long.parseLong(args[1]);
+        Participante a = Participante.de(args.length > 2 ? args[2] : "padrao");
+        Participante b = Participante.de(args.length > 3 ? args[3] : "padrao");
+        int threads = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+
+        double[] sprt = null;
+        String textoSprt = System.getProperty("damas.torneio.sprt");
+        if (textoSprt != null) {
+            String[] partes = textoSprt.split(",");
+            sprt = new double[]{Double.parseDouble(partes[0]), Double.parseDouble(partes[1])};
+        }
+
+        String pastaFinais = System.getProperty("damas.finais.pasta");
+        String arquivo = System.getProperty("damas.torneio.arquivo");
+        try (TabelaDeFinais finais = pastaFinais == null ? null : TabelaDeFinais.abrir(Paths.get(pastaFinais));
+             EscritorDePartidas escritor = arquivo == null ? null : EscritorDePartidas.abrir(Path.of(arquivo))) {
+            new Torneio(a, b, partidas, tempoMs, threads, sprt, finais, escritor).executar();
+        }
+    }
+}
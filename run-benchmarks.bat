@@ -0,0 +1,9 @@
+@echo off
+echo ================================================
+echo   EXECUTANDO BENCHMARKS JMH (REGRAS DO CLIENTE)
+echo ================================================
+cd client
+call mvn install -DskipTests
+cd ..\benchmarks
+call mvn package
+java -jar target\benchmarks.jar %*
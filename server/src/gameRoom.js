@@ -10,6 +10,9 @@ export class GameRoom {
     this.player2 = null;
     this.gameState = new GameState();
     this.player1Turn = true;
+    this.seq = 0; // Número do último lance válido
+    this.moves = []; // Lances válidos em ordem (moves[i].seq === i + 1)
+    this.gameOver = false;
   }
 
   setPlayer1(playerInfo) {
@@ -50,21 +53,33 @@ export class GameRoom {
     );
 
     if (valid) {
+      this.seq++;
+      this.moves.push({
+        from_row: move.from_row,
+        from_col: move.from_col,
+        to_row: move.to_row,
+        to_col: move.to_col,
+        seq: this.seq
+      });
       console.log(`[SALA ${this.roomId}] Movimento válido: (${move.from_row},${move.from_col}) -> (${move.to_row},${move.to_col})`);
       
       // Verifica fim de jogo
       const gameOverMsg = this.gameState.checkGameOver();
       
-      // Troca o turno apenas se não houver fim de jogo
+      // O turno segue o GameState: numa captura múltipla a vez continua com
+      // o mesmo jogador até a sequência terminar (jogador 1 = brancas)
       if (!gameOverMsg) {
-        this.player1Turn = !this.player1Turn;
+        this.player1Turn = this.gameState.isWhiteTurn();
+      } else {
+        this.gameOver = true;
       }
 
       return {
         valid: true,
         message: 'Movimento executado',
         gameOver: gameOverMsg,
-        move: move
+        move: move,
+        seq: this.seq
       };
     } else {
       console.log(`[SALA ${this.roomId}] Movimento inválido`);
@@ -76,6 +91,85 @@ export class GameRoom {
     }
   }
 
+  /**
+   * Executa um lance inteiro (origem e casas de cada salto, índices 0-31).
+   * Tudo ou nada: se algum salto for inválido, a partida volta ao estado anterior.
+   */
+  handleMoveSequence(playerId, path) {
+    if (!Array.isArray(path) || path.length < 2) {
+      return { valid: false, message: 'Sequência vazia!', gameOver: null };
+    }
+    if (!path.every(square => Number.isInteger(square) && square >= 0 && square < 32)) {
+      return { valid: false, message: 'Casa fora do tabuleiro!', gameOver: null };
+    }
+
+    const saved = {
+      board: this.gameState.board.map(row => [...row]),
+      whiteTurn: this.gameState.whiteTurn,
+      player1Turn: this.player1Turn,
+      seq: this.seq,
+      gameOver: this.gameOver
+    };
+    const restore = () => {
+      this.gameState.board = saved.board;
+      this.gameState.whiteTurn = saved.whiteTurn;
+      this.player1Turn = saved.player1Turn;
+      this.seq = saved.seq;
+      this.moves.length = saved.seq;
+      this.gameOver = saved.gameOver;
+    };
+
+    let result = null;
+    try {
+      for (let i = 0; i + 1 < path.length; i++) {
+        const [from_row, from_col] = squareToRowCol(path[i]);
+        const [to_row, to_col] = squareToRowCol(path[i + 1]);
+        result = this.handleMove(playerId, { from_row, from_col, to_row, to_col });
+
+        // Todo salto antes do último precisa deixar a vez com o mesmo jogador
+        if (!result.valid || (result.gameOver && i + 2 < path.length)) {
+          console.log(`[SALA ${this.roomId}] Sequência inválida no salto ${i + 1}, desfazendo`);
+          restore();
+          return { valid: false, message: result.valid ? 'Sequência inválida!' : result.message, gameOver: null };
+        }
+      }
+    } catch (error) {
+      // Um salto que lança exceção não pode deixar os anteriores aplicados
+      console.error(`[SALA ${this.roomId}] Erro na sequência, desfazendo:`, error.message);
+      restore();
+      throw error;
+    }
+
+    return {
+      valid: true,
+      message: 'Sequência executada',
+      gameOver: result.gameOver,
+      firstSeq: saved.seq + 1,
+      seq: this.seq
+    };
+  }
+
+  /**
+   * Estado completo da partida para ressincronizar um cliente
+   */
+  getSnapshot() {
+    const { white, black, kings } = this.gameState.toBitboards();
+    return {
+      white,
+      black,
+      kings,
+      white_to_move: this.gameState.isWhiteTurn(),
+      seq: this.seq
+    };
+  }
+
+  /**
+   * Lances posteriores a lastSeq, para quem retoma a sessão
+   */
+  movesSince(lastSeq) {
+    return this.moves.slice(Math.max(0, lastSeq));
+  }
+
   getCurrentPlayer() {
     return this.player1Turn ? this.player1 : this.player2;
   }
@@ -94,6 +188,15 @@ export class GameRoom {
   }
 }
 
+/**
+ * Converte o índice da casa escura (0-31) em [linha, coluna]
+ */
+function squareToRowCol(square) {
+  const row = Math.floor(square / 4);
+  const col = (square % 4) * 2 + (row % 2 === 0 ? 1 : 0);
+  return [row, col];
+}
+
 /**
  * Gerenciador de salas de jogo
  */
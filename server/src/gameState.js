@@ -57,8 +57,8 @@ export class GameState {
     const allCaptures = this.findAllCaptures(this.whiteTurn);
     const mustCapture = allCaptures.length > 0;
 
-    // Movimento de captura
-    if (Math.abs(dr) >= 2) {
+    // Movimento de captura (uma dama com o caminho livre está só andando várias casas)
+    if (Math.abs(dr) >= 2 && !(isKing && this.isPathClear(r1, c1, r2, c2))) {
       const capturesFromPiece = this.getCaptureMovements(piece, r1, c1);
       const validCapture = capturesFromPiece.some(move => move[0] === r2 && move[1] === c2);
 
@@ -316,4 +316,24 @@ export class GameState {
   isWhiteTurn() {
     return this.whiteTurn;
   }
+
+  /**
+   * Tabuleiro em bitboards de 32 bits (bit i = casa escura i = linha * 4 + coluna / 2)
+   */
+  toBitboards() {
+    let white = 0;
+    let black = 0;
+    let kings = 0;
+    for (let r = 0; r < 8; r++) {
+      for (let c = 0; c < 8; c++) {
+        const piece = this.board[r][c];
+        if (!piece) continue;
+        const bit = 2 ** (r * 4 + Math.floor(c / 2));
+        if (piece.includes('⚪')) white += bit;
+        else black += bit;
+        if (piece.includes('D')) kings += bit;
+      }
+    }
+    return { white, black, kings };
+  }
 }
@@ -3,6 +3,7 @@ import protoLoader from '@grpc/proto-loader';
 import { fileURLToPath } from 'url';
 import { dirname, join } from 'path';
 import { GameRoomManager } from './gameRoom.js';
+import { SpectatorHub, rowColToSquare } from './spectators.js';
 
 const __filename = fileURLToPath(import.meta.url);
 const __dirname = dirname(__filename);
@@ -23,9 +24,21 @@ const checkersProto = grpc.loadPackageDefinition(packageDefinition).checkers;
 // Gerenciador de salas
 const roomManager = new GameRoomManager();
 
+// Espectadores das salas (WatchGames)
+const spectators = new SpectatorHub(roomManager);
+
 // Armazena os streams dos jogadores
 const playerStreams = new Map();
 
+// Sessões criadas em Connect e ainda não usadas em PlayGame (sessionId -> { playerName, timer });
+// uma sessão não usada em SESSION_TTL_MS é descartada
+const sessions = new Map();
+const SESSION_TTL_MS = 60000;
+
+// Jogadores cujo stream caiu no meio da partida (playerId -> timer de expiração)
+const resumeTimers = new Map();
+const RESUME_GRACE_MS = 30000;
+
 /**
  * Implementação do método Connect
  */
@@ -34,6 +47,12 @@ function connect(call, callback) {
   const playerId = generatePlayerId();
 
   console.log(`[SERVIDOR] Jogador ${playerName} conectado com ID ${playerId}`);
+  const timer = setTimeout(() => {
+    sessions.delete(playerId);
+    console.log(`[SERVIDOR] Sessão ${playerId} descartada sem PlayGame`);
+  }, SESSION_TTL_MS);
+  timer.unref();
+  sessions.set(playerId, { playerName, timer });
 
   callback(null, {
     session_id: playerId,
@@ -55,9 +74,71 @@ function playGame(call) {
   // Recebe mensagens do cliente
   call.on('data', (gameMessage) => {
     try {
+      // Novo stream de um jogador cuja conexão caiu: retoma a partida
+      if (!playerId && gameMessage.resume) {
+        const sessionId = gameMessage.resume.session_id;
+        const resumedRoom = roomManager.getPlayerRoom(sessionId);
+        if (!resumedRoom || !resumedRoom.isFull() || resumedRoom.gameOver) {
+          console.log(`[SERVIDOR] Retomada recusada para a sessão ${sessionId}`);
+          call.write({
+            game_over: {
+              winner: 'DISCONNECT',
+              reason: 'Sessão expirada'
+            }
+          });
+          call.end();
+          return;
+        }
+
+        playerId = sessionId;
+        room = resumedRoom;
+        isPlayer1 = room.player1.id === playerId;
+        playerName = isPlayer1 ? room.player1.name : room.player2.name;
+
+        clearTimeout(resumeTimers.get(playerId));
+        resumeTimers.delete(playerId);
+
+        // O stream antigo pode ainda não ter dado sinal da queda: encerra, para dois
+        // streams não agirem pelo mesmo jogador (os eventos dele passam a ser ignorados)
+        const oldStream = playerStreams.get(playerId);
+        playerStreams.set(playerId, call);
+        if (oldStream && oldStream !== call) {
+          console.log(`[SERVIDOR] Encerrando o stream anterior de ${playerName}`);
+          try {
+            oldStream.end();
+          } catch (error) {
+            // stream já encerrado
+          }
+        }
+
+        // Só os lances que o cliente perdeu, e a vez se for dele
+        const missed = room.movesSince(gameMessage.resume.last_seq);
+        console.log(`[SALA ${room.roomId}] ${playerName} retomou a sessão (${missed.length} lance(s) reenviado(s))`);
+        call.write({ resumed: { seq: room.seq } });
+        for (const move of missed) {
+          call.write({ opponent_move: move });
+        }
+        if (room.getCurrentPlayer().id === playerId) {
+          call.write({
+            your_turn: {
+              message: 'Sua vez!'
+            }
+          });
+        }
+        return;
+      }
+
       // Primeira mensagem deve conter o nome do jogador
       if (!playerId) {
-        playerId = generatePlayerId();
+        // Usa a sessão criada em Connect, se houver (necessária para retomar)
+        const sessionId = gameMessage.waiting && gameMessage.waiting.session_id;
+        if (sessionId && sessions.has(sessionId)) {
+          playerId = sessionId;
+          clearTimeout(sessions.get(sessionId).timer);
+          sessions.delete(sessionId);
+        } else {
+          playerId = generatePlayerId();
+        }
         
         // Extrai o nome do jogador da mensagem WaitingForPlayer
         if (gameMessage.waiting && gameMessage.waiting.player_name) {
@@ -86,6 +167,7 @@ function playGame(call) {
         } else {
           // Jogo pode começar
           const opponent = room.getOpponent(playerId);
+          spectators.roomStarted(room);
           
           // Envia mensagem de início para ambos os jogadores
           call.write({
@@ -123,26 +205,61 @@ function playGame(call) {
         return;
       }
 
-      // Processa movimentos
-      if (gameMessage.move) {
-        const move = gameMessage.move;
-        console.log(`[SERVIDOR] Movimento recebido de ${playerName}: (${move.from_row},${move.from_col}) -> (${move.to_row},${move.to_col})`);
+      // Stream substituído por uma retomada: só o novo age pelo jogador
+      if (playerStreams.get(playerId) !== call) {
+        console.log(`[SERVIDOR] Mensagem de um stream antigo de ${playerName} ignorada`);
+        return;
+      }
 
-        const result = room.handleMove(playerId, move);
+      // Cliente fora de sincronia: envia o estado completo
+      if (gameMessage.resync) {
+        console.log(`[SERVIDOR] ${playerName} pediu ressincronização (último lance: ${gameMessage.resync.last_seq})`);
+        call.write({ snapshot: room.getSnapshot() });
+        return;
+      }
 
-        if (result.valid) {
-          // Envia o movimento para ambos os jogadores
-          const opponent = room.getOpponent(playerId);
-          const opponentStream = playerStreams.get(opponent.id);
+      // Processa movimentos: um salto (Move) ou o lance inteiro (MoveSequence)
+      if (gameMessage.move || gameMessage.move_sequence) {
+        let result;
+        let opponentMoveMsg;
+        let hops;
 
-          const opponentMoveMsg = {
+        if (gameMessage.move) {
+          const move = gameMessage.move;
+          console.log(`[SERVIDOR] Movimento recebido de ${playerName}: (${move.from_row},${move.from_col}) -> (${move.to_row},${move.to_col})`);
+
+          result = room.handleMove(playerId, move);
+          opponentMoveMsg = {
             opponent_move: {
               from_row: move.from_row,
               from_col: move.from_col,
               to_row: move.to_row,
-              to_col: move.to_col
+              to_col: move.to_col,
+              seq: result.seq
+            }
+          };
+          hops = [rowColToSquare(move.from_row, move.from_col) * 32 + rowColToSquare(move.to_row, move.to_col)];
+        } else {
+          const path = gameMessage.move_sequence.path;
+          console.log(`[SERVIDOR] Sequência recebida de ${playerName}: ${path.join(' -> ')}`);
+
+          // Um único eco para o lance inteiro, com o seq do primeiro salto
+          result = room.handleMoveSequence(playerId, path);
+          opponentMoveMsg = {
+            move_sequence: {
+              path,
+              seq: result.firstSeq
             }
           };
+          hops = path.slice(1).map((to, i) => path[i] * 32 + to);
+        }
+
+        if (result.valid) {
+          spectators.movePlayed(room, hops, result.firstSeq || result.seq);
+
+          // Envia o movimento para ambos os jogadores
+          const opponent = room.getOpponent(playerId);
+          const opponentStream = playerStreams.get(opponent.id);
 
           // Envia para ambos
           call.write(opponentMoveMsg);
@@ -160,6 +277,7 @@ function playGame(call) {
             };
 
             call.write(gameOverMsg);
+            spectators.gameEnded(room, gameOverMsg.game_over);
             if (opponentStream) {
               opponentStream.write(gameOverMsg);
             }
@@ -211,31 +329,78 @@ function playGame(call) {
   call.on('end', () => {
     console.log(`[SERVIDOR] Jogador ${playerName} desconectou`);
     
-    if (playerId && room) {
-      const opponent = roomManager.removePlayer(playerId);
-      playerStreams.delete(playerId);
-
-      // Notifica o oponente
-      if (opponent) {
-        const opponentStream = playerStreams.get(opponent.id);
-        if (opponentStream) {
-          opponentStream.write({
-            game_over: {
-              winner: 'DISCONNECT',
-              reason: 'Oponente desconectou'
-            }
-          });
-        }
-      }
+    // Ignora o fim de um stream antigo que já foi substituído por uma retomada
+    if (playerId && room && playerStreams.get(playerId) === call) {
+      leaveRoom(playerId);
     }
 
     call.end();
   });
 
-  // Erro na conexão
+  // Queda do stream: o grpc-js avisa um cliente que sumiu por 'cancelled'/'close',
+  // e não só por 'error'; os três caminhos chegam aqui, e só o primeiro conta
+  let streamLost = false;
+  const onStreamLost = (reason) => {
+    if (streamLost) return;
+    streamLost = true;
+
+    if (!playerId || !room || playerStreams.get(playerId) !== call) return;
+    console.log(`[SERVIDOR] Conexão de ${playerName} perdida (${reason})`);
+
+    if (room.isFull() && !room.gameOver) {
+      // Mantém a sala para o jogador retomar a sessão com ResumeSession
+      const id = playerId;
+      playerStreams.delete(id);
+      resumeTimers.set(id, setTimeout(() => {
+        resumeTimers.delete(id);
+        console.log(`[SERVIDOR] Sessão ${id} expirou sem retomada`);
+        leaveRoom(id);
+      }, RESUME_GRACE_MS));
+      console.log(`[SALA ${room.roomId}] Aguardando ${playerName} retomar a sessão por ${RESUME_GRACE_MS / 1000}s`);
+    } else {
+      leaveRoom(playerId);
+    }
+  };
+
   call.on('error', (error) => {
     console.error(`[SERVIDOR] Erro na conexão de ${playerName}:`, error.message);
+    onStreamLost('erro');
   });
+  call.on('cancelled', () => onStreamLost('cancelado'));
+  call.on('close', () => onStreamLost('fechado'));
+}
+
+/**
+ * Remove o jogador da sala e avisa o oponente
+ */
+function leaveRoom(playerId) {
+  const room = roomManager.getPlayerRoom(playerId);
+  if (room && room.isFull() && !room.gameOver) {
+    spectators.gameEnded(room, { winner: 'DISCONNECT', reason: 'Jogador desconectou' });
+  }
+
+  const opponent = roomManager.removePlayer(playerId);
+  playerStreams.delete(playerId);
+
+  // Notifica o oponente
+  if (opponent) {
+    const opponentStream = playerStreams.get(opponent.id);
+    if (opponentStream) {
+      opponentStream.write({
+        game_over: {
+          winner: 'DISCONNECT',
+          reason: 'Oponente desconectou'
+        }
+      });
+    }
+  }
+}
+
+/**
+ * Implementação do método WatchGames (stream do servidor para espectadores)
+ */
+function watchGames(call) {
+  spectators.watch(call);
 }
 
 /**
@@ -253,7 +418,8 @@ function startServer() {
 
   server.addService(checkersProto.CheckersGame.service, {
     Connect: connect,
-    PlayGame: playGame
+    PlayGame: playGame,
+    WatchGames: watchGames
   });
 
   const PORT = '0.0.0.0:50051';
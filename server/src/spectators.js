@@ -0,0 +1,144 @@
+/**
+ * Espectadores das salas (WatchGames)
+ *
+ * Cada espectador tem as novidades pendentes por sala, enviadas juntas num WatchUpdate
+ * a cada FLUSH_MS. Enquanto o stream de um espectador está cheio (write() retornou
+ * false) nada é enviado a ele e as novidades continuam se acumulando; se uma sala
+ * acumular saltos demais, eles são trocados por um snapshot tirado na hora do envio.
+ */
+
+const FLUSH_MS = 50;
+const MAX_PENDING_HOPS = 64;
+
+export class SpectatorHub {
+  constructor(roomManager) {
+    this.roomManager = roomManager;
+    this.watchers = new Set();
+    this.timer = null;
+  }
+
+  /**
+   * Registra um espectador e agenda o estado atual das salas em jogo
+   */
+  watch(call) {
+    const roomIds = call.request.room_ids || [];
+    const watcher = {
+      call,
+      filter: roomIds.length > 0 ? new Set(roomIds) : null,
+      pending: new Map(), // roomId -> novidades da sala
+      blocked: false
+    };
+    this.watchers.add(watcher);
+    console.log(`[ESPECTADOR] Novo espectador (${roomIds.length > 0 ? 'salas ' + roomIds.join(', ') : 'todas as salas'})`);
+
+    for (const room of this.roomManager.rooms.values()) {
+      if (room.isFull() && !room.gameOver && this.wants(watcher, room)) {
+        this.pendingFor(watcher, room).snapshot = true;
+      }
+    }
+
+    const remove = () => {
+      if (!this.watchers.delete(watcher)) return;
+      console.log('[ESPECTADOR] Espectador saiu');
+      if (this.watchers.size === 0) {
+        clearInterval(this.timer);
+        this.timer = null;
+      }
+    };
+    call.on('drain', () => {
+      watcher.blocked = false;
+    });
+    call.on('cancelled', remove);
+    call.on('error', remove);
+    call.on('close', remove);
+
+    if (!this.timer) {
+      this.timer = setInterval(() => this.flush(), FLUSH_MS);
+    }
+  }
+
+  /**
+   * Sala completa: os espectadores recebem os nomes e o tabuleiro inicial
+   */
+  roomStarted(room) {
+    for (const watcher of this.watchers) {
+      if (this.wants(watcher, room)) {
+        this.pendingFor(watcher, room).snapshot = true;
+      }
+    }
+  }
+
+  /**
+   * Saltos válidos (origem * 32 + destino), numerados a partir de firstSeq
+   */
+  movePlayed(room, hops, firstSeq) {
+    for (const watcher of this.watchers) {
+      if (!this.wants(watcher, room)) continue;
+      const entry = this.pendingFor(watcher, room);
+      if (entry.snapshot) continue; // O snapshot do envio já inclui os saltos
+      if (entry.hops.length === 0) entry.seq = firstSeq;
+      entry.hops.push(...hops);
+      if (entry.hops.length > MAX_PENDING_HOPS) {
+        entry.snapshot = true;
+        entry.hops = [];
+      }
+    }
+  }
+
+  gameEnded(room, gameOver) {
+    for (const watcher of this.watchers) {
+      if (this.wants(watcher, room)) {
+        this.pendingFor(watcher, room).gameOver = gameOver;
+      }
+    }
+  }
+
+  wants(watcher, room) {
+    return !watcher.filter || watcher.filter.has(room.roomId);
+  }
+
+  pendingFor(watcher, room) {
+    let entry = watcher.pending.get(room.roomId);
+    if (!entry) {
+      entry = { room, snapshot: false, seq: 0, hops: [], gameOver: null };
+      watcher.pending.set(room.roomId, entry);
+    }
+    return entry;
+  }
+
+  /**
+   * Um WatchUpdate por espectador com tudo o que mudou desde o anterior
+   */
+  flush() {
+    for (const watcher of this.watchers) {
+      if (watcher.blocked || watcher.pending.size === 0) continue;
+
+      const rooms = [];
+      for (const entry of watcher.pending.values()) {
+        const { room } = entry;
+        const update = { room_id: room.roomId };
+        if (entry.snapshot) {
+          update.snapshot = room.getSnapshot();
+          update.white_name = room.player1 ? room.player1.name : '';
+          update.black_name = room.player2 ? room.player2.name : '';
+        } else if (entry.hops.length > 0) {
+          update.seq = entry.seq;
+          update.hops = entry.hops;
+        }
+        if (entry.gameOver) {
+          update.game_over = entry.gameOver;
+        }
+        rooms.push(update);
+      }
+      watcher.pending.clear();
+      watcher.blocked = !watcher.call.write({ rooms });
+    }
+  }
+}
+
+/**
+ * Índice da casa escura (0-31) de uma linha e coluna
+ */
+export function rowColToSquare(row, col) {
+  return row * 4 + Math.floor(col / 2);
+}